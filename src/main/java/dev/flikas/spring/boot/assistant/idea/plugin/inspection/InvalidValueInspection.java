@@ -2,13 +2,11 @@ package dev.flikas.spring.boot.assistant.idea.plugin.inspection;
 
 import com.intellij.codeInspection.LocalInspectionTool;
 import com.intellij.codeInspection.ProblemsHolder;
+import com.intellij.openapi.module.Module;
 import com.intellij.openapi.module.ModuleUtil;
 import com.intellij.openapi.progress.ProgressIndicatorProvider;
-import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiElementVisitor;
-import com.intellij.psi.PsiPrimitiveType;
 import com.intellij.psi.PsiType;
-import com.intellij.psi.PsiTypeVisitor;
 import dev.flikas.spring.boot.assistant.idea.plugin.misc.ServiceUtil;
 import dev.flikas.spring.boot.assistant.idea.plugin.suggestion.filetype.YamlPropertiesFileType;
 import in.oneton.idea.spring.assistant.plugin.suggestion.SuggestionNode;
@@ -18,19 +16,19 @@ import in.oneton.idea.spring.assistant.plugin.suggestion.clazz.IterableKeySugges
 import in.oneton.idea.spring.assistant.plugin.suggestion.clazz.MetadataProxy;
 import in.oneton.idea.spring.assistant.plugin.suggestion.metadata.MetadataPropertySuggestionNode;
 import in.oneton.idea.spring.assistant.plugin.suggestion.metadata.json.SpringConfigurationMetadataProperty;
+import in.oneton.idea.spring.assistant.plugin.suggestion.service.KeyValueMatchesCache;
 import in.oneton.idea.spring.assistant.plugin.suggestion.service.SuggestionService;
 import org.apache.commons.collections4.CollectionUtils;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.yaml.psi.YAMLFile;
 import org.jetbrains.yaml.psi.YAMLKeyValue;
+import org.jetbrains.yaml.psi.YAMLScalar;
+import org.jetbrains.yaml.psi.YAMLValue;
 import org.jetbrains.yaml.psi.YamlPsiElementVisitor;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
-import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
-
-import static in.oneton.idea.spring.assistant.plugin.misc.GenericUtil.truncateIdeaDummyIdentifier;
-import static java.util.Objects.requireNonNull;
+import java.util.Map;
 
 public class InvalidValueInspection extends LocalInspectionTool {
     @Override
@@ -40,79 +38,81 @@ public class InvalidValueInspection extends LocalInspectionTool {
                 YamlPropertiesFileType.INSTANCE,
                 SuggestionService.class
         );
-        if (service == null) {
+        if (service == null || !(holder.getFile() instanceof YAMLFile)) {
             return PsiElementVisitor.EMPTY_VISITOR;
         }
+        Map<YAMLKeyValue, List<SuggestionNode>> keyValueToMatches =
+                KeyValueMatchesCache.getMatchesOf((YAMLFile) holder.getFile());
 
-        com.intellij.openapi.module.Module module = ModuleUtil.findModuleForFile(holder.getFile());
+        Module module = ModuleUtil.findModuleForFile(holder.getFile());
         assert module != null;
+        // lets resolve the validator of a node once per pass, many keys (list items, map entries) share the same node
+        Map<SuggestionNode, TypeValidator> nodeToValidator = new IdentityHashMap<>();
         return new YamlPsiElementVisitor() {
             @Override
             public void visitKeyValue(@NotNull YAMLKeyValue keyValue) {
                 ProgressIndicatorProvider.checkCanceled();
-                if (keyValue.getValue() == null) return;
-                List<String> ancestralKeys = new ArrayList<>();
-                PsiElement context = keyValue;
-                do {
-                    if (context instanceof YAMLKeyValue) {
-                        ancestralKeys.add(0, truncateIdeaDummyIdentifier(((YAMLKeyValue) context).getKeyText()));
-                    }
-                    context = requireNonNull(context).getParent();
-                } while (context != null);
-                List<SuggestionNode> matchedNodesFromRootTillLeaf = service.findMatchedNodesRootTillEnd(ancestralKeys);
+                YAMLValue value = keyValue.getValue();
+                if (value == null) return;
+                List<SuggestionNode> matchedNodesFromRootTillLeaf = keyValueToMatches.get(keyValue);
                 if (CollectionUtils.isEmpty(matchedNodesFromRootTillLeaf)) {
                     return;
                 }
                 SuggestionNode node = matchedNodesFromRootTillLeaf.get(matchedNodesFromRootTillLeaf.size() - 1);
                 SuggestionNodeType suggestionNodeType = node.getSuggestionNodeType(module);
-                if (!suggestionNodeType.representsLeaf()) {
+                // a collection can also be bound from a single comma delimited value
+                boolean delimitedCollection =
+                        suggestionNodeType.representsArrayOrCollection() && value instanceof YAMLScalar;
+                if (!suggestionNodeType.representsLeaf() && !delimitedCollection) {
                     return;
                 }
-                PsiType valueType;
-                if (node instanceof IterableKeySuggestionNode) {
-                    node = ((IterableKeySuggestionNode) node).getUnwrapped();
-                }
-                if (node instanceof MetadataPropertySuggestionNode) {
-                    SpringConfigurationMetadataProperty property = ((MetadataPropertySuggestionNode) node).getProperty();
-                    if (property == null) return;
-                    MetadataProxy delegate = property.getDelegate(module);
-                    if (delegate == null) return;
-                    valueType = delegate.getPsiType(module);
-
-                } else if (node instanceof GenericClassMemberWrapper) {
-                    valueType = ((GenericClassMemberWrapper) node).getMemberReferredClassMetadataProxy(module)
-                            .getPsiType(module);
-                } else {
-                    valueType = null;
-                }
-                if (valueType == null) return;
-                PsiPrimitiveType primitiveValueType = valueType.accept(new PsiTypeVisitor<>() {
-                    @Override
-                    public PsiPrimitiveType visitPrimitiveType(@NotNull PsiPrimitiveType primitiveType) {
-                        return primitiveType;
-                    }
+                String text = keyValue.getValueText().trim();
+                // placeholders are resolved at runtime, so cannot be validated here
+                if (text.isEmpty() || text.contains("${")) return;
 
-                    @Override
-                    public PsiPrimitiveType visitType(@NotNull PsiType type) {
-                        return PsiPrimitiveType.getUnboxedType(type);
-                    }
-                });
-                if (primitiveValueType == null) return;
-                try {
-                    Class<?> valueClass = Class.forName(primitiveValueType.getBoxedTypeName());
-                    Constructor<?> constructor = valueClass.getConstructor(String.class);
-                    constructor.newInstance(keyValue.getValueText());
-                } catch (ClassNotFoundException | NoSuchMethodException | IllegalAccessException |
-                         InstantiationException e) {
-                    throw new RuntimeException(e);
-                } catch (InvocationTargetException e) {
-                    assert keyValue.getValue() != null;
-                    holder.registerProblem(
-                            keyValue.getValue(),
-                            "Value \"" + keyValue.getValueText() + "\" cannot be converted to: " + primitiveValueType.getName()
-                    );
-                }
+                TypeValidator typeValidator = nodeToValidator.computeIfAbsent(node, n -> findValidator(module, n));
+                if (typeValidator == TypeValidator.NONE || typeValidator.validator.isValid(text)) return;
+                holder.registerProblem(
+                        value,
+                        "Value \"" + keyValue.getValueText() + "\" cannot be converted to: " + typeValidator.typeName
+                );
             }
         };
     }
+
+    private static TypeValidator findValidator(Module module, SuggestionNode node) {
+        if (node instanceof IterableKeySuggestionNode) {
+            node = ((IterableKeySuggestionNode) node).getUnwrapped();
+        }
+        PsiType valueType;
+        if (node instanceof MetadataPropertySuggestionNode) {
+            SpringConfigurationMetadataProperty property = ((MetadataPropertySuggestionNode) node).getProperty();
+            if (property == null) return TypeValidator.NONE;
+            MetadataProxy delegate = property.getDelegate(module);
+            if (delegate == null) return TypeValidator.NONE;
+            valueType = delegate.getPsiType(module);
+        } else if (node instanceof GenericClassMemberWrapper) {
+            MetadataProxy delegate = ((GenericClassMemberWrapper) node).getMemberReferredClassMetadataProxy(module);
+            if (delegate == null) return TypeValidator.NONE;
+            valueType = delegate.getPsiType(module);
+        } else {
+            valueType = null;
+        }
+        if (valueType == null) return TypeValidator.NONE;
+        ValueValidator validator = ValueValidators.forType(valueType);
+        if (validator == null) return TypeValidator.NONE;
+        return new TypeValidator(valueType.getPresentableText(), validator);
+    }
+
+    private static class TypeValidator {
+        private static final TypeValidator NONE = new TypeValidator("", value -> true);
+
+        private final String typeName;
+        private final ValueValidator validator;
+
+        private TypeValidator(String typeName, ValueValidator validator) {
+            this.typeName = typeName;
+            this.validator = validator;
+        }
+    }
 }
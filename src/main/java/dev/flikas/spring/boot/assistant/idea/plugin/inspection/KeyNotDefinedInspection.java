@@ -5,22 +5,20 @@ import com.intellij.codeInspection.ProblemsHolder;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.module.ModuleUtil;
 import com.intellij.openapi.progress.ProgressIndicatorProvider;
-import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiElementVisitor;
 import dev.flikas.spring.boot.assistant.idea.plugin.misc.ServiceUtil;
 import dev.flikas.spring.boot.assistant.idea.plugin.suggestion.filetype.YamlPropertiesFileType;
 import in.oneton.idea.spring.assistant.plugin.suggestion.SuggestionNode;
+import in.oneton.idea.spring.assistant.plugin.suggestion.service.KeyValueMatchesCache;
 import in.oneton.idea.spring.assistant.plugin.suggestion.service.SuggestionService;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.yaml.YAMLBundle;
+import org.jetbrains.yaml.psi.YAMLFile;
 import org.jetbrains.yaml.psi.YAMLKeyValue;
 import org.jetbrains.yaml.psi.YamlPsiElementVisitor;
 
-import java.util.ArrayList;
 import java.util.List;
-
-import static in.oneton.idea.spring.assistant.plugin.misc.GenericUtil.truncateIdeaDummyIdentifier;
-import static java.util.Objects.requireNonNull;
+import java.util.Map;
 
 public class KeyNotDefinedInspection extends LocalInspectionTool {
 
@@ -32,25 +30,18 @@ public class KeyNotDefinedInspection extends LocalInspectionTool {
                 YamlPropertiesFileType.INSTANCE,
                 SuggestionService.class
         );
-        if (service == null) {
+        if (service == null || !(holder.getFile() instanceof YAMLFile)) {
             return PsiElementVisitor.EMPTY_VISITOR;
         }
+        Map<YAMLKeyValue, List<SuggestionNode>> keyValueToMatches =
+                KeyValueMatchesCache.getMatchesOf((YAMLFile) holder.getFile());
         Module module = ModuleUtil.findModuleForFile(holder.getFile());
         assert module != null;
         return new YamlPsiElementVisitor() {
             @Override
             public void visitKeyValue(@NotNull YAMLKeyValue keyValue) {
                 ProgressIndicatorProvider.checkCanceled();
-                List<String> ancestralKeys = new ArrayList<>();
-                PsiElement context = keyValue;
-                do {
-                    if (context instanceof YAMLKeyValue) {
-                        ancestralKeys.add(0, truncateIdeaDummyIdentifier(((YAMLKeyValue) context).getKeyText()));
-                    }
-                    context = requireNonNull(context).getParent();
-                } while (context != null);
-
-                List<SuggestionNode> matchedNodesFromRootTillLeaf = service.findMatchedNodesRootTillEnd(ancestralKeys);
+                List<SuggestionNode> matchedNodesFromRootTillLeaf = keyValueToMatches.get(keyValue);
                 if (matchedNodesFromRootTillLeaf == null) {
                     assert keyValue.getKey() != null;
                     holder.registerProblem(
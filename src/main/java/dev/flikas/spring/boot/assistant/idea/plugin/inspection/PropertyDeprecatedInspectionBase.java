@@ -5,7 +5,6 @@ import com.intellij.codeInspection.ProblemsHolder;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.module.ModuleUtil;
 import com.intellij.openapi.progress.ProgressIndicatorProvider;
-import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiElementVisitor;
 import dev.flikas.spring.boot.assistant.idea.plugin.misc.ServiceUtil;
 import dev.flikas.spring.boot.assistant.idea.plugin.suggestion.filetype.YamlPropertiesFileType;
@@ -14,17 +13,16 @@ import in.oneton.idea.spring.assistant.plugin.suggestion.clazz.IterableKeySugges
 import in.oneton.idea.spring.assistant.plugin.suggestion.metadata.MetadataPropertySuggestionNode;
 import in.oneton.idea.spring.assistant.plugin.suggestion.metadata.json.SpringConfigurationMetadataDeprecation;
 import in.oneton.idea.spring.assistant.plugin.suggestion.metadata.json.SpringConfigurationMetadataProperty;
+import in.oneton.idea.spring.assistant.plugin.suggestion.service.KeyValueMatchesCache;
 import in.oneton.idea.spring.assistant.plugin.suggestion.service.SuggestionService;
 import org.apache.commons.collections4.CollectionUtils;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.yaml.psi.YAMLFile;
 import org.jetbrains.yaml.psi.YAMLKeyValue;
 import org.jetbrains.yaml.psi.YamlPsiElementVisitor;
 
-import java.util.ArrayList;
 import java.util.List;
-
-import static in.oneton.idea.spring.assistant.plugin.misc.GenericUtil.truncateIdeaDummyIdentifier;
-import static java.util.Objects.requireNonNull;
+import java.util.Map;
 
 public abstract class PropertyDeprecatedInspectionBase extends LocalInspectionTool {
   @Override
@@ -34,9 +32,11 @@ public abstract class PropertyDeprecatedInspectionBase extends LocalInspectionTo
         YamlPropertiesFileType.INSTANCE,
         SuggestionService.class
     );
-    if (service == null) {
+    if (service == null || !(holder.getFile() instanceof YAMLFile)) {
       return PsiElementVisitor.EMPTY_VISITOR;
     }
+    Map<YAMLKeyValue, List<SuggestionNode>> keyValueToMatches =
+        KeyValueMatchesCache.getMatchesOf((YAMLFile) holder.getFile());
     Module module = ModuleUtil.findModuleForFile(holder.getFile());
     assert module != null;
     return new YamlPsiElementVisitor() {
@@ -44,15 +44,7 @@ public abstract class PropertyDeprecatedInspectionBase extends LocalInspectionTo
       public void visitKeyValue(@NotNull YAMLKeyValue keyValue) {
         ProgressIndicatorProvider.checkCanceled();
         if (keyValue.getValue() == null) return;
-        List<String> ancestralKeys = new ArrayList<>();
-        PsiElement context = keyValue;
-        do {
-          if (context instanceof YAMLKeyValue) {
-            ancestralKeys.add(0, truncateIdeaDummyIdentifier(((YAMLKeyValue) context).getKeyText()));
-          }
-          context = requireNonNull(context).getParent();
-        } while (context != null);
-        List<SuggestionNode> matchedNodesFromRootTillLeaf = service.findMatchedNodesRootTillEnd(ancestralKeys);
+        List<SuggestionNode> matchedNodesFromRootTillLeaf = keyValueToMatches.get(keyValue);
         if (CollectionUtils.isEmpty(matchedNodesFromRootTillLeaf)) {
           return;
         }
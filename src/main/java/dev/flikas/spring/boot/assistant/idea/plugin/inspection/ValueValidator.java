@@ -0,0 +1,13 @@
+package dev.flikas.spring.boot.assistant.idea.plugin.inspection;
+
+/**
+ * Checks whether a value can be bound to a type, see {@link ValueValidators}
+ */
+@FunctionalInterface
+interface ValueValidator {
+    /**
+     * @param value trimmed value, never empty
+     * @return true if the value can be bound to the type of this validator
+     */
+    boolean isValid(String value);
+}
@@ -0,0 +1,359 @@
+package dev.flikas.spring.boot.assistant.idea.plugin.inspection;
+
+import com.intellij.psi.PsiArrayType;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiClassType;
+import com.intellij.psi.PsiEnumConstant;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiPrimitiveType;
+import com.intellij.psi.PsiType;
+import com.intellij.psi.util.InheritanceUtil;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+/**
+ * Registry of value validators, keyed by the type the value gets bound to. Validators follow the conversion rules of Spring boot's binder
+ * (relaxed enum names, `on`/`off` booleans, `10s` durations, `1MB` data sizes, comma delimited collections, e.t.c), without actually converting the value.
+ * <p>
+ * Validators walk the characters of the value & never rely on exceptions, so that validating the values of a large file stays cheap
+ */
+final class ValueValidators {
+    private static final String[] BOOLEAN_VALUES = {"true", "false", "on", "off", "yes", "no", "1", "0"};
+    private static final ValueValidator BOOLEAN = value -> {
+        for (String booleanValue : BOOLEAN_VALUES) {
+            if (booleanValue.equalsIgnoreCase(value)) {
+                return true;
+            }
+        }
+        return false;
+    };
+    private static final ValueValidator CHAR = value -> value.length() == 1;
+    private static final ValueValidator BYTE = wholeNumber(Byte.MIN_VALUE, Byte.MAX_VALUE);
+    private static final ValueValidator SHORT = wholeNumber(Short.MIN_VALUE, Short.MAX_VALUE);
+    private static final ValueValidator INT = wholeNumber(Integer.MIN_VALUE, Integer.MAX_VALUE);
+    private static final ValueValidator LONG = wholeNumber(Long.MIN_VALUE, Long.MAX_VALUE);
+    private static final ValueValidator DECIMAL = value -> isDecimal(value, true);
+    private static final ValueValidator BIG_DECIMAL = value -> isDecimal(value, false);
+    private static final ValueValidator BIG_INTEGER = value -> isWholeNumber(value, null, null);
+
+    private static final Pattern ISO_DURATION = Pattern.compile(
+            "[+-]?P(?:[+-]?\\d+D)?(?:T(?:[+-]?\\d+H)?(?:[+-]?\\d+M)?(?:[+-]?\\d+(?:[.,]\\d{0,9})?S)?)?",
+            Pattern.CASE_INSENSITIVE);
+    private static final Set<String> DURATION_UNITS = Set.of("", "ns", "us", "ms", "s", "m", "h", "d");
+    private static final ValueValidator DURATION = value -> isIso(ISO_DURATION, value)
+            || hasNumberWithUnit(value, DURATION_UNITS, true);
+
+    /**
+     * Unlike duration units, data size units are case sensitive, `DataSize.parse` rejects `10mb`
+     */
+    private static final Set<String> DATA_SIZE_UNITS = Set.of("", "B", "KB", "MB", "GB", "TB");
+    private static final ValueValidator DATA_SIZE = value -> hasNumberWithUnit(value, DATA_SIZE_UNITS, false);
+
+    private static final Pattern ISO_PERIOD = Pattern
+            .compile("[+-]?P(?:[+-]?\\d+Y)?(?:[+-]?\\d+M)?(?:[+-]?\\d+W)?(?:[+-]?\\d+D)?", Pattern.CASE_INSENSITIVE);
+    private static final Pattern SIMPLE_PERIOD = Pattern
+            .compile("(?:[+-]?\\d+Y)?(?:[+-]?\\d+M)?(?:[+-]?\\d+W)?(?:[+-]?\\d+D)?", Pattern.CASE_INSENSITIVE);
+    private static final ValueValidator PERIOD = value -> isIso(ISO_PERIOD, value)
+            || isDecimalDigits(value, 0, value.length()) || SIMPLE_PERIOD.matcher(value).matches();
+
+    private static final ValueValidator CHARSET = value -> CharsetNames.NAMES.contains(value);
+    /**
+     * Binder would resolve host names, lets just make sure the value can be an ip address or a host name
+     */
+    private static final ValueValidator INET_ADDRESS = value -> {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (!Character.isLetterOrDigit(c) && c != '.' && c != '-' && c != '_' && c != ':' && c != '%') {
+                return false;
+            }
+        }
+        return true;
+    };
+
+    private static final Map<String, ValueValidator> CLASS_NAME_TO_VALIDATOR = new HashMap<>();
+
+    static {
+        CLASS_NAME_TO_VALIDATOR.put("boolean", BOOLEAN);
+        CLASS_NAME_TO_VALIDATOR.put("char", CHAR);
+        CLASS_NAME_TO_VALIDATOR.put("byte", BYTE);
+        CLASS_NAME_TO_VALIDATOR.put("short", SHORT);
+        CLASS_NAME_TO_VALIDATOR.put("int", INT);
+        CLASS_NAME_TO_VALIDATOR.put("long", LONG);
+        CLASS_NAME_TO_VALIDATOR.put("float", DECIMAL);
+        CLASS_NAME_TO_VALIDATOR.put("double", DECIMAL);
+        CLASS_NAME_TO_VALIDATOR.put("java.lang.Boolean", BOOLEAN);
+        CLASS_NAME_TO_VALIDATOR.put("java.lang.Character", CHAR);
+        CLASS_NAME_TO_VALIDATOR.put("java.lang.Byte", BYTE);
+        CLASS_NAME_TO_VALIDATOR.put("java.lang.Short", SHORT);
+        CLASS_NAME_TO_VALIDATOR.put("java.lang.Integer", INT);
+        CLASS_NAME_TO_VALIDATOR.put("java.lang.Long", LONG);
+        CLASS_NAME_TO_VALIDATOR.put("java.lang.Float", DECIMAL);
+        CLASS_NAME_TO_VALIDATOR.put("java.lang.Double", DECIMAL);
+        CLASS_NAME_TO_VALIDATOR.put("java.math.BigDecimal", BIG_DECIMAL);
+        CLASS_NAME_TO_VALIDATOR.put("java.math.BigInteger", BIG_INTEGER);
+        CLASS_NAME_TO_VALIDATOR.put("java.time.Duration", DURATION);
+        CLASS_NAME_TO_VALIDATOR.put("org.springframework.util.unit.DataSize", DATA_SIZE);
+        CLASS_NAME_TO_VALIDATOR.put("java.time.Period", PERIOD);
+        CLASS_NAME_TO_VALIDATOR.put("java.nio.charset.Charset", CHARSET);
+        CLASS_NAME_TO_VALIDATOR.put("java.net.InetAddress", INET_ADDRESS);
+    }
+
+    private ValueValidators() {
+    }
+
+    /**
+     * @param type type the value would be bound to
+     * @return validator for the values of the type, null if values of the type can not be validated
+     */
+    @Nullable
+    static ValueValidator forType(PsiType type) {
+        if (type instanceof PsiPrimitiveType) {
+            return CLASS_NAME_TO_VALIDATOR.get(type.getCanonicalText());
+        } else if (type instanceof PsiArrayType) {
+            return delimited(forType(((PsiArrayType) type).getComponentType()));
+        } else if (type instanceof PsiClassType) {
+            PsiClassType classType = (PsiClassType) type;
+            PsiClass psiClass = classType.resolve();
+            if (psiClass == null) {
+                return null;
+            }
+            ValueValidator validator = CLASS_NAME_TO_VALIDATOR.get(psiClass.getQualifiedName());
+            if (validator != null) {
+                return validator;
+            } else if (psiClass.isEnum()) {
+                return forEnum(psiClass);
+            } else if (InheritanceUtil.isInheritor(psiClass, "java.util.Collection")) {
+                PsiType[] parameters = classType.getParameters();
+                return parameters.length == 1 ? delimited(forType(parameters[0])) : null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Binder compares enum constants & values by their letters & digits alone, ignoring case
+     */
+    private static ValueValidator forEnum(PsiClass enumClass) {
+        Set<String> canonicalNames = new HashSet<>();
+        for (PsiField field : enumClass.getFields()) {
+            if (field instanceof PsiEnumConstant) {
+                canonicalNames.add(toCanonicalEnumName(field.getName()));
+            }
+        }
+        return value -> canonicalNames.contains(toCanonicalEnumName(value));
+    }
+
+    private static String toCanonicalEnumName(String name) {
+        StringBuilder builder = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                builder.append(Character.toLowerCase(c));
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * A collection (or array) can be bound from a single comma delimited value
+     */
+    @Nullable
+    private static ValueValidator delimited(@Nullable ValueValidator elementValidator) {
+        if (elementValidator == null) {
+            return null;
+        }
+        return value -> {
+            int start = 0;
+            while (start <= value.length()) {
+                int end = value.indexOf(',', start);
+                if (end == -1) {
+                    end = value.length();
+                }
+                String element = value.substring(start, end).trim();
+                if (!element.isEmpty() && !elementValidator.isValid(element)) {
+                    return false;
+                }
+                start = end + 1;
+            }
+            return true;
+        };
+    }
+
+    private static ValueValidator wholeNumber(long min, long max) {
+        return value -> isWholeNumber(value, min, max);
+    }
+
+    /**
+     * Same as the number parsing of spring's binder, accepts decimal & hex (`0x`, `#`) forms
+     *
+     * @param min minimum value, null if not bounded
+     * @param max maximum value, null if not bounded
+     */
+    private static boolean isWholeNumber(String value, @Nullable Long min, @Nullable Long max) {
+        int i = 0;
+        boolean negative = false;
+        if (i < value.length() && (value.charAt(i) == '-' || value.charAt(i) == '+')) {
+            negative = value.charAt(i) == '-';
+            i++;
+        }
+        int radix = 10;
+        if (value.startsWith("0x", i) || value.startsWith("0X", i)) {
+            radix = 16;
+            i += 2;
+        } else if (value.startsWith("#", i)) {
+            radix = 16;
+            i++;
+        }
+        if (i == value.length()) {
+            return false;
+        }
+        // lets accumulate as a negative number, which can hold Long.MIN_VALUE
+        long limit = min == null || max == null ? 0 : (negative ? min : -max);
+        long multiplicationLimit = limit / radix;
+        long result = 0;
+        for (; i < value.length(); i++) {
+            int digit = Character.digit(value.charAt(i), radix);
+            if (digit < 0) {
+                return false;
+            }
+            // unbounded numbers (BigInteger) can be of any length
+            if (min != null && max != null) {
+                if (result < multiplicationLimit) {
+                    return false;
+                }
+                result *= radix;
+                if (result < limit + digit) {
+                    return false;
+                }
+                result -= digit;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param allowSpecialValues whether `NaN`, `Infinity` & a trailing type suffix (`1.5f`) are allowed, as is the case with float & double
+     */
+    private static boolean isDecimal(String value, boolean allowSpecialValues) {
+        int i = 0;
+        int length = value.length();
+        if (i < length && (value.charAt(i) == '-' || value.charAt(i) == '+')) {
+            i++;
+        }
+        if (allowSpecialValues) {
+            String unsigned = value.substring(i);
+            if (unsigned.equals("NaN") || unsigned.equals("Infinity")) {
+                return true;
+            }
+            char last = length == 0 ? ' ' : value.charAt(length - 1);
+            if (last == 'f' || last == 'F' || last == 'd' || last == 'D') {
+                length--;
+            }
+        }
+        int digits = 0;
+        while (i < length && Character.isDigit(value.charAt(i))) {
+            i++;
+            digits++;
+        }
+        if (i < length && value.charAt(i) == '.') {
+            i++;
+            while (i < length && Character.isDigit(value.charAt(i))) {
+                i++;
+                digits++;
+            }
+        }
+        if (digits == 0) {
+            return false;
+        }
+        if (i < length && (value.charAt(i) == 'e' || value.charAt(i) == 'E')) {
+            i++;
+            if (i < length && (value.charAt(i) == '-' || value.charAt(i) == '+')) {
+                i++;
+            }
+            int exponentDigits = 0;
+            while (i < length && Character.isDigit(value.charAt(i))) {
+                i++;
+                exponentDigits++;
+            }
+            if (exponentDigits == 0) {
+                return false;
+            }
+        }
+        return i == length;
+    }
+
+    /**
+     * All components of the iso forms are optional, but at least one of them must be present (`PT` is not a duration)
+     */
+    private static boolean isIso(Pattern isoPattern, String value) {
+        if (!isoPattern.matcher(value).matches()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (Character.isDigit(value.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Simple form of durations & data sizes, i.e a whole number followed by an optional unit (`10s`, `512MB`)
+     *
+     * @param ignoreUnitCase whether the unit can be in any case, units are expected in lower case if so
+     */
+    private static boolean hasNumberWithUnit(String value, Set<String> units, boolean ignoreUnitCase) {
+        int unitStart = value.length();
+        while (unitStart > 0 && Character.isLetter(value.charAt(unitStart - 1))) {
+            unitStart--;
+        }
+        String unit = value.substring(unitStart);
+        if (ignoreUnitCase) {
+            unit = unit.toLowerCase(Locale.ROOT);
+        }
+        return units.contains(unit) && isDecimalDigits(value, 0, unitStart);
+    }
+
+    /**
+     * @return true if the range holds an optionally signed run of decimal digits
+     */
+    private static boolean isDecimalDigits(String value, int start, int end) {
+        int i = start;
+        if (i < end && (value.charAt(i) == '-' || value.charAt(i) == '+')) {
+            i++;
+        }
+        if (i == end) {
+            return false;
+        }
+        for (; i < end; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * Charsets (& their aliases) supported by the JVM, looked up lazily as loading them is not cheap
+     */
+    private static class CharsetNames {
+        private static final Set<String> NAMES = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+        static {
+            Charset.availableCharsets().forEach((name, charset) -> {
+                NAMES.add(name);
+                NAMES.addAll(charset.aliases());
+            });
+        }
+    }
+}
@@ -16,21 +16,19 @@ import in.oneton.idea.spring.assistant.plugin.suggestion.completion.SuggestionDo
 import in.oneton.idea.spring.assistant.plugin.suggestion.metadata.MetadataNonPropertySuggestionNode;
 import in.oneton.idea.spring.assistant.plugin.suggestion.metadata.MetadataPropertySuggestionNode;
 import in.oneton.idea.spring.assistant.plugin.suggestion.metadata.json.SpringConfigurationMetadataGroup;
+import in.oneton.idea.spring.assistant.plugin.suggestion.service.KeyValueMatchesCache;
 import in.oneton.idea.spring.assistant.plugin.suggestion.service.SuggestionService;
 import org.apache.commons.collections4.CollectionUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.jetbrains.yaml.psi.YAMLFile;
 import org.jetbrains.yaml.psi.YAMLKeyValue;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import static com.intellij.openapi.util.text.StringUtil.isNotEmpty;
-import static in.oneton.idea.spring.assistant.plugin.misc.GenericUtil.truncateIdeaDummyIdentifier;
 import static in.oneton.idea.spring.assistant.plugin.misc.PsiCustomUtil.findModule;
-import static in.oneton.idea.spring.assistant.plugin.suggestion.Suggestion.PERIOD_DELIMITER;
 import static in.oneton.idea.spring.assistant.plugin.suggestion.SuggestionNode.sanitise;
-import static java.util.Objects.requireNonNull;
 
 public class YamlKeyReference extends PsiReferenceBase<PsiElement> {
     private static final Logger log = Logger.getInstance(YamlKeyReference.class);
@@ -52,15 +50,11 @@ public class YamlKeyReference extends PsiReferenceBase<PsiElement> {
             return null;
         }
 
-        List<String> ancestralKeys = new ArrayList<>();
-        PsiElement context = yamlKeyValue;
-        do {
-            if (context instanceof YAMLKeyValue) {
-                ancestralKeys.add(0, truncateIdeaDummyIdentifier(((YAMLKeyValue) context).getKeyText()));
-            }
-            context = requireNonNull(context).getParent();
-        } while (context != null);
-        List<SuggestionNode> matchedNodesFromRootTillLeaf = service.findMatchedNodesRootTillEnd(ancestralKeys);
+        if (!(yamlKeyValue.getContainingFile() instanceof YAMLFile)) {
+            return null;
+        }
+        List<SuggestionNode> matchedNodesFromRootTillLeaf =
+                KeyValueMatchesCache.getMatchesOf((YAMLFile) yamlKeyValue.getContainingFile()).get(yamlKeyValue);
         if (CollectionUtils.isEmpty(matchedNodesFromRootTillLeaf)) {
             return null;
         }
@@ -107,8 +101,9 @@ public class YamlKeyReference extends PsiReferenceBase<PsiElement> {
             if (delegate == null) {
                 return null;
             }
-            String[] splits = ((MetadataPropertySuggestionNode) node).getName().trim().split(PERIOD_DELIMITER, -1);
-            SuggestionDocumentationHelper child = delegate.findDirectChild(module, sanitise(splits[splits.length - 1]));
+            String name = ((MetadataPropertySuggestionNode) node).getName();
+            SuggestionDocumentationHelper child =
+                    delegate.findDirectChild(module, sanitise(name.substring(name.lastIndexOf('.') + 1)));
             if (child instanceof GenericClassMemberWrapper) {
                 return ((GenericClassMemberWrapper) child).getMember();
             }
@@ -0,0 +1,236 @@
+package in.oneton.idea.spring.assistant.plugin.misc;
+
+import org.jetbrains.annotations.NotNull;
+
+import javax.annotation.Nullable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Immutable table of children of a node, stored as parallel arrays sorted by (sanitised) key.
+ * Supports both exact lookups & prefix searches using binary search, so that a node does not need to hold a map for lookups & a trie for prefix searches.
+ * <p>
+ * Tables are frozen once built. Indexes that change over time replace the table with {@link #with(String, Object)}/{@link #without(String)},
+ * which leaves the table seen by concurrent readers untouched
+ *
+ * @param <V> type of child
+ */
+public final class ChildTable<V> {
+  private static final String[] NO_KEYS = new String[0];
+  private static final Object[] NO_VALUES = new Object[0];
+  private static final ChildTable<?> EMPTY = new ChildTable<>(NO_KEYS, NO_VALUES);
+
+  private final String[] keys;
+  private final Object[] values;
+
+  private ChildTable(String[] keys, Object[] values) {
+    this.keys = keys;
+    this.values = values;
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <V> ChildTable<V> empty() {
+    return (ChildTable<V>) EMPTY;
+  }
+
+  /**
+   * @param keyToValue children keyed by their sanitised names
+   * @return table holding the same children
+   */
+  public static <V> ChildTable<V> of(Map<String, ? extends V> keyToValue) {
+    if (keyToValue.isEmpty()) {
+      return empty();
+    }
+    String[] keys = keyToValue.keySet().toArray(NO_KEYS);
+    Arrays.sort(keys);
+    Object[] values = new Object[keys.length];
+    for (int i = 0; i < keys.length; i++) {
+      values[i] = keyToValue.get(keys[i]);
+    }
+    return new ChildTable<>(keys, values);
+  }
+
+  @Nullable
+  @SuppressWarnings("unchecked")
+  public V get(String key) {
+    int index = Arrays.binarySearch(keys, key);
+    return index >= 0 ? (V) values[index] : null;
+  }
+
+  /**
+   * Looks up a child without building its key, e.g. straight off a raw path, see {@link PathTokenizer#compareTo(String)}
+   *
+   * @param compareToKey compares the key being looked up with the given key of the table, same sign as {@link String#compareTo(String)}
+   * @return child whose key compares equal, null if there is no such child
+   */
+  @Nullable
+  @SuppressWarnings("unchecked")
+  public V find(ToIntFunction<String> compareToKey) {
+    int low = 0;
+    int high = keys.length - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int comparison = compareToKey.applyAsInt(keys[mid]);
+      if (comparison > 0) {
+        low = mid + 1;
+      } else if (comparison < 0) {
+        high = mid - 1;
+      } else {
+        return (V) values[mid];
+      }
+    }
+    return null;
+  }
+
+  public boolean containsKey(String key) {
+    return Arrays.binarySearch(keys, key) >= 0;
+  }
+
+  public int size() {
+    return keys.length;
+  }
+
+  public boolean isEmpty() {
+    return keys.length == 0;
+  }
+
+  /**
+   * @return all children, ordered by key
+   */
+  public List<V> values() {
+    return new ValueRange<>(values, 0, values.length);
+  }
+
+  /**
+   * @param prefix sanitised prefix
+   * @return children whose keys start with the prefix, ordered by key. Empty prefix matches all children
+   */
+  public List<V> prefixValues(String prefix) {
+    int from = lowerBound(prefix);
+    // keys that start with the prefix sort right after the prefix itself & are contiguous
+    int low = from;
+    int high = keys.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (keys[mid].startsWith(prefix)) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return new ValueRange<>(values, from, low);
+  }
+
+  /**
+   * @return new table that holds the given child in addition to (or instead of an existing child with the same key) children of this table
+   */
+  public ChildTable<V> with(String key, V value) {
+    int index = Arrays.binarySearch(keys, key);
+    if (index >= 0) {
+      Object[] newValues = values.clone();
+      newValues[index] = value;
+      return new ChildTable<>(keys, newValues);
+    }
+    int insertAt = -(index + 1);
+    String[] newKeys = new String[keys.length + 1];
+    Object[] newValues = new Object[values.length + 1];
+    System.arraycopy(keys, 0, newKeys, 0, insertAt);
+    System.arraycopy(values, 0, newValues, 0, insertAt);
+    newKeys[insertAt] = key;
+    newValues[insertAt] = value;
+    System.arraycopy(keys, insertAt, newKeys, insertAt + 1, keys.length - insertAt);
+    System.arraycopy(values, insertAt, newValues, insertAt + 1, values.length - insertAt);
+    return new ChildTable<>(newKeys, newValues);
+  }
+
+  /**
+   * @return new table without the child with the given key, same table if there is no such child
+   */
+  public ChildTable<V> without(String key) {
+    int index = Arrays.binarySearch(keys, key);
+    if (index < 0) {
+      return this;
+    }
+    if (keys.length == 1) {
+      return empty();
+    }
+    String[] newKeys = new String[keys.length - 1];
+    Object[] newValues = new Object[values.length - 1];
+    System.arraycopy(keys, 0, newKeys, 0, index);
+    System.arraycopy(values, 0, newValues, 0, index);
+    System.arraycopy(keys, index + 1, newKeys, index, keys.length - index - 1);
+    System.arraycopy(values, index + 1, newValues, index, values.length - index - 1);
+    return new ChildTable<>(newKeys, newValues);
+  }
+
+  /**
+   * @param mapper maps each child to its counterpart in the new table
+   * @return new table with the same keys, holding the mapped children
+   */
+  @SuppressWarnings("unchecked")
+  public <R> ChildTable<R> mapValues(Function<? super V, ? extends R> mapper) {
+    if (keys.length == 0) {
+      return empty();
+    }
+    Object[] newValues = new Object[values.length];
+    for (int i = 0; i < values.length; i++) {
+      newValues[i] = mapper.apply((V) values[i]);
+    }
+    // keys are never modified, so can be shared
+    return new ChildTable<>(keys, newValues);
+  }
+
+  @SuppressWarnings("unchecked")
+  public void forEach(BiConsumer<String, ? super V> action) {
+    for (int i = 0; i < keys.length; i++) {
+      action.accept(keys[i], (V) values[i]);
+    }
+  }
+
+  private int lowerBound(String key) {
+    int index = Arrays.binarySearch(keys, key);
+    return index >= 0 ? index : -(index + 1);
+  }
+
+
+  /**
+   * Read only view over a range of the values array, avoids copying the matches on every search
+   */
+  private static class ValueRange<V> extends AbstractList<V> implements RandomAccess {
+    private final Object[] values;
+    private final int from;
+    private final int to;
+
+    ValueRange(Object[] values, int from, int to) {
+      this.values = values;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(int index) {
+      if (index < 0 || index >= to - from) {
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + (to - from));
+      }
+      return (V) values[from + index];
+    }
+
+    @Override
+    public int size() {
+      return to - from;
+    }
+
+    @NotNull
+    @Override
+    public Object[] toArray() {
+      return Arrays.copyOfRange(values, from, to);
+    }
+  }
+}
@@ -0,0 +1,194 @@
+package in.oneton.idea.spring.assistant.plugin.misc;
+
+import java.util.List;
+
+/**
+ * Walks the `.` delimited segments of one (or more consecutive) keys in a single pass, without a regex & without building a string per segment.
+ * Segments are trimmed & can be compared against sanitised names in place, see {@link RelaxedNames}.
+ * <p>
+ * Keys `a.b` & `c` are walked as `a`, `b`, `c`. Same as {@code String.split("\\.", -1)}, empty segments are retained.
+ * Instances can be reused across lookups using {@link #reset(String)}/{@link #reset(List)}, but are not thread safe
+ */
+public final class PathTokenizer {
+  private String singleKey;
+  private List<String> keys;
+  private int keyCount;
+
+  private int keyIndex;
+  private int position;
+  private String segmentKey;
+  private int segmentStart;
+  private int segmentEnd;
+
+  public PathTokenizer reset(String key) {
+    this.singleKey = key;
+    this.keys = null;
+    this.keyCount = 1;
+    return rewind();
+  }
+
+  public PathTokenizer reset(List<String> keys) {
+    this.singleKey = null;
+    this.keys = keys;
+    this.keyCount = keys.size();
+    return rewind();
+  }
+
+  /**
+   * Moves back to the first segment
+   */
+  public PathTokenizer rewind() {
+    keyIndex = 0;
+    position = 0;
+    segmentKey = null;
+    return this;
+  }
+
+  /**
+   * Moves to the next segment
+   *
+   * @return false if there are no more segments
+   */
+  public boolean next() {
+    if (keyIndex >= keyCount) {
+      return false;
+    }
+    String key = keyAt(keyIndex);
+    int delimiterIndex = key.indexOf('.', position);
+    int end = delimiterIndex == -1 ? key.length() : delimiterIndex;
+    int start = position;
+    while (start < end && key.charAt(start) <= ' ') {
+      start++;
+    }
+    while (end > start && key.charAt(end - 1) <= ' ') {
+      end--;
+    }
+    segmentKey = key;
+    segmentStart = start;
+    segmentEnd = end;
+    if (delimiterIndex == -1) {
+      keyIndex++;
+      position = 0;
+    } else {
+      position = delimiterIndex + 1;
+    }
+    return true;
+  }
+
+  /**
+   * @return current segment, trimmed but otherwise as is
+   */
+  public String rawSegment() {
+    return segmentKey.substring(segmentStart, segmentEnd);
+  }
+
+  /**
+   * @return sanitised form of the current segment
+   */
+  public String segment() {
+    return RelaxedNames.sanitise(segmentKey, segmentStart, segmentEnd);
+  }
+
+  /**
+   * @param sanitised sanitised name
+   * @return true if the current segment refers to the same name
+   */
+  public boolean segmentEquals(String sanitised) {
+    return RelaxedNames.compare(segmentKey, segmentStart, segmentEnd, sanitised) == 0;
+  }
+
+  /**
+   * @param sanitisedPrefix sanitised prefix
+   * @return true if the sanitised form of the current segment starts with the prefix
+   */
+  public boolean segmentStartsWith(String sanitisedPrefix) {
+    return RelaxedNames.startsWith(segmentKey, segmentStart, segmentEnd, sanitisedPrefix);
+  }
+
+  /**
+   * @return no of segments in the path, irrespective of the current position
+   */
+  public int segmentCount() {
+    int count = 0;
+    for (int i = 0; i < keyCount; i++) {
+      String key = keyAt(i);
+      count++;
+      for (int j = key.indexOf('.'); j != -1; j = key.indexOf('.', j + 1)) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Compares the whole path (sanitised segments joined by `.`) with a sanitised path, without building the path.
+   * Does not change the current position
+   *
+   * @param sanitisedPath sanitised dot delimited path
+   * @return same sign as {@code sanitisedPathOfThisTokenizer.compareTo(sanitisedPath)}
+   */
+  public int compareTo(String sanitisedPath) {
+    int offset = 0;
+    boolean first = true;
+    for (int i = 0; i < keyCount; i++) {
+      String key = keyAt(i);
+      int from = 0;
+      int delimiterIndex;
+      do {
+        delimiterIndex = key.indexOf('.', from);
+        int end = delimiterIndex == -1 ? key.length() : delimiterIndex;
+        int start = from;
+        while (start < end && key.charAt(start) <= ' ') {
+          start++;
+        }
+        while (end > start && key.charAt(end - 1) <= ' ') {
+          end--;
+        }
+        if (!first) {
+          if (offset >= sanitisedPath.length()) {
+            return 1;
+          }
+          if (sanitisedPath.charAt(offset) != '.') {
+            return '.' - sanitisedPath.charAt(offset);
+          }
+          offset++;
+        }
+        first = false;
+        offset = RelaxedNames.compareFrom(key, start, end, sanitisedPath, offset);
+        if (offset < 0) {
+          return RelaxedNames.mismatch(offset);
+        }
+        from = delimiterIndex + 1;
+      } while (delimiterIndex != -1);
+    }
+    return offset == sanitisedPath.length() ? 0 : -1;
+  }
+
+  /**
+   * @return sanitised segments of the whole path
+   */
+  public String[] sanitisedSegments() {
+    String[] segments = new String[segmentCount()];
+    rewind();
+    for (int i = 0; next(); i++) {
+      segments[i] = segment();
+    }
+    return segments;
+  }
+
+  /**
+   * @return trimmed segments of the whole path
+   */
+  public String[] rawSegments() {
+    String[] segments = new String[segmentCount()];
+    rewind();
+    for (int i = 0; next(); i++) {
+      segments[i] = rawSegment();
+    }
+    return segments;
+  }
+
+  private String keyAt(int index) {
+    return keys == null ? singleKey : keys.get(index);
+  }
+}
@@ -2,8 +2,10 @@ package in.oneton.idea.spring.assistant.plugin.misc;
 
 import com.intellij.codeInsight.completion.InsertionContext;
 import com.intellij.codeInsight.daemon.impl.analysis.JavaGenericsUtil;
+import com.intellij.lang.jvm.JvmLanguage;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.module.Module;
+import com.intellij.openapi.roots.ProjectRootManager;
 import com.intellij.openapi.util.Key;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.VirtualFile;
@@ -25,7 +27,9 @@ import com.intellij.psi.PsiWildcardType;
 import com.intellij.psi.javadoc.PsiDocComment;
 import com.intellij.psi.javadoc.PsiDocToken;
 import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValuesManager;
 import com.intellij.psi.util.PropertyUtil;
+import com.intellij.psi.util.PsiModificationTracker;
 import com.intellij.util.IncorrectOperationException;
 import com.intellij.util.TimeoutUtil;
 import gnu.trove.THashMap;
@@ -33,6 +37,7 @@ import gnu.trove.THashSet;
 import gnu.trove.TObjectHashingStrategy;
 import in.oneton.idea.spring.assistant.plugin.suggestion.SuggestionNodeType;
 import in.oneton.idea.spring.assistant.plugin.suggestion.clazz.GenericClassMemberWrapper;
+import in.oneton.idea.spring.assistant.plugin.suggestion.clazz.LibraryClassSummaryCache;
 import lombok.experimental.UtilityClass;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
@@ -41,6 +46,8 @@ import javax.annotation.Nullable;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static com.intellij.openapi.module.ModuleUtilCore.findModuleForFile;
 import static com.intellij.openapi.module.ModuleUtilCore.findModuleForPsiElement;
@@ -87,7 +94,7 @@ import static java.util.Objects.requireNonNull;
 public class PsiCustomUtil {
   private static final Logger log = Logger.getInstance(PsiCustomUtil.class);
 
-  private static final Key<CachedValue<Map<String, GenericClassMemberWrapper>>>
+  private static final Key<CachedValue<ChildTable<GenericClassMemberWrapper>>>
       SPRING_ASSISTANT_PLUGIN_PROPERTY_TO_CLASS_MEMBER_WRAPPER_KEY =
       create("spring_assistant_plugin_property_to_class_member_wrapper");
   private static final Key<CachedValue<PsiType>>
@@ -97,13 +104,40 @@ public class PsiCustomUtil {
       create("spring_assistant_plugin_firstParameterType");
   private static final Key<CachedValue<PsiType>> SPRING_ASSISTANT_PLUGIN_RETURN_TYPE_KEY =
       create("spring_assistant_plugin_returnType");
+  private static final Key<CachedValue<ConcurrentMap<String, PsiType>>>
+      SPRING_ASSISTANT_PLUGIN_FQN_TO_TYPE_KEY = create("spring_assistant_plugin_fqnToType");
 
+  /**
+   * Resolution is cached per module, as the same few class names are resolved many times per completion & per
+   * inspection pass. Class names that do not resolve are remembered too, so that they are not retried on every keystroke.
+   * Cache is dropped when java/kotlin code structure or project roots (libraries) change
+   */
   @Nullable
   public static PsiType safeGetValidType(@NotNull Module module, @NotNull String fqn) {
+    ConcurrentMap<String, PsiType> fqnToType = CachedValuesManager.getManager(module.getProject())
+        .getCachedValue(module, SPRING_ASSISTANT_PLUGIN_FQN_TO_TYPE_KEY, () -> {
+          PsiModificationTracker psiModificationTracker =
+              PsiModificationTracker.getInstance(module.getProject());
+          ConcurrentMap<String, PsiType> emptyFqnToType = new ConcurrentHashMap<>();
+          return create(emptyFqnToType,
+              psiModificationTracker.forLanguages(language -> language instanceof JvmLanguage),
+              ProjectRootManager.getInstance(module.getProject()));
+        }, false);
+    PsiType type = fqnToType.get(fqn);
+    if (type == null || (type != NULL && !type.isValid())) {
+      type = doSafeGetValidType(module, fqn);
+      // lets remember unresolved names as well, PsiType.NULL stands for them
+      fqnToType.put(fqn, type != null ? type : NULL);
+    }
+    return type != NULL ? type : null;
+  }
+
+  @Nullable
+  private static PsiType doSafeGetValidType(@NotNull Module module, @NotNull String fqn) {
     try {
       // Intellij expects inner classes to be referred via `.` instead of `$`
       PsiType type = JavaPsiFacade.getInstance(module.getProject()).getElementFactory()
-                                  .createTypeFromText(fqn.replaceAll("\\$", "."), null);
+                                  .createTypeFromText(fqn.replace('$', '.'), null);
       boolean typeValid = isValidType(type);
       if (typeValid) {
         if (type instanceof PsiClassType) {
@@ -432,16 +466,31 @@ public class PsiCustomUtil {
   }
 
   @Nullable
-  public static Map<String, GenericClassMemberWrapper> getSanitisedPropertyToPsiMemberWrapper(
+  public static ChildTable<GenericClassMemberWrapper> getSanitisedPropertyToPsiMemberWrapper(
       @Nullable PsiClass psiClass) {
     if (psiClass != null) {
       return getCachedValue(psiClass, SPRING_ASSISTANT_PLUGIN_PROPERTY_TO_CLASS_MEMBER_WRAPPER_KEY,
-          () -> create(prepareWritableProperties(psiClass), MODIFICATION_COUNT)
+          () -> create(ChildTable.of(restoreOrPrepareWritableProperties(psiClass)), MODIFICATION_COUNT)
       );
     }
     return null;
   }
 
+  /**
+   * Classes from library jars never change, so lets walk them once per jar version, rather than once per IDE session
+   */
+  @NotNull
+  private static Map<String, GenericClassMemberWrapper> restoreOrPrepareWritableProperties(
+      @NotNull PsiClass psiClass) {
+    LibraryClassSummaryCache summaryCache = LibraryClassSummaryCache.getInstance();
+    Map<String, GenericClassMemberWrapper> memberNameToMemberWrapper = summaryCache.restore(psiClass);
+    if (memberNameToMemberWrapper == null) {
+      memberNameToMemberWrapper = prepareWritableProperties(psiClass);
+      summaryCache.store(psiClass, memberNameToMemberWrapper);
+    }
+    return memberNameToMemberWrapper;
+  }
+
   @NotNull
   private static Map<String, GenericClassMemberWrapper> prepareWritableProperties(@NotNull PsiClass psiClass) {
     final Map<String, GenericClassMemberWrapper> memberNameToMemberWrapper = new THashMap<>();
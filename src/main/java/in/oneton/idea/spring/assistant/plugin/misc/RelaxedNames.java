@@ -0,0 +1,158 @@
+package in.oneton.idea.spring.assistant.plugin.misc;
+
+/**
+ * Relaxed binding of names, i.e `server.max-http-header-size`, `server.max_http_header_size` & `server.maxHttpHeaderSize` all refer to the same key.
+ * Names are compared in their sanitised form (lower cased, without `-` & `_`, trimmed).
+ * <p>
+ * Runs on every keystroke & on every key of every inspection pass, so all operations here walk the characters in place
+ * & avoid building intermediate strings
+ */
+public final class RelaxedNames {
+
+  private RelaxedNames() {
+  }
+
+  /**
+   * @param name name in any of the relaxed forms
+   * @return sanitised name. Same instance if the name is already sanitised
+   */
+  public static String sanitise(String name) {
+    int start = 0;
+    int end = name.length();
+    while (start < end && name.charAt(start) <= ' ') {
+      start++;
+    }
+    while (end > start && name.charAt(end - 1) <= ' ') {
+      end--;
+    }
+    return sanitise(name, start, end);
+  }
+
+  /**
+   * @param text  text that holds the name
+   * @param start start of the name (inclusive), expected to be trimmed already
+   * @param end   end of the name (exclusive)
+   * @return sanitised name
+   */
+  static String sanitise(String text, int start, int end) {
+    if (isSanitised(text, start, end)) {
+      // lets not allocate, most names are already in sanitised form
+      return start == 0 && end == text.length() ? text : text.substring(start, end);
+    }
+    char[] chars = new char[end - start];
+    int length = 0;
+    for (int i = start; i < end; i++) {
+      char c = text.charAt(i);
+      if (!isIgnorable(c)) {
+        chars[length++] = Character.toLowerCase(c);
+      }
+    }
+    return new String(chars, 0, length);
+  }
+
+  /**
+   * Compares the sanitised form of the name with a sanitised name, without sanitising the name
+   *
+   * @param text      text that holds the name
+   * @param start     start of the name (inclusive), expected to be trimmed already
+   * @param end       end of the name (exclusive)
+   * @param sanitised sanitised name to compare with
+   * @return same sign as {@code sanitise(name).compareTo(sanitised)}
+   */
+  public static int compare(CharSequence text, int start, int end, String sanitised) {
+    int matched = compareFrom(text, start, end, sanitised, 0);
+    if (matched < 0) {
+      return mismatch(matched);
+    }
+    return matched == sanitised.length() ? 0 : -1;
+  }
+
+  /**
+   * @param text            text that holds the name
+   * @param start           start of the name (inclusive), expected to be trimmed already
+   * @param end             end of the name (exclusive)
+   * @param sanitisedPrefix sanitised prefix
+   * @return true if the sanitised form of the name starts with the prefix
+   */
+  public static boolean startsWith(CharSequence text, int start, int end, String sanitisedPrefix) {
+    int p = 0;
+    for (int i = start; i < end && p < sanitisedPrefix.length(); i++) {
+      char c = text.charAt(i);
+      if (!isIgnorable(c)) {
+        if (Character.toLowerCase(c) != sanitisedPrefix.charAt(p)) {
+          return false;
+        }
+        p++;
+      }
+    }
+    return p == sanitisedPrefix.length();
+  }
+
+  /**
+   * @param name            name in any of the relaxed forms
+   * @param sanitisedPrefix sanitised prefix
+   * @return true if the sanitised form of the name starts with the prefix
+   */
+  public static boolean startsWith(String name, String sanitisedPrefix) {
+    int start = 0;
+    while (start < name.length() && name.charAt(start) <= ' ') {
+      start++;
+    }
+    return startsWith(name, start, name.length(), sanitisedPrefix);
+  }
+
+  /**
+   * Compares the sanitised form of the name with the sanitised text starting at the given offset
+   *
+   * @return offset in the sanitised text right after the name, if the sanitised text continues with the name.
+   * Negative value (see {@link #mismatch(int)}) otherwise
+   */
+  static int compareFrom(CharSequence text, int start, int end, String sanitised, int offset) {
+    int p = offset;
+    for (int i = start; i < end; i++) {
+      char c = text.charAt(i);
+      if (isIgnorable(c)) {
+        continue;
+      }
+      if (p >= sanitised.length()) {
+        // name is longer
+        return toMismatch(1);
+      }
+      int difference = Character.toLowerCase(c) - sanitised.charAt(p);
+      if (difference != 0) {
+        return toMismatch(difference);
+      }
+      p++;
+    }
+    return p;
+  }
+
+  /**
+   * Mismatches are returned as negative values, so that they can share the return value with matched offsets
+   */
+  private static int toMismatch(int difference) {
+    return difference > 0 ? Integer.MIN_VALUE + 1 : Integer.MIN_VALUE;
+  }
+
+  /**
+   * @param result result of {@link #compareFrom(CharSequence, int, int, String, int)} that represents a mismatch
+   * @return comparison value of the mismatch
+   */
+  static int mismatch(int result) {
+    return result == Integer.MIN_VALUE ? -1 : 1;
+  }
+
+  private static boolean isSanitised(String text, int start, int end) {
+    for (int i = start; i < end; i++) {
+      char c = text.charAt(i);
+      if (isIgnorable(c) || Character.toLowerCase(c) != c) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isIgnorable(char c) {
+    return c == '-' || c == '_';
+  }
+}
@@ -0,0 +1,15 @@
+package in.oneton.idea.spring.assistant.plugin.suggestion;
+
+import java.util.function.Consumer;
+
+/**
+ * Receives suggestions as a search finds them. Search stops walking the rest of the tree once the consumer does not want any more
+ */
+public interface SuggestionConsumer extends Consumer<Suggestion> {
+  /**
+   * @return true if the consumer does not want any more suggestions
+   */
+  default boolean isStopped() {
+    return false;
+  }
+}
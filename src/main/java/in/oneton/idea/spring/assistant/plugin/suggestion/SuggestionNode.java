@@ -1,6 +1,7 @@
 package in.oneton.idea.spring.assistant.plugin.suggestion;
 
 import com.intellij.openapi.module.Module;
+import in.oneton.idea.spring.assistant.plugin.misc.RelaxedNames;
 import in.oneton.idea.spring.assistant.plugin.suggestion.completion.DocumentationProvider;
 import in.oneton.idea.spring.assistant.plugin.suggestion.completion.FileType;
 import in.oneton.idea.spring.assistant.plugin.suggestion.completion.SuggestionNodeTypeProvider;
@@ -14,7 +15,7 @@ public interface SuggestionNode
     extends OriginalNameProvider, DocumentationProvider, SuggestionNodeTypeProvider {
 
   static String sanitise(String name) {
-    return name.trim().replaceAll("_", "").replace("-", "").toLowerCase();
+    return RelaxedNames.sanitise(name);
   }
 
   /**
@@ -63,6 +64,33 @@ public interface SuggestionNode
       List<SuggestionNode> matchesRootTillMe, int numOfAncestors, String[] querySegmentPrefixes,
       int querySegmentPrefixStartIndex, @Nullable Set<String> siblingsToExclude);
 
+  /**
+   * Same as {@link #findKeySuggestionsForQueryPrefix(Module, FileType, List, int, String[], int, Set)}, except that the suggestions are
+   * handed over to the consumer as they are found, instead of being collected into a set at every level of the subtree
+   *
+   * @param consumer receives the suggestions, might receive the same suggestion more than once. Rest of the subtree is not searched once it
+   *                 {@link SuggestionConsumer#isStopped() stops}
+   * @return true if any suggestion was found
+   */
+  default boolean findKeySuggestionsForQueryPrefix(Module module, FileType fileType,
+      List<SuggestionNode> matchesRootTillMe, int numOfAncestors, String[] querySegmentPrefixes,
+      int querySegmentPrefixStartIndex, @Nullable Set<String> siblingsToExclude,
+      SuggestionConsumer consumer) {
+    SortedSet<Suggestion> suggestions =
+        findKeySuggestionsForQueryPrefix(module, fileType, matchesRootTillMe, numOfAncestors,
+            querySegmentPrefixes, querySegmentPrefixStartIndex, siblingsToExclude);
+    if (suggestions == null || suggestions.isEmpty()) {
+      return false;
+    }
+    for (Suggestion suggestion : suggestions) {
+      if (consumer.isStopped()) {
+        break;
+      }
+      consumer.accept(suggestion);
+    }
+    return true;
+  }
+
   @Nullable
   String getNameForDocumentation(Module module);
 
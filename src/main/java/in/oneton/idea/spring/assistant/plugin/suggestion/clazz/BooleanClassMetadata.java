@@ -31,6 +31,7 @@ import static java.lang.Boolean.TRUE;
 import static java.lang.String.valueOf;
 import static java.util.stream.Collectors.toCollection;
 import static java.util.stream.Collectors.toList;
+import static org.apache.commons.collections4.TrieUtils.unmodifiableTrie;
 
 public class BooleanClassMetadata extends ClassMetadata {
 
@@ -39,9 +40,10 @@ public class BooleanClassMetadata extends ClassMetadata {
 
   @Override
   protected void init(Module module) {
-    childrenTrie = new PatriciaTrie<>();
-    childrenTrie.put("true", TRUE);
-    childrenTrie.put("false", FALSE);
+    Trie<String, Boolean> trie = new PatriciaTrie<>();
+    trie.put("true", TRUE);
+    trie.put("false", FALSE);
+    childrenTrie = unmodifiableTrie(trie);
   }
 
   @Nullable
@@ -21,17 +21,27 @@ import java.util.SortedSet;
  */
 public abstract class ClassMetadata {
 
-  private boolean initComplete;
+  /**
+   * Written only after {@link #init(Module)} returns, so that a thread that sees it set also sees all state built by init
+   */
+  private volatile boolean initComplete;
 
   private void initIfNotAlready(Module module) {
     if (!initComplete) {
-      init(module);
-      initComplete = true;
+      // lets make completion, highlighting & documentation threads wait on the single init, rather than repeat the PSI work
+      // & reading half built children. Init does not init other metadata, so the lock is never nested
+      synchronized (this) {
+        if (!initComplete) {
+          init(module);
+          initComplete = true;
+        }
+      }
     }
   }
 
   /**
-   * Init properties such as. This will be called only once
+   * Init properties such as. This will be called only once, under the lock of this instance. State built here must not
+   * be modified afterwards
    * 1. For search, such as, name, originalName child trie, e.t.c
    * 2. Properties that are require for suggestions & documentation, such as, short & long documentation, type information in short form, e.t.c
    *
@@ -0,0 +1,133 @@
+package in.oneton.idea.spring.assistant.plugin.suggestion.clazz;
+
+import com.intellij.ProjectTopics;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.project.ModuleListener;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiClassType;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import lombok.Value;
+import org.jetbrains.annotations.NotNull;
+
+import javax.annotation.Nullable;
+import java.lang.ref.SoftReference;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.intellij.psi.util.CachedValueProvider.Result.create;
+import static in.oneton.idea.spring.assistant.plugin.misc.PsiCustomUtil.computeDependencies;
+import static in.oneton.idea.spring.assistant.plugin.suggestion.clazz.ClassSuggestionNodeFactory.newClassMetadata;
+
+/**
+ * A Project level cache of class metadata, keyed by the module & the canonical text of the type (`java.util.Map<java.lang.String, com.acme.Foo>`).
+ * Same type can resolve to different classes in different modules, so modules do not share entries. Entries are keyed by the module
+ * instance (which survives a rename) & are dropped along with the module.
+ * <p>
+ * Each entry is a {@link CachedValue} that depends on all classes referred by the type, so an entry is created once & recomputes itself
+ * only when one of these classes changes. Types that can not be resolved are remembered as well, until PSI/roots change.
+ * Only the {@link #MAX_ENTRIES} most recently used entries are retained &
+ * entries are softly referenced, so that the cache gives way under memory pressure rather than hold on to PSI
+ */
+public class ClassMetadataCache {
+
+  private static final Logger log = Logger.getInstance(ClassMetadataCache.class);
+
+  private static final int MAX_ENTRIES = 500;
+
+  private final Project project;
+
+  private final Map<ModuleType, SoftReference<Entry>> moduleTypeToMetadata =
+      new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ModuleType, SoftReference<Entry>> eldest) {
+          return size() > MAX_ENTRIES;
+        }
+      };
+
+  public ClassMetadataCache(Project project) {
+    this.project = project;
+    project.getMessageBus().connect().subscribe(ProjectTopics.MODULES, new ModuleListener() {
+      @Override
+      public void moduleRemoved(@NotNull Project removedFrom, @NotNull Module module) {
+        synchronized (moduleTypeToMetadata) {
+          moduleTypeToMetadata.keySet().removeIf(key -> key.module == module);
+        }
+      }
+    });
+  }
+
+  public static ClassMetadataCache getInstance(@NotNull Project project) {
+    return project.getService(ClassMetadataCache.class);
+  }
+
+  /**
+   * @param module        module from which the type is referred
+   * @param type          type whose metadata is required
+   * @param canonicalType canonical text of the type, computed once by the caller
+   * @return metadata of the type, null if the type (or any of its type parameters) cannot be resolved
+   */
+  @Nullable
+  ClassMetadata getMetadata(Module module, @NotNull PsiClassType type, @NotNull String canonicalType) {
+    ModuleType key = new ModuleType(module, canonicalType);
+    Entry entry;
+    synchronized (moduleTypeToMetadata) {
+      SoftReference<Entry> reference = moduleTypeToMetadata.get(key);
+      entry = reference != null ? reference.get() : null;
+      // Cached value recomputes itself when its dependencies change, so a new one is needed only once the previous one is collected
+      if (entry == null) {
+        entry = new Entry(module, canonicalType);
+        moduleTypeToMetadata.put(key, new SoftReference<>(entry));
+      }
+    }
+    // type held from an earlier lookup might not be valid anymore, so lets recompute (if needed) off the type of this caller
+    entry.type = type;
+    // lets compute outside the lock, so that lookups of other types are not blocked
+    return entry.cachedValue.getValue().orElse(null);
+  }
+
+  public int size() {
+    synchronized (moduleTypeToMetadata) {
+      return moduleTypeToMetadata.size();
+    }
+  }
+
+
+  private class Entry {
+    private final CachedValue<Optional<ClassMetadata>> cachedValue;
+    /**
+     * Type of the most recent lookup
+     */
+    private volatile PsiClassType type;
+
+    Entry(Module module, String canonicalType) {
+      cachedValue = CachedValuesManager.getManager(project).createCachedValue(() -> {
+        log.debug("Creating metadata instance for " + canonicalType);
+        PsiClassType type = this.type;
+        Set<PsiClass> dependencies = computeDependencies(module, type);
+        if (dependencies != null) {
+          return create(Optional.of(newClassMetadata(type)), dependencies);
+        }
+        // Type might resolve once a class is added/classpath changes, till then lets not try resolving it on every lookup
+        return create(Optional.<ClassMetadata>empty(), PsiModificationTracker.getInstance(project),
+            ProjectRootManager.getInstance(project));
+      }, false);
+    }
+  }
+
+
+  /**
+   * Modules are compared by identity, so that a renamed module keeps its entries & does not pick up entries of the module that had its name
+   */
+  @Value
+  private static class ModuleType {
+    Module module;
+    String canonicalType;
+  }
+}
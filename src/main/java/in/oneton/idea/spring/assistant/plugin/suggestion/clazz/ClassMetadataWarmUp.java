@@ -0,0 +1,120 @@
+package in.oneton.idea.spring.assistant.plugin.suggestion.clazz;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.psi.PsiArrayType;
+import com.intellij.psi.PsiClassType;
+import com.intellij.psi.PsiPrimitiveType;
+import com.intellij.psi.PsiType;
+import in.oneton.idea.spring.assistant.plugin.suggestion.completion.SuggestionDocumentationHelper;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import static in.oneton.idea.spring.assistant.plugin.misc.PsiCustomUtil.getTypeParameters;
+import static in.oneton.idea.spring.assistant.plugin.misc.PsiCustomUtil.isValidType;
+import static in.oneton.idea.spring.assistant.plugin.suggestion.clazz.ClassSuggestionNodeFactory.newMetadataProxy;
+
+/**
+ * Builds class metadata ahead of time, so that the first completion inside a nested class backed property does not pay
+ * for walking the members of the classes. Metadata is shared via {@link ClassMetadataCache}, so the completion that
+ * follows finds it already built.
+ * <p>
+ * Must be called within a read action, checks for cancellation as it goes
+ */
+public final class ClassMetadataWarmUp {
+
+  private static final Logger log = Logger.getInstance(ClassMetadataWarmUp.class);
+
+  private final Module module;
+  private final int maxDepth;
+  /**
+   * Types are walked depth first, so a type can be reached at a deeper level before a shallower one. Lets remember
+   * the shallowest level each type was reached at, so that its nested types get expanded once a shallower path is found
+   */
+  private final Map<String, Integer> typeToShallowestDepth = new HashMap<>();
+
+  /**
+   * @param module   module whose classpath the types are resolved against
+   * @param maxDepth no of levels of nested types to build, `1` builds only the metadata of the types passed in
+   */
+  public ClassMetadataWarmUp(Module module, int maxDepth) {
+    this.module = module;
+    this.maxDepth = maxDepth;
+  }
+
+  /**
+   * @param type type whose metadata (& that of its nested types) needs to be built
+   */
+  public void warmUp(PsiType type) {
+    warmUp(type, 1);
+  }
+
+  /**
+   * @return no of distinct types visited so far
+   */
+  public int getVisitedTypeCount() {
+    return typeToShallowestDepth.size();
+  }
+
+  private void warmUp(PsiType type, int depth) {
+    ProgressManager.checkCanceled();
+    if (depth > maxDepth || !isSupported(type) || !isValidType(type)) {
+      return;
+    }
+    String canonicalType = type.getCanonicalText();
+    Integer shallowestDepth = typeToShallowestDepth.get(canonicalType);
+    if (shallowestDepth != null && shallowestDepth <= depth) {
+      return;
+    }
+    typeToShallowestDepth.put(canonicalType, depth);
+    MetadataProxy proxy = newMetadataProxy(module, type);
+    // lets init the metadata, all lookups on a proxy init its target first
+    proxy.isLeaf(module);
+
+    // elements of collections/arrays & values of maps are at the same depth as the property that holds them
+    if (type instanceof PsiArrayType) {
+      warmUp(((PsiArrayType) type).getComponentType(), depth);
+    } else if (type instanceof PsiClassType) {
+      Map<?, PsiType> typeParameterToResolvedType = getTypeParameters(type);
+      if (typeParameterToResolvedType != null) {
+        for (PsiType typeArgument : typeParameterToResolvedType.values()) {
+          if (typeArgument != null) {
+            warmUp(typeArgument, depth);
+          }
+        }
+      }
+    }
+
+    if (depth < maxDepth) {
+      Collection<? extends SuggestionDocumentationHelper> children =
+          proxy.findDirectChildrenForQueryPrefix(module, "");
+      if (children != null) {
+        for (SuggestionDocumentationHelper child : children) {
+          if (child instanceof GenericClassMemberWrapper) {
+            MetadataProxy childProxy = ((GenericClassMemberWrapper) child)
+                .getMemberReferredClassMetadataProxy(module);
+            PsiType childType = childProxy != null ? childProxy.getPsiType(module) : null;
+            if (childType != null) {
+              warmUp(childType, depth + 1);
+            }
+          }
+        }
+      }
+    }
+    if (log.isDebugEnabled()) {
+      log.debug("Warmed up metadata of " + canonicalType + " at depth " + depth);
+    }
+  }
+
+  /**
+   * Proxies can only be created for primitives & classes that resolve (or arrays of these)
+   */
+  private static boolean isSupported(PsiType type) {
+    PsiType componentType = type.getDeepComponentType();
+    return componentType instanceof PsiPrimitiveType || (componentType instanceof PsiClassType
+        && ((PsiClassType) componentType).resolve() != null);
+  }
+}
@@ -7,13 +7,12 @@ import com.intellij.psi.PsiClassType;
 import com.intellij.psi.PsiField;
 import com.intellij.psi.PsiType;
 import gnu.trove.THashMap;
+import in.oneton.idea.spring.assistant.plugin.misc.ChildTable;
 import in.oneton.idea.spring.assistant.plugin.suggestion.Suggestion;
 import in.oneton.idea.spring.assistant.plugin.suggestion.SuggestionNode;
 import in.oneton.idea.spring.assistant.plugin.suggestion.SuggestionNodeType;
 import in.oneton.idea.spring.assistant.plugin.suggestion.completion.FileType;
 import in.oneton.idea.spring.assistant.plugin.suggestion.completion.SuggestionDocumentationHelper;
-import org.apache.commons.collections4.Trie;
-import org.apache.commons.collections4.trie.PatriciaTrie;
 import org.jetbrains.annotations.NotNull;
 
 import javax.annotation.Nullable;
@@ -22,7 +21,6 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.stream.Stream;
@@ -46,10 +44,11 @@ public class EnumClassMetadata extends ClassMetadata {
   @NotNull
   private final PsiClassType type;
 
+  /**
+   * Sanitised enum constant name -> field, aids in both quick lookup & prefix based searching
+   */
   @Nullable
-  private Map<String, PsiField> childLookup;
-  @Nullable
-  private Trie<String, PsiField> childrenTrie;
+  private ChildTable<PsiField> children;
 
   EnumClassMetadata(@NotNull PsiClassType type) {
     this.type = type;
@@ -65,8 +64,9 @@ public class EnumClassMetadata extends ClassMetadata {
   @Nullable
   @Override
   protected SuggestionDocumentationHelper doFindDirectChild(Module module, String pathSegment) {
-    if (childLookup != null && childLookup.containsKey(pathSegment)) {
-      return new EnumKeySuggestionDocumentationHelper(childLookup.get(pathSegment));
+    PsiField field = children != null ? children.get(pathSegment) : null;
+    if (field != null) {
+      return new EnumKeySuggestionDocumentationHelper(field);
     }
     return null;
   }
@@ -80,21 +80,21 @@ public class EnumClassMetadata extends ClassMetadata {
   @Override
   protected Collection<? extends SuggestionDocumentationHelper> doFindDirectChildrenForQueryPrefix(
       Module module, String querySegmentPrefix, @Nullable Set<String> siblingsToExclude) {
-    if (childrenTrie != null && childLookup != null) {
-      SortedMap<String, PsiField> prefixMap = childrenTrie.prefixMap(querySegmentPrefix);
-      if (!isEmpty(prefixMap)) {
-        return getMatchStreamAfterExclusions(childLookup, prefixMap.values(), siblingsToExclude)
+    if (children != null) {
+      List<PsiField> matches = children.prefixValues(querySegmentPrefix);
+      if (!isEmpty(matches)) {
+        return getMatchStreamAfterExclusions(children, matches, siblingsToExclude)
             .map(EnumKeySuggestionDocumentationHelper::new).collect(toList());
       }
     }
     return null;
   }
 
-  private Stream<PsiField> getMatchStreamAfterExclusions(@NotNull Map<String, PsiField> childLookup,
+  private Stream<PsiField> getMatchStreamAfterExclusions(@NotNull ChildTable<PsiField> children,
       Collection<PsiField> values, @Nullable Set<String> siblingsToExclude) {
     if (siblingsToExclude != null) {
       Set<PsiField> exclusionMembers =
-          siblingsToExclude.stream().map(childLookup::get).collect(toSet());
+          siblingsToExclude.stream().map(children::get).collect(toSet());
       return values.stream().filter(value -> !exclusionMembers.contains(value));
     } else {
       return values.stream();
@@ -133,10 +133,10 @@ public class EnumClassMetadata extends ClassMetadata {
   protected SortedSet<Suggestion> doFindValueSuggestionsForPrefix(Module module, FileType fileType,
       List<SuggestionNode> matchesRootTillMe, String prefix,
       @Nullable Set<String> siblingsToExclude) {
-    if (childrenTrie != null && childLookup != null) {
-      SortedMap<String, PsiField> prefixMap = childrenTrie.prefixMap(prefix);
-      if (!isEmpty(prefixMap)) {
-        return getMatchStreamAfterExclusions(childLookup, prefixMap.values(), siblingsToExclude)
+    if (children != null) {
+      List<PsiField> matches = children.prefixValues(prefix);
+      if (!isEmpty(matches)) {
+        return getMatchStreamAfterExclusions(children, matches, siblingsToExclude)
             .map(psiField -> newSuggestion(fileType, matchesRootTillMe, matchesRootTillMe.size(),
                 true, psiField)).collect(toCollection(TreeSet::new));
       }
@@ -148,8 +148,8 @@ public class EnumClassMetadata extends ClassMetadata {
   @Override
   protected String doGetDocumentationForValue(Module module, String nodeNavigationPathDotDelimited,
       String originalValue) {
-    if (childLookup != null) {
-      PsiField type = childLookup.get(sanitise(originalValue));
+    if (children != null) {
+      PsiField type = children.get(sanitise(originalValue));
       return "<b>" + nodeNavigationPathDotDelimited + "</b> = <b>" + unescapeValue(originalValue)
           + "</b>" + new JavaDocumentationProvider().generateDoc(type, type);
     }
@@ -183,16 +183,13 @@ public class EnumClassMetadata extends ClassMetadata {
         }
       }
       if (acceptableFields.size() != 0) {
-        childLookup = new THashMap<>();
-        childrenTrie = new PatriciaTrie<>();
-        acceptableFields.forEach(field -> {
-          childLookup.put(sanitise(requireNonNull(field.getName())), field);
-          childrenTrie.put(sanitise(field.getName()), field);
-        });
+        Map<String, PsiField> nameToField = new THashMap<>();
+        acceptableFields
+            .forEach(field -> nameToField.put(sanitise(requireNonNull(field.getName())), field));
+        children = ChildTable.of(nameToField);
       }
     } else {
-      childLookup = null;
-      childrenTrie = null;
+      children = null;
     }
   }
 
@@ -2,6 +2,7 @@ package in.oneton.idea.spring.assistant.plugin.suggestion.clazz;
 
 import com.intellij.lang.java.JavaDocumentationProvider;
 import com.intellij.openapi.module.Module;
+import com.intellij.openapi.util.NullableLazyValue;
 import com.intellij.psi.PsiField;
 import com.intellij.psi.PsiMember;
 import com.intellij.psi.PsiMethod;
@@ -19,6 +20,7 @@ import javax.swing.*;
 import java.util.List;
 import java.util.Set;
 import java.util.SortedSet;
+import java.util.function.Supplier;
 
 import static in.oneton.idea.spring.assistant.plugin.misc.PsiCustomUtil.computeDocumentation;
 import static in.oneton.idea.spring.assistant.plugin.misc.PsiCustomUtil.getReferredPsiType;
@@ -33,29 +35,64 @@ import static java.util.Objects.requireNonNull;
  */
 public class GenericClassMemberWrapper implements SuggestionNode, SuggestionDocumentationHelper {
 
-  @Getter
-  private final PsiMember member;
+  /**
+   * Member that backs the property. Wrappers restored from {@link LibraryClassSummaryCache} resolve their member only when its type,
+   * documentation or declaration is needed, null if the member can not be resolved
+   */
+  private final NullableLazyValue<PsiMember> member;
 
   @NotNull
   private final String originalName;
   @Nullable
+  @Getter
   private final String documentation;
   @Nullable
+  @Getter
   private final String shortType;
+  @Getter
   private final boolean deprecated;
 
   private MetadataProxy proxy;
 
   public GenericClassMemberWrapper(@NotNull PsiMember member) {
-    this.member = member;
+    this.member = NullableLazyValue.lazyNullable(() -> member);
     this.originalName = requireNonNull(member.getName());
     this.documentation = computeDocumentation(member);
     this.shortType = toClassNonQualifiedName(getReferredPsiType(member));
-    this.deprecated = computeDeprecationStatus();
+    this.deprecated = computeDeprecationStatus(member);
+  }
+
+  /**
+   * @param originalName   name of the member
+   * @param documentation  documentation of the member, computed earlier, see {@link LibraryClassSummaryCache}
+   * @param shortType      non qualified name of the type of the member, computed earlier
+   * @param deprecated     whether the member is deprecated, computed earlier
+   * @param memberResolver finds the member, invoked at most once & only when the member is needed
+   */
+  GenericClassMemberWrapper(@NotNull String originalName, @Nullable String documentation,
+      @Nullable String shortType, boolean deprecated, Supplier<PsiMember> memberResolver) {
+    this.member = NullableLazyValue.atomicLazyNullable(memberResolver);
+    this.originalName = originalName;
+    this.documentation = documentation;
+    this.shortType = shortType;
+    this.deprecated = deprecated;
+  }
+
+  /**
+   * @return member that backs the property, null if it can not be resolved anymore
+   */
+  @Nullable
+  public PsiMember getMember() {
+    return member.getValue();
   }
 
+  @Nullable
   public MetadataProxy getMemberReferredClassMetadataProxy(Module module) {
     if (proxy == null) {
+      PsiMember member = getMember();
+      if (member == null) {
+        return null;
+      }
       proxy = newMetadataProxy(module, getReferredPsiType(member));
     }
     return proxy;
@@ -148,7 +185,7 @@ public class GenericClassMemberWrapper implements SuggestionNode, SuggestionDocu
     return false;
   }
 
-  private boolean computeDeprecationStatus() {
+  private static boolean computeDeprecationStatus(PsiMember member) {
     if (member instanceof PsiField) {
       return stream(((PsiField) member).getType().getAnnotations()).anyMatch(annotation -> {
         String fqn = annotation.getQualifiedName();
@@ -190,14 +227,23 @@ public class GenericClassMemberWrapper implements SuggestionNode, SuggestionDocu
   @Override
   public String getDocumentationForKey(Module module, String nodeNavigationPathDotDelimited) {
     return "<div class='definition'>" + nodeNavigationPathDotDelimited + "</div>"
-        + new JavaDocumentationProvider().generateDoc(member, member);
+        + generateMemberDoc();
   }
 
   @Override
   public String getDocumentationForValue(Module module, String nodeNavigationPathDotDelimited,
       String originalValue) {
     return "<div class='definition'>" + nodeNavigationPathDotDelimited + "</div>"
-        + new JavaDocumentationProvider().generateDoc(member, member);
+        + generateMemberDoc();
+  }
+
+  private String generateMemberDoc() {
+    PsiMember member = getMember();
+    if (member == null) {
+      return documentation != null ? documentation : "";
+    }
+    String doc = new JavaDocumentationProvider().generateDoc(member, member);
+    return doc != null ? doc : "";
   }
 
   @NotNull
@@ -3,13 +3,12 @@ package in.oneton.idea.spring.assistant.plugin.suggestion.clazz;
 import com.intellij.openapi.module.Module;
 import com.intellij.psi.PsiClassType;
 import com.intellij.psi.PsiType;
+import in.oneton.idea.spring.assistant.plugin.misc.ChildTable;
 import in.oneton.idea.spring.assistant.plugin.suggestion.Suggestion;
 import in.oneton.idea.spring.assistant.plugin.suggestion.SuggestionNode;
 import in.oneton.idea.spring.assistant.plugin.suggestion.SuggestionNodeType;
 import in.oneton.idea.spring.assistant.plugin.suggestion.completion.FileType;
 import in.oneton.idea.spring.assistant.plugin.suggestion.completion.SuggestionDocumentationHelper;
-import org.apache.commons.collections4.Trie;
-import org.apache.commons.collections4.trie.PatriciaTrie;
 import org.jetbrains.annotations.NotNull;
 
 import javax.annotation.Nullable;
@@ -26,10 +25,11 @@ public class GenericClassMetadata extends ClassMetadata {
   @NotNull
   private final PsiClassType type;
 
+  /**
+   * Sanitised property name -> member wrapper, aids in both quick lookup & prefix based searching
+   */
   @Nullable
-  private Map<String, GenericClassMemberWrapper> childLookup;
-  @Nullable
-  private Trie<String, GenericClassMemberWrapper> childrenTrie;
+  private ChildTable<GenericClassMemberWrapper> children;
 
   GenericClassMetadata(@NotNull PsiClassType type) {
     this.type = type;
@@ -42,14 +42,9 @@ public class GenericClassMetadata extends ClassMetadata {
 
   private void init(@NotNull PsiClassType type) {
     if (isValidType(type)) {
-      childLookup = getSanitisedPropertyToPsiMemberWrapper(toValidPsiClass(type));
-      if (childLookup != null) {
-        childrenTrie = new PatriciaTrie<>();
-        childLookup.forEach((k, v) -> childrenTrie.put(k, v));
-      }
+      children = getSanitisedPropertyToPsiMemberWrapper(toValidPsiClass(type));
     } else {
-      childLookup = null;
-      childrenTrie = null;
+      children = null;
     }
   }
 
@@ -58,8 +53,8 @@ public class GenericClassMetadata extends ClassMetadata {
   protected SuggestionDocumentationHelper doFindDirectChild(Module module, String pathSegment) {
     // TODO: Does spring Environment support setting any type other than boolean, number, string & enum to be set as keys. If not we should throw an exception
     // For now lets allow
-    if (childLookup != null && childLookup.containsKey(pathSegment)) {
-      return childLookup.get(pathSegment);
+    if (children != null) {
+      return children.get(pathSegment);
     }
     return null;
   }
@@ -75,14 +70,13 @@ public class GenericClassMetadata extends ClassMetadata {
       Module module, String querySegmentPrefix, @Nullable Set<String> siblingsToExclude) {
     // TODO: Does spring Environment support setting any type other than boolean, number, string & enum to be set as keys. If not we should throw an exception
     // For now lets allow
-    if (childrenTrie != null && childLookup != null) {
-      SortedMap<String, GenericClassMemberWrapper> prefixMap =
-          childrenTrie.prefixMap(querySegmentPrefix);
-      if (!isEmpty(prefixMap)) {
+    if (children != null) {
+      List<GenericClassMemberWrapper> matches = children.prefixValues(querySegmentPrefix);
+      if (!isEmpty(matches)) {
         if (siblingsToExclude != null) {
-          return getMatchesAfterExclusions(childLookup, prefixMap, siblingsToExclude);
+          return getMatchesAfterExclusions(children, matches, siblingsToExclude);
         }
-        return prefixMap.values();
+        return matches;
       }
     }
     return null;
@@ -95,8 +89,8 @@ public class GenericClassMetadata extends ClassMetadata {
       int pathSegmentStartIndex) {
     if (!isLeaf(module)) {
       String pathSegment = pathSegments[pathSegmentStartIndex];
-      if (childLookup != null && childLookup.containsKey(pathSegment)) {
-        GenericClassMemberWrapper memberWrapper = childLookup.get(pathSegment);
+      GenericClassMemberWrapper memberWrapper = children != null ? children.get(pathSegment) : null;
+      if (memberWrapper != null) {
         matchesRootTillParentNode.add(memberWrapper);
         boolean lastPathSegment = pathSegmentStartIndex == pathSegments.length - 1;
         if (lastPathSegment) {
@@ -127,14 +121,12 @@ public class GenericClassMetadata extends ClassMetadata {
       String[] querySegmentPrefixes, int querySegmentPrefixStartIndex,
       @Nullable Set<String> siblingsToExclude) {
     if (!isLeaf(module)) {
-      if (childrenTrie != null && childLookup != null) {
+      if (children != null) {
         String querySegmentPrefix = querySegmentPrefixes[querySegmentPrefixStartIndex];
-        SortedMap<String, GenericClassMemberWrapper> sortedPrefixToMemberWrapper =
-            childrenTrie.prefixMap(querySegmentPrefix);
-        if (!isEmpty(sortedPrefixToMemberWrapper)) {
+        List<GenericClassMemberWrapper> matches = children.prefixValues(querySegmentPrefix);
+        if (!isEmpty(matches)) {
           Collection<GenericClassMemberWrapper> wrappers =
-              getMatchesAfterExclusions(childLookup, sortedPrefixToMemberWrapper,
-                  siblingsToExclude);
+              getMatchesAfterExclusions(children, matches, siblingsToExclude);
           if (!isEmpty(wrappers)) {
             boolean lastQuerySegment =
                 querySegmentPrefixStartIndex == (querySegmentPrefixes.length - 1);
@@ -169,13 +161,12 @@ public class GenericClassMetadata extends ClassMetadata {
   }
 
   private Collection<GenericClassMemberWrapper> getMatchesAfterExclusions(
-      @NotNull Map<String, GenericClassMemberWrapper> childLookup,
-      SortedMap<String, GenericClassMemberWrapper> sortedPrefixToMemberWrapper,
-      @Nullable Set<String> siblingsToExclude) {
-    Collection<GenericClassMemberWrapper> wrappers = sortedPrefixToMemberWrapper.values();
+      @NotNull ChildTable<GenericClassMemberWrapper> children,
+      List<GenericClassMemberWrapper> matches, @Nullable Set<String> siblingsToExclude) {
+    Collection<GenericClassMemberWrapper> wrappers = matches;
     if (siblingsToExclude != null) {
       Set<GenericClassMemberWrapper> exclusionMembers =
-          siblingsToExclude.stream().map(childLookup::get).collect(toSet());
+          siblingsToExclude.stream().map(children::get).collect(toSet());
       wrappers =
           wrappers.stream().filter(value -> !exclusionMembers.contains(value)).collect(toList());
     }
@@ -200,7 +191,7 @@ public class GenericClassMetadata extends ClassMetadata {
 
   @Override
   public boolean doCheckIsLeaf(Module module) {
-    return childLookup == null || childLookup.size() == 0;
+    return children == null || children.isEmpty();
   }
 
   @NotNull
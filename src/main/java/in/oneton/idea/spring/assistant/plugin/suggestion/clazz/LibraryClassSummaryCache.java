@@ -0,0 +1,444 @@
+package in.oneton.idea.spring.assistant.plugin.suggestion.clazz;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.vfs.ArchiveFileSystem;
+import com.intellij.openapi.vfs.JarFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiMember;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.util.InheritanceUtil;
+import com.intellij.psi.util.PsiUtilCore;
+import com.intellij.psi.util.TypeConversionUtil;
+import com.intellij.util.Alarm;
+import com.intellij.util.io.IOUtil;
+import org.jetbrains.annotations.NotNull;
+
+import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.intellij.openapi.application.ApplicationManager.getApplication;
+import static in.oneton.idea.spring.assistant.plugin.misc.GenericUtil.getFirstSentenceWithoutDot;
+import static in.oneton.idea.spring.assistant.plugin.misc.PsiCustomUtil.getReferredPsiType;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An Application level service which remembers the writable properties of classes that live in library jars, along with
+ * their documentation. Library classes do not change, so the (expensive) walk over all methods & fields of such a class,
+ * its javadoc included, is done once per jar version instead of once per IDE session.
+ * <p>
+ * Summaries are persisted under IDE's system directory, one file per jar, & are loaded lazily the first time a class of
+ * the jar is requested. Summaries of a jar are valid only as long as timestamp & length of the jar are the same as when they were written.
+ * Properties can be inherited from classes of other jars, so the summary of a class also remembers the timestamp & length of
+ * the jars of its super classes & is valid only as long as these are unchanged as well.
+ * <p>
+ * Summaries hold all a suggestion displays (name, type, deprecation & the first sentence of the javadoc), so restoring a class does
+ * not touch its members. A member is found by name (& its erased type checked) only when it is actually needed, i.e for navigation,
+ * full documentation or to look into the type of the property
+ */
+public class LibraryClassSummaryCache implements Disposable {
+  private static final Logger log = Logger.getInstance(LibraryClassSummaryCache.class);
+
+  /**
+   * Should be incremented whenever the layout of the file changes
+   */
+  private static final int FORMAT_VERSION = 3;
+  private static final int WRITE_DELAY_MILLIS = 5000;
+
+  private final ConcurrentMap<String, JarSummaries> jarUrlToSummaries = new ConcurrentHashMap<>();
+  private final Path cacheDir =
+      Paths.get(PathManager.getSystemPath(), "spring-boot-assistant", "classes");
+  /**
+   * Jars whose summaries changed since they were last written
+   */
+  private final Set<JarSummaries> dirtyJarSummaries = ConcurrentHashMap.newKeySet();
+  /**
+   * A completion summarises a bunch of classes of the same jar, so lets write each jar once the burst settles instead of once per class.
+   * Requests of an alarm run one after another, so writes of the same jar never overlap & completion does not wait for disk
+   */
+  private final Alarm writeAlarm = new Alarm(Alarm.ThreadToUse.POOLED_THREAD, this);
+
+  public static LibraryClassSummaryCache getInstance() {
+    return getApplication().getService(LibraryClassSummaryCache.class);
+  }
+
+  /**
+   * @param psiClass class whose writable properties are requested
+   * @return sanitised property name -> wrapper of the member that backs the property, restored from the summary of the class.
+   * null if the class does not live in a jar, was not summarised yet, or if its summary no longer matches the class
+   */
+  @Nullable
+  public Map<String, GenericClassMemberWrapper> restore(@NotNull PsiClass psiClass) {
+    VirtualFile jar = findJar(psiClass);
+    String fqn = psiClass.getQualifiedName();
+    if (jar == null || fqn == null) {
+      return null;
+    }
+    ClassSummary classSummary = getSummaries(jar).classToSummary.get(fqn);
+    if (classSummary == null) {
+      return null;
+    }
+    for (JarStamp superClassJar : classSummary.superClassJars) {
+      if (!superClassJar.matches(VirtualFileManager.getInstance().findFileByUrl(superClassJar.jarUrl))) {
+        debug(() -> log.debug("Summary of " + fqn + " is stale, as " + superClassJar.jarUrl + " is modified"));
+        return null;
+      }
+    }
+    Map<String, GenericClassMemberWrapper> propertyToMemberWrapper =
+        new HashMap<>(classSummary.members.size());
+    for (MemberSummary summary : classSummary.members) {
+      propertyToMemberWrapper.put(summary.property,
+          new GenericClassMemberWrapper(summary.memberName, summary.documentation, summary.shortType,
+              summary.deprecated, () -> findMember(psiClass, summary)));
+    }
+    return propertyToMemberWrapper;
+  }
+
+  /**
+   * Remembers the writable properties of the class, if the class & all its super classes live in jars (or the JDK). Other classes are left alone
+   *
+   * @param psiClass                class whose properties were computed
+   * @param propertyToMemberWrapper sanitised property name -> wrapper of the member that backs the property
+   */
+  public void store(@NotNull PsiClass psiClass,
+      Map<String, GenericClassMemberWrapper> propertyToMemberWrapper) {
+    VirtualFile jar = findJar(psiClass);
+    String fqn = psiClass.getQualifiedName();
+    if (jar == null || fqn == null) {
+      return;
+    }
+    List<JarStamp> superClassJars = findSuperClassJars(psiClass, jar);
+    if (superClassJars == null) {
+      return;
+    }
+    List<MemberSummary> summaries = new ArrayList<>(propertyToMemberWrapper.size());
+    for (Map.Entry<String, GenericClassMemberWrapper> entry : propertyToMemberWrapper.entrySet()) {
+      GenericClassMemberWrapper wrapper = entry.getValue();
+      // wrappers being stored are freshly computed, so their members are at hand
+      PsiMember member = requireNonNull(wrapper.getMember());
+      // suggestions display only the first sentence, full documentation is generated from the member when requested
+      String documentation = wrapper.getDocumentation();
+      String firstSentence = documentation != null ? getFirstSentenceWithoutDot(documentation) : "";
+      summaries.add(new MemberSummary(entry.getKey(), wrapper.getOriginalName(),
+          member instanceof PsiField, erasedTypeOf(member),
+          firstSentence.isEmpty() ? null : firstSentence, wrapper.getShortType(), wrapper.isDeprecated()));
+    }
+    JarSummaries jarSummaries = getSummaries(jar);
+    // Class is only summarised when there is no summary or when its summary is stale
+    jarSummaries.classToSummary.put(fqn,
+        new ClassSummary(unmodifiableList(superClassJars), unmodifiableList(summaries)));
+    dirtyJarSummaries.add(jarSummaries);
+    writeAlarm.cancelAllRequests();
+    writeAlarm.addRequest(this::writeDirtyJarSummaries, WRITE_DELAY_MILLIS);
+  }
+
+  @Override
+  public void dispose() {
+    // lets not lose summaries that are waiting for the burst to settle
+    writeDirtyJarSummaries();
+  }
+
+  private JarSummaries getSummaries(VirtualFile jar) {
+    long timeStamp = jar.getTimeStamp();
+    long length = jar.getLength();
+    JarSummaries existing = jarUrlToSummaries.get(jar.getUrl());
+    if (existing != null && existing.timeStamp == timeStamp && existing.length == length) {
+      return existing;
+    }
+    // lets read outside the map's lock, so that lookups of other jars are not blocked on disk
+    JarSummaries persisted = read(jar.getUrl(), timeStamp, length);
+    JarSummaries loaded = persisted != null ? persisted :
+        new JarSummaries(jar.getUrl(), timeStamp, length, new ConcurrentHashMap<>());
+    // another thread might have loaded the jar meanwhile, in which case lets stick to that one
+    return jarUrlToSummaries.compute(jar.getUrl(), (jarUrl, current) ->
+        current != null && current.timeStamp == timeStamp && current.length == length ? current : loaded);
+  }
+
+  /**
+   * @return jars of the super classes (other than the jar of the class itself), null if any of the super classes is not from a jar/JDK
+   */
+  @Nullable
+  private static List<JarStamp> findSuperClassJars(PsiClass psiClass, VirtualFile jar) {
+    Map<String, JarStamp> jarUrlToStamp = new LinkedHashMap<>();
+    for (PsiClass superClass : InheritanceUtil.getSuperClasses(psiClass)) {
+      VirtualFile classFile = PsiUtilCore.getVirtualFile(superClass);
+      if (classFile == null) {
+        continue;
+      }
+      if (classFile.getFileSystem() instanceof JarFileSystem) {
+        VirtualFile superClassJar = JarFileSystem.getInstance().getVirtualFileForJar(classFile);
+        if (superClassJar == null) {
+          return null;
+        }
+        if (!superClassJar.equals(jar)) {
+          jarUrlToStamp.putIfAbsent(superClassJar.getUrl(), new JarStamp(superClassJar.getUrl(),
+              superClassJar.getTimeStamp(), superClassJar.getLength()));
+        }
+      } else if (!(classFile.getFileSystem() instanceof ArchiveFileSystem)) {
+        // super class is a source of the project, which can change at any time
+        return null;
+      }
+      // rest are classes of the JDK, which are left alone
+    }
+    return new ArrayList<>(jarUrlToStamp.values());
+  }
+
+  @Nullable
+  private static PsiMember findMember(PsiClass psiClass, MemberSummary summary) {
+    PsiMember member = null;
+    if (summary.field) {
+      member = psiClass.findFieldByName(summary.memberName, true);
+    } else {
+      for (PsiMethod method : psiClass.findMethodsByName(summary.memberName, true)) {
+        // members are either fields or getters
+        if (method.getParameterList().isEmpty()) {
+          member = method;
+          break;
+        }
+      }
+    }
+    if (member != null && summary.erasedType.equals(erasedTypeOf(member))) {
+      return member;
+    }
+    debug(() -> log.debug("Member " + summary.memberName + " of " + psiClass.getQualifiedName()
+        + " is not found, though it is summarised"));
+    return null;
+  }
+
+  private static String erasedTypeOf(PsiMember member) {
+    return TypeConversionUtil.erasure(getReferredPsiType(member)).getCanonicalText();
+  }
+
+  /**
+   * @return local jar file that holds the class, null if the class does not come from a jar
+   */
+  @Nullable
+  private static VirtualFile findJar(PsiClass psiClass) {
+    VirtualFile classFile = PsiUtilCore.getVirtualFile(psiClass);
+    if (classFile == null || !(classFile.getFileSystem() instanceof JarFileSystem)) {
+      return null;
+    }
+    return JarFileSystem.getInstance().getVirtualFileForJar(classFile);
+  }
+
+  @Nullable
+  private JarSummaries read(String jarUrl, long timeStamp, long length) {
+    Path cacheFile = toCacheFile(jarUrl);
+    try (DataInputStream in = new DataInputStream(
+        new BufferedInputStream(Files.newInputStream(cacheFile)))) {
+      if (in.readInt() != FORMAT_VERSION || !jarUrl.equals(IOUtil.readUTF(in))
+          || in.readLong() != timeStamp || in.readLong() != length) {
+        return null;
+      }
+      int numOfClasses = in.readInt();
+      ConcurrentMap<String, ClassSummary> classToSummary = new ConcurrentHashMap<>(numOfClasses);
+      for (int i = 0; i < numOfClasses; i++) {
+        String fqn = IOUtil.readUTF(in);
+        int numOfSuperClassJars = in.readInt();
+        List<JarStamp> superClassJars = new ArrayList<>(numOfSuperClassJars);
+        for (int j = 0; j < numOfSuperClassJars; j++) {
+          superClassJars.add(new JarStamp(IOUtil.readUTF(in), in.readLong(), in.readLong()));
+        }
+        int numOfMembers = in.readInt();
+        List<MemberSummary> summaries = new ArrayList<>(numOfMembers);
+        for (int j = 0; j < numOfMembers; j++) {
+          String property = IOUtil.readUTF(in);
+          String memberName = IOUtil.readUTF(in);
+          boolean field = in.readBoolean();
+          String erasedType = IOUtil.readUTF(in);
+          String documentation = in.readBoolean() ? IOUtil.readUTF(in) : null;
+          String shortType = in.readBoolean() ? IOUtil.readUTF(in) : null;
+          boolean deprecated = in.readBoolean();
+          summaries.add(new MemberSummary(property, memberName, field, erasedType, documentation,
+              shortType, deprecated));
+        }
+        classToSummary.put(fqn,
+            new ClassSummary(unmodifiableList(superClassJars), unmodifiableList(summaries)));
+      }
+      debug(() -> log.debug("Loaded " + numOfClasses + " persisted class summaries of " + jarUrl));
+      return new JarSummaries(jarUrl, timeStamp, length, classToSummary);
+    } catch (NoSuchFileException e) {
+      return null;
+    } catch (IOException | RuntimeException e) {
+      log.warn("Ignoring corrupt class summary cache " + cacheFile + " of " + jarUrl, e);
+      return null;
+    }
+  }
+
+  private synchronized void writeDirtyJarSummaries() {
+    for (JarSummaries jarSummaries : dirtyJarSummaries) {
+      // lets unmark first, summaries added while this is being written mark the jar dirty again
+      dirtyJarSummaries.remove(jarSummaries);
+      write(jarSummaries);
+    }
+  }
+
+  private void write(JarSummaries jarSummaries) {
+    Path cacheFile = toCacheFile(jarSummaries.jarUrl);
+    // lets take a snapshot, summaries of other classes of the jar might be added while this is being written
+    Map<String, ClassSummary> classToSummary = new HashMap<>(jarSummaries.classToSummary);
+    try {
+      Files.createDirectories(cacheDir);
+      Path tempFile = Files.createTempFile(cacheDir, cacheFile.getFileName().toString(), ".tmp");
+      try {
+        try (OutputStream fileOut = Files.newOutputStream(tempFile);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut))) {
+          out.writeInt(FORMAT_VERSION);
+          IOUtil.writeUTF(out, jarSummaries.jarUrl);
+          out.writeLong(jarSummaries.timeStamp);
+          out.writeLong(jarSummaries.length);
+          out.writeInt(classToSummary.size());
+          for (Map.Entry<String, ClassSummary> entry : classToSummary.entrySet()) {
+            IOUtil.writeUTF(out, entry.getKey());
+            ClassSummary classSummary = entry.getValue();
+            out.writeInt(classSummary.superClassJars.size());
+            for (JarStamp superClassJar : classSummary.superClassJars) {
+              IOUtil.writeUTF(out, superClassJar.jarUrl);
+              out.writeLong(superClassJar.timeStamp);
+              out.writeLong(superClassJar.length);
+            }
+            out.writeInt(classSummary.members.size());
+            for (MemberSummary summary : classSummary.members) {
+              IOUtil.writeUTF(out, summary.property);
+              IOUtil.writeUTF(out, summary.memberName);
+              out.writeBoolean(summary.field);
+              IOUtil.writeUTF(out, summary.erasedType);
+              out.writeBoolean(summary.documentation != null);
+              if (summary.documentation != null) {
+                IOUtil.writeUTF(out, summary.documentation);
+              }
+              out.writeBoolean(summary.shortType != null);
+              if (summary.shortType != null) {
+                IOUtil.writeUTF(out, summary.shortType);
+              }
+              out.writeBoolean(summary.deprecated);
+            }
+          }
+        }
+        Files.move(tempFile, cacheFile, REPLACE_EXISTING, ATOMIC_MOVE);
+      } finally {
+        Files.deleteIfExists(tempFile);
+      }
+    } catch (IOException e) {
+      // cache is only an optimisation, lets not fail completion because of it
+      log.warn("Could not persist class summaries of " + jarSummaries.jarUrl + " to " + cacheFile, e);
+    }
+  }
+
+  private Path toCacheFile(String jarUrl) {
+    return cacheDir.resolve(UUID.nameUUIDFromBytes(jarUrl.getBytes(UTF_8)) + ".bin");
+  }
+
+  private static void debug(Runnable doWhenDebug) {
+    if (log.isDebugEnabled()) {
+      doWhenDebug.run();
+    }
+  }
+
+
+  private static class JarSummaries {
+    private final String jarUrl;
+    private final long timeStamp;
+    private final long length;
+    private final ConcurrentMap<String, ClassSummary> classToSummary;
+
+    JarSummaries(String jarUrl, long timeStamp, long length,
+        ConcurrentMap<String, ClassSummary> classToSummary) {
+      this.jarUrl = jarUrl;
+      this.timeStamp = timeStamp;
+      this.length = length;
+      this.classToSummary = classToSummary;
+    }
+  }
+
+
+  private static class ClassSummary {
+    /**
+     * Jars (other than the jar of the class) that contribute super classes, from which properties might be inherited
+     */
+    private final List<JarStamp> superClassJars;
+    private final List<MemberSummary> members;
+
+    ClassSummary(List<JarStamp> superClassJars, List<MemberSummary> members) {
+      this.superClassJars = superClassJars;
+      this.members = members;
+    }
+  }
+
+
+  private static class JarStamp {
+    private final String jarUrl;
+    private final long timeStamp;
+    private final long length;
+
+    JarStamp(String jarUrl, long timeStamp, long length) {
+      this.jarUrl = jarUrl;
+      this.timeStamp = timeStamp;
+      this.length = length;
+    }
+
+    boolean matches(@Nullable VirtualFile jar) {
+      return jar != null && jar.getTimeStamp() == timeStamp && jar.getLength() == length;
+    }
+  }
+
+
+  /**
+   * Compact form of a writable property. Types of elements of collections & of map keys/values are derived from the
+   * member's type, as & when the property is navigated into, so are not repeated here
+   */
+  private static class MemberSummary {
+    /**
+     * Sanitised property name
+     */
+    private final String property;
+    private final String memberName;
+    private final boolean field;
+    private final String erasedType;
+    /**
+     * First sentence of the javadoc, as displayed alongside the suggestion
+     */
+    @Nullable
+    private final String documentation;
+    @Nullable
+    private final String shortType;
+    private final boolean deprecated;
+
+    MemberSummary(String property, String memberName, boolean field, String erasedType,
+        @Nullable String documentation, @Nullable String shortType, boolean deprecated) {
+      this.property = property;
+      this.memberName = memberName;
+      this.field = field;
+      this.erasedType = erasedType;
+      this.documentation = documentation;
+      this.shortType = shortType;
+      this.deprecated = deprecated;
+    }
+  }
+}
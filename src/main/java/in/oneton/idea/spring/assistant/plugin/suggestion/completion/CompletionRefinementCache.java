@@ -0,0 +1,139 @@
+package in.oneton.idea.spring.assistant.plugin.suggestion.completion;
+
+import com.intellij.codeInsight.lookup.LookupElement;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.util.Key;
+import com.intellij.util.Processor;
+import in.oneton.idea.spring.assistant.plugin.suggestion.OriginalNameProvider;
+import in.oneton.idea.spring.assistant.plugin.suggestion.Suggestion;
+import in.oneton.idea.spring.assistant.plugin.suggestion.service.SuggestionService;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.ToDoubleFunction;
+
+import static in.oneton.idea.spring.assistant.plugin.misc.RelaxedNames.startsWith;
+import static in.oneton.idea.spring.assistant.plugin.suggestion.SuggestionNode.sanitise;
+
+/**
+ * Remembers the suggestions of the last completion in an editor. As the user keeps typing, the query mostly extends the last segment of
+ * the previous query under the same ancestral keys, in which case the previous suggestions are narrowed down instead of searching the index again.
+ * <p>
+ * Entries are tied to the index they were computed from & are discarded as soon as the module is reindexed.
+ * Searches that were cut short (limit reached/cancelled) are not remembered, as their suggestions are not complete
+ */
+class CompletionRefinementCache {
+  private static final Key<CompletionRefinementCache> LAST_COMPLETION =
+      Key.create("spring.assistant.completion.lastCompletion");
+
+  private final Module module;
+  @Nullable
+  private final List<String> ancestralKeys;
+  private final long indexModificationCount;
+  private final String query;
+  private final List<Suggestion> suggestions;
+
+  private CompletionRefinementCache(Module module, @Nullable List<String> ancestralKeys,
+      long indexModificationCount, String query, List<Suggestion> suggestions) {
+    this.module = module;
+    this.ancestralKeys = ancestralKeys;
+    this.indexModificationCount = indexModificationCount;
+    this.query = query;
+    this.suggestions = suggestions;
+  }
+
+  /**
+   * @param editor        editor in which completion is requested
+   * @param module        module the file belongs to
+   * @param service       service of the module
+   * @param ancestralKeys keys of the ancestors of the element being completed
+   * @param query         query as typed by the user
+   * @param limit         maximum no of suggestions
+   * @param ranker        ranks the suggestions of this completion
+   * @param consumer      receives the suggestions prioritised by the ranker, returns false if it does not want any more
+   * @param search        streams the suggestions from the index to the given consumer, prioritised by the given relevance,
+   *                      when previous suggestions can not be reused
+   * @return true if any suggestion was found
+   */
+  static boolean findSuggestions(Editor editor, Module module, SuggestionService service,
+      @Nullable List<String> ancestralKeys, String query, int limit, SuggestionRanker ranker,
+      Processor<? super LookupElement> consumer,
+      BiConsumer<ToDoubleFunction<Suggestion>, Processor<LookupElement>> search) {
+    long indexModificationCount = service.getModificationCount();
+    CompletionRefinementCache previous = editor.getUserData(LAST_COMPLETION);
+    if (previous != null && previous.canBeRefinedTo(module, ancestralKeys, indexModificationCount,
+        query)) {
+      List<Suggestion> refined = previous.refine(query);
+      // If nothing is left, search might still find deeper matches, so lets not short circuit
+      if (!refined.isEmpty()) {
+        editor.putUserData(LAST_COMPLETION,
+            new CompletionRefinementCache(module, ancestralKeys, indexModificationCount, query,
+                refined));
+        // Previous query might have ranked these differently, so lets rank them again before cutting them down to the limit
+        for (Suggestion suggestion : ranker.top(refined, limit)) {
+          if (!consumer.process(ranker.prioritise(suggestion.newLookupElement()))) {
+            break;
+          }
+        }
+        return true;
+      }
+    }
+
+    List<Suggestion> suggestions = new ArrayList<>();
+    boolean[] cutShort = {false};
+    // Lookup elements belong to a single completion session, so only suggestions are kept around & their elements are created afresh next time
+    // Search prioritises its candidates with the same ranker as it hands them over
+    search.accept(ranker::score, lookupElement -> {
+      suggestions.add((Suggestion) lookupElement.getObject());
+      boolean wantsMore = consumer.process(lookupElement);
+      cutShort[0] = !wantsMore || suggestions.size() >= limit;
+      return wantsMore;
+    });
+    editor.putUserData(LAST_COMPLETION, !cutShort[0] && !suggestions.isEmpty() ?
+        new CompletionRefinementCache(module, ancestralKeys, indexModificationCount, query,
+            suggestions) :
+        null);
+    return !suggestions.isEmpty();
+  }
+
+  private boolean canBeRefinedTo(Module module, @Nullable List<String> ancestralKeys,
+      long indexModificationCount, String query) {
+    // Typing a `.` moves the search to the next level, which previous suggestions can not answer
+    return this.module == module && this.indexModificationCount == indexModificationCount
+        && Objects.equals(this.ancestralKeys, ancestralKeys) && query.startsWith(this.query)
+        && query.indexOf('.', this.query.length()) == -1;
+  }
+
+  private List<Suggestion> refine(String query) {
+    if (query.length() == this.query.length()) {
+      return suggestions;
+    }
+    String sanitisedQuery = sanitise(query);
+    String lastSegmentPrefix = sanitise(query.substring(query.lastIndexOf('.') + 1));
+    List<Suggestion> refined = new ArrayList<>();
+    for (Suggestion suggestion : suggestions) {
+      if (suggestion.isForValue() ?
+          startsWith(suggestion.getSuggestionToDisplay(), sanitisedQuery) :
+          anyNameStartsWith(suggestion, lastSegmentPrefix)) {
+        refined.add(suggestion);
+      }
+    }
+    return refined;
+  }
+
+  /**
+   * Last segment of the query might have matched any of the nodes being inserted (groups with a single child are collapsed into their child)
+   */
+  private static boolean anyNameStartsWith(Suggestion suggestion, String sanitisedPrefix) {
+    for (OriginalNameProvider nameProvider : suggestion.getMatchesForReplacement()) {
+      if (startsWith(nameProvider.getOriginalName(), sanitisedPrefix)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
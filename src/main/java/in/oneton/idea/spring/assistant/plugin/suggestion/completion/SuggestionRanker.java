@@ -0,0 +1,124 @@
+package in.oneton.idea.spring.assistant.plugin.suggestion.completion;
+
+import com.intellij.codeInsight.completion.PrioritizedLookupElement;
+import com.intellij.codeInsight.lookup.LookupElement;
+import in.oneton.idea.spring.assistant.plugin.suggestion.OriginalNameProvider;
+import in.oneton.idea.spring.assistant.plugin.suggestion.Suggestion;
+import in.oneton.idea.spring.assistant.plugin.suggestion.metadata.json.SpringConfigurationMetadataDeprecationLevel;
+import in.oneton.idea.spring.assistant.plugin.suggestion.service.SuggestionFrecencyService;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import static in.oneton.idea.spring.assistant.plugin.suggestion.SuggestionNode.sanitise;
+
+/**
+ * Scores suggestions of a single completion, so that the lookup shows the most likely keys/values first.
+ * Score is made up of
+ * <ol>
+ * <li>how well the name matches what the user typed (exact > prefix > abbreviation)</li>
+ * <li>how often & how recently the user accepted the suggestion in this project, see {@link SuggestionFrecencyService}</li>
+ * <li>deprecation, deprecated suggestions sink to the bottom</li>
+ * </ol>
+ */
+class SuggestionRanker {
+  private static final double EXACT_MATCH_QUALITY = 1.0;
+  private static final double NON_PREFIX_MATCH_QUALITY = 0.25;
+  private static final double MATCH_QUALITY_WEIGHT = 2.0;
+  private static final double DEPTH_PENALTY = 0.1;
+  private static final double DEPRECATION_WARNING_PENALTY = 1.0;
+  private static final double DEPRECATION_ERROR_PENALTY = 2.0;
+
+  private final SuggestionFrecencyService frecencyService;
+  private final String sanitisedQuery;
+  private final String sanitisedLastQuerySegment;
+  /**
+   * Refinement & streaming can score the same suggestion more than once
+   */
+  private final Map<Suggestion, Double> suggestionToScore = new IdentityHashMap<>();
+
+  SuggestionRanker(SuggestionFrecencyService frecencyService, String query) {
+    this.frecencyService = frecencyService;
+    this.sanitisedQuery = sanitise(query);
+    this.sanitisedLastQuerySegment = sanitise(query.substring(query.lastIndexOf('.') + 1));
+  }
+
+  /**
+   * @param lookupElement element whose object is a {@link Suggestion}
+   * @return element that the lookup would order by the score of its suggestion
+   */
+  LookupElement prioritise(LookupElement lookupElement) {
+    return PrioritizedLookupElement
+        .withPriority(lookupElement, score((Suggestion) lookupElement.getObject()));
+  }
+
+  /**
+   * Selects the best suggestions with a bounded heap, instead of sorting all of them
+   *
+   * @param suggestions candidates
+   * @param limit       maximum no of suggestions to select
+   * @return best suggestions, best first
+   */
+  List<Suggestion> top(Collection<Suggestion> suggestions, int limit) {
+    if (limit <= 0) {
+      return new ArrayList<>();
+    }
+    Comparator<Suggestion> worstFirst = Comparator.comparingDouble(this::score);
+    PriorityQueue<Suggestion> best =
+        new PriorityQueue<>(Math.min(limit, suggestions.size()) + 1, worstFirst);
+    for (Suggestion suggestion : suggestions) {
+      if (best.size() < limit) {
+        best.add(suggestion);
+      } else if (worstFirst.compare(suggestion, best.peek()) > 0) {
+        best.poll();
+        best.add(suggestion);
+      }
+    }
+    List<Suggestion> top = new ArrayList<>(best);
+    top.sort(worstFirst.reversed());
+    return top;
+  }
+
+  double score(Suggestion suggestion) {
+    return suggestionToScore.computeIfAbsent(suggestion, this::computeScore);
+  }
+
+  private double computeScore(Suggestion suggestion) {
+    double score;
+    if (suggestion.isForValue()) {
+      score = MATCH_QUALITY_WEIGHT * matchQuality(sanitise(suggestion.getSuggestionToDisplay()),
+          sanitisedQuery);
+    } else {
+      List<? extends OriginalNameProvider> matchesForReplacement =
+          suggestion.getMatchesForReplacement();
+      String lastName = matchesForReplacement.get(matchesForReplacement.size() - 1).getOriginalName();
+      score = MATCH_QUALITY_WEIGHT * matchQuality(sanitise(lastName), sanitisedLastQuerySegment)
+          - DEPTH_PENALTY * (matchesForReplacement.size() - 1);
+      score += Math.log1p(frecencyService.frecencyOf(suggestion.getFullPath()));
+    }
+    SpringConfigurationMetadataDeprecationLevel deprecationLevel = suggestion.getDeprecationLevel();
+    if (deprecationLevel == SpringConfigurationMetadataDeprecationLevel.error) {
+      score -= DEPRECATION_ERROR_PENALTY;
+    } else if (deprecationLevel != null) {
+      score -= DEPRECATION_WARNING_PENALTY;
+    }
+    return score;
+  }
+
+  /**
+   * Names that are barely longer than what is typed are closer matches than long names that merely start with it
+   */
+  private static double matchQuality(String sanitisedName, String sanitisedPrefix) {
+    if (sanitisedName.equals(sanitisedPrefix)) {
+      return EXACT_MATCH_QUALITY;
+    } else if (sanitisedName.startsWith(sanitisedPrefix)) {
+      return 0.5 + 0.5 * sanitisedPrefix.length() / sanitisedName.length();
+    }
+    return NON_PREFIX_MATCH_QUALITY;
+  }
+}
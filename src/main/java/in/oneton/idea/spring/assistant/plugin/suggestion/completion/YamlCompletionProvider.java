@@ -5,10 +5,12 @@ import com.intellij.codeInsight.completion.CompletionProvider;
 import com.intellij.codeInsight.completion.CompletionResultSet;
 import com.intellij.codeInsight.lookup.LookupElement;
 import com.intellij.openapi.module.Module;
+import com.intellij.openapi.util.registry.Registry;
 import com.intellij.psi.PsiComment;
 import com.intellij.psi.PsiElement;
 import com.intellij.util.ProcessingContext;
 import gnu.trove.THashSet;
+import in.oneton.idea.spring.assistant.plugin.suggestion.service.SuggestionFrecencyService;
 import in.oneton.idea.spring.assistant.plugin.suggestion.service.SuggestionService;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -25,6 +27,10 @@ import static in.oneton.idea.spring.assistant.plugin.suggestion.completion.FileT
 import static java.util.Objects.requireNonNull;
 
 class YamlCompletionProvider extends CompletionProvider<CompletionParameters> {
+  private static final int MAX_TEXT_SUGGESTIONS = 50;
+  private static final String MAX_SUGGESTIONS_REGISTRY_KEY =
+      "spring.assistant.completion.max.suggestions";
+
   @Override
   protected void addCompletions(@NotNull final CompletionParameters completionParameters,
       final ProcessingContext processingContext, @NotNull final CompletionResultSet resultSet) {
@@ -51,7 +57,6 @@ class YamlCompletionProvider extends CompletionProvider<CompletionParameters> {
       return;
     }
 
-    List<LookupElement> suggestions;
     // For top level element, since there is no parent parentKeyValue would be null
     String queryWithDotDelimitedPrefixes = truncateIdeaDummyIdentifier(element);
 
@@ -67,16 +72,36 @@ class YamlCompletionProvider extends CompletionProvider<CompletionParameters> {
       context = requireNonNull(context).getParent();
     } while (context != null);
 
-    suggestions = service.findSuggestionsForQueryPrefix(
-        yaml,
-        element,
-        ancestralKeys,
-        queryWithDotDelimitedPrefixes,
-        null
-    );
+    List<String> finalAncestralKeys = ancestralKeys;
+    int maxSuggestions = Registry.intValue(MAX_SUGGESTIONS_REGISTRY_KEY);
+    // Matches reach the lookup as soon as they are found, ordered by the ranker. Search stops at `maxSuggestions`, so that the lookup is not flooded
+    boolean found = CompletionRefinementCache.findSuggestions(completionParameters.getEditor(),
+        module, service, ancestralKeys, queryWithDotDelimitedPrefixes,
+        maxSuggestions,
+        new SuggestionRanker(module.getProject().getService(SuggestionFrecencyService.class),
+            queryWithDotDelimitedPrefixes), lookupElement -> {
+          resultSet.addElement(lookupElement);
+          return !resultSet.isStopped();
+        }, (relevance, consumer) -> service.findSuggestionsForQueryPrefix(
+            yaml,
+            element,
+            finalAncestralKeys,
+            queryWithDotDelimitedPrefixes,
+            null,
+            maxSuggestions,
+            relevance,
+            consumer
+        ));
 
-    if (suggestions != null) {
-      suggestions.forEach(resultSet::addElement);
+    if (!found && ancestralKeys == null && !queryWithDotDelimitedPrefixes.contains(".")) {
+      // Nothing starts with the query, user might be typing words of the property instead (`poolSize`, `pool-size`)
+      List<LookupElement> textMatches =
+          service.findSuggestionsForText(yaml, queryWithDotDelimitedPrefixes, MAX_TEXT_SUGGESTIONS);
+      if (!textMatches.isEmpty()) {
+        // matches are not filtered by the lookup, lets search again as the user types further
+        resultSet.restartCompletionOnAnyPrefixChange();
+        textMatches.forEach(resultSet::addElement);
+      }
     }
   }
 
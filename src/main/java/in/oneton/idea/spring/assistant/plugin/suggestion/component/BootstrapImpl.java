@@ -3,10 +3,6 @@ package in.oneton.idea.spring.assistant.plugin.suggestion.component;
 import com.intellij.openapi.compiler.CompilationStatusListener;
 import com.intellij.openapi.compiler.CompileContext;
 import com.intellij.openapi.diagnostic.Logger;
-import com.intellij.openapi.progress.ProgressIndicator;
-import com.intellij.openapi.progress.ProgressManager;
-import com.intellij.openapi.progress.Task;
-import com.intellij.openapi.project.DumbService;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.startup.StartupActivity;
 import com.intellij.openapi.vfs.VirtualFileManager;
@@ -22,21 +18,9 @@ public class BootstrapImpl implements StartupActivity.Background {
 
   @Override
   public void runActivity(@NotNull Project project) {
-    ProgressManager.getInstance().run(
-        new Task.Backgroundable(project, "Index spring configuration metadata") {
-          @Override
-          public void run(@NotNull ProgressIndicator indicator) {
-            DumbService.getInstance(project).runReadActionInSmartMode(() -> {
-              debug(() -> log.debug("Project " + project.getName() + " is opened, indexing will start"));
-              try {
-                project.getService(ProjectSuggestionService.class).reindex();
-              } finally {
-                debug(() -> log.debug("Indexing complete for project " + project.getName()));
-              }
-            });
-          }
-        }
-    );
+    debug(() -> log.debug("Project " + project.getName() + " is opened, indexing will start"));
+    // Reindexing happens in the background, without waiting for the project to be smart. Types are resolved on first use
+    project.getService(ProjectSuggestionService.class).reindex();
 
     try {
       debug(() -> log.debug("Subscribing to compilation events for project " + project.getName()));
@@ -15,6 +15,7 @@ import com.intellij.util.DocumentUtil;
 import in.oneton.idea.spring.assistant.plugin.suggestion.OriginalNameProvider;
 import in.oneton.idea.spring.assistant.plugin.suggestion.Suggestion;
 import in.oneton.idea.spring.assistant.plugin.suggestion.SuggestionNodeType;
+import in.oneton.idea.spring.assistant.plugin.suggestion.service.SuggestionFrecencyService;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.yaml.YAMLElementGenerator;
@@ -40,6 +41,9 @@ import static java.util.Objects.requireNonNull;
 public class YamlKeyInsertHandler implements InsertHandler<LookupElement> {
   @Override
   public void handleInsert(final @NotNull InsertionContext context, final @NotNull LookupElement lookupElement) {
+    // lets remember what the user picked, so that it is ranked higher next time
+    context.getProject().getService(SuggestionFrecencyService.class)
+           .recordAccepted(((Suggestion) lookupElement.getObject()).getFullPath());
     if (!nextCharAfterSpacesAndQuotesIsColon(getStringAfterAutoCompletedValue(context))) {
       String existingIndentation = getExistingIndentation(context, lookupElement);
       Suggestion suggestion = (Suggestion) lookupElement.getObject();
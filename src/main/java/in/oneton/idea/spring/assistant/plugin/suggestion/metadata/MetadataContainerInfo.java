@@ -1,7 +1,6 @@
 package in.oneton.idea.spring.assistant.plugin.suggestion.metadata;
 
 import com.intellij.openapi.vfs.JarFileSystem;
-import com.intellij.openapi.vfs.VFileProperty;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.openapi.vfs.VirtualFileManager;
 import lombok.Builder;
@@ -19,7 +18,6 @@ import static java.util.Objects.requireNonNull;
 import static java.util.stream.Stream.of;
 
 //TODO refactor this to represent metadata file and module dependencies separately.
-//TODO exclude "jrt:" file urls (Java Runtime files shouldn't have metadata) to improve performance.
 @Getter
 @Builder
 @ToString
@@ -28,6 +26,8 @@ public class MetadataContainerInfo {
       "spring-configuration-metadata.json";
   public static final String ADDITIONAL_SPRING_CONFIGURATION_METADATA_JSON =
       "additional-spring-configuration-metadata.json";
+  private static final String META_INF = "META-INF";
+
   /**
    * Can point to archive/directory containing the metadata file
    */
@@ -41,14 +41,15 @@ public class MetadataContainerInfo {
    */
   private long marker;
 
-  public static Stream<String> getContainerArchiveOrFileRefs(VirtualFile fileContainer) {
+  public static Stream<String> getContainerArchiveOrFileRefs(VirtualFile fileContainer,
+      MetadataFileScanCache scanCache) {
     if (fileContainer.getFileType() == ARCHIVE) {
       return of(getContainerFile(fileContainer).getUrl());
     } else {
       VirtualFile metadataFile =
-          findMetadataFile(fileContainer, SPRING_CONFIGURATION_METADATA_JSON);
+          findMetadataFile(fileContainer, SPRING_CONFIGURATION_METADATA_JSON, scanCache);
       VirtualFile additionalMetadataFile =
-          findMetadataFile(fileContainer, ADDITIONAL_SPRING_CONFIGURATION_METADATA_JSON);
+          findMetadataFile(fileContainer, ADDITIONAL_SPRING_CONFIGURATION_METADATA_JSON, scanCache);
       return of(fileContainer, metadataFile, additionalMetadataFile)
           .filter(Objects::nonNull)
           .map(VirtualFile::getUrl);
@@ -63,28 +64,28 @@ public class MetadataContainerInfo {
     }
   }
 
-  private static VirtualFile findMetadataFile(VirtualFile root, String metadataFileName) {
-    if (!root.is(VFileProperty.SYMLINK)) {
-      //noinspection UnsafeVfsRecursion
-      for (VirtualFile child : root.getChildren()) {
-        if (child.getName().equals(metadataFileName)) {
-          return child;
-        }
-        VirtualFile matchedFile = findMetadataFile(child, metadataFileName);
-        if (matchedFile != null) {
-          return matchedFile;
-        }
-      }
+  /**
+   * As per spec, metadata files live at `META-INF/` of the container, so lets look there first.
+   * Only for directories (output of the project's own build), lets fall back to a bounded scan, whose result is cached
+   * till files are added/removed/renamed within the directory
+   */
+  @Nullable
+  private static VirtualFile findMetadataFile(VirtualFile root, String metadataFileName,
+      MetadataFileScanCache scanCache) {
+    VirtualFile metadataFile = root.findFileByRelativePath(META_INF + "/" + metadataFileName);
+    if (metadataFile != null || root.getFileType() == ARCHIVE || !root.isDirectory()) {
+      return metadataFile;
     }
-    return null;
+    return scanCache.findMetadataFile(root, metadataFileName);
   }
 
-  public static Collection<MetadataContainerInfo> newInstances(VirtualFile fileContainer) {
+  public static Collection<MetadataContainerInfo> newInstances(VirtualFile fileContainer,
+      MetadataFileScanCache scanCache) {
     Collection<MetadataContainerInfo> containerInfos = new ArrayList<>();
     VirtualFile containerFile = getContainerFile(fileContainer);
     boolean archive = fileContainer.getFileType() == ARCHIVE;
     MetadataContainerInfo containerInfo =
-        newInstance(fileContainer, containerFile, SPRING_CONFIGURATION_METADATA_JSON, archive);
+        newInstance(fileContainer, containerFile, SPRING_CONFIGURATION_METADATA_JSON, archive, scanCache);
     containerInfos.add(containerInfo);
     // spring-boot-configuration-processor will merge additional-spring-configuration-metadata.json into
     // spring-configuration-metadata.json file unless there is a spring-configuration-metadata.json file.
@@ -94,7 +95,8 @@ public class MetadataContainerInfo {
       // in classpath, intellij is not merging `spring-configuration-metadata.json` & the generated `additional-spring-configuration-metadata.json`.
       // So lets merge these two ourselves if root is not an archive
       MetadataContainerInfo additionalContainerInfo =
-          newInstance(fileContainer, containerFile, ADDITIONAL_SPRING_CONFIGURATION_METADATA_JSON, false);
+          newInstance(fileContainer, containerFile, ADDITIONAL_SPRING_CONFIGURATION_METADATA_JSON, false,
+              scanCache);
       if (additionalContainerInfo != null) {
         containerInfos.add(additionalContainerInfo);
       }
@@ -103,9 +105,10 @@ public class MetadataContainerInfo {
   }
 
   private static MetadataContainerInfo newInstance(VirtualFile fileContainer,
-                                                   VirtualFile containerFile, String metadataFileName, boolean archive) {
+                                                   VirtualFile containerFile, String metadataFileName, boolean archive,
+                                                   MetadataFileScanCache scanCache) {
     MetadataContainerInfoBuilder builder = MetadataContainerInfo.builder().archive(archive);
-    VirtualFile metadataFile = findMetadataFile(fileContainer, metadataFileName);
+    VirtualFile metadataFile = findMetadataFile(fileContainer, metadataFileName, scanCache);
     if (metadataFile != null) {
       // since build might auto generate the metadata file in the project, its better to rely on
       builder.fileUrl(metadataFile.getUrl())
@@ -131,4 +134,5 @@ public class MetadataContainerInfo {
     assert fileUrl != null;
     return VirtualFileManager.getInstance().findFileByUrl(fileUrl);
   }
+
 }
@@ -0,0 +1,114 @@
+package in.oneton.idea.spring.assistant.plugin.suggestion.metadata;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VFileProperty;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.NotNull;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A Project level cache of the results of scanning directories (output of the project's own build), which did not have
+ * metadata file where its expected to be.
+ * <p>
+ * A result stays valid as long as none of the directories visited while scanning got children added/removed/renamed,
+ * so changes elsewhere in the file system do not force a rescan. Results are dropped along with the project
+ */
+public class MetadataFileScanCache implements Disposable {
+
+  private static final int MAX_SCAN_DEPTH = 4;
+  private static final int MAX_FILES_TO_SCAN = 5000;
+
+  private final Map<String, ScanResult> rootAndFileNameToScanResult = new ConcurrentHashMap<>();
+
+  public static MetadataFileScanCache getInstance(@NotNull Project project) {
+    return project.getService(MetadataFileScanCache.class);
+  }
+
+  /**
+   * @param root             directory to scan
+   * @param metadataFileName name of the metadata file to look for
+   * @return metadata file within the first {@link #MAX_SCAN_DEPTH} levels of the root, null if there is none
+   */
+  @Nullable
+  VirtualFile findMetadataFile(VirtualFile root, String metadataFileName) {
+    String key = root.getUrl() + "!" + metadataFileName;
+    ScanResult scanResult = rootAndFileNameToScanResult.get(key);
+    if (scanResult == null || scanResult.isStale()) {
+      List<VirtualFile> visitedDirs = new ArrayList<>();
+      VirtualFile metadataFile =
+          scanForMetadataFile(root, metadataFileName, 0, new int[] {0}, visitedDirs);
+      scanResult = new ScanResult(metadataFile, visitedDirs);
+      rootAndFileNameToScanResult.put(key, scanResult);
+    }
+    return scanResult.metadataFile != null && scanResult.metadataFile.isValid() ?
+        scanResult.metadataFile :
+        null;
+  }
+
+  @Override
+  public void dispose() {
+    rootAndFileNameToScanResult.clear();
+  }
+
+  @Nullable
+  private static VirtualFile scanForMetadataFile(VirtualFile dir, String metadataFileName,
+      int depth, int[] numOfVisitedFiles, List<VirtualFile> visitedDirs) {
+    if (dir.is(VFileProperty.SYMLINK) || depth > MAX_SCAN_DEPTH) {
+      return null;
+    }
+    visitedDirs.add(dir);
+    //noinspection UnsafeVfsRecursion
+    for (VirtualFile child : dir.getChildren()) {
+      if (++numOfVisitedFiles[0] > MAX_FILES_TO_SCAN) {
+        return null;
+      }
+      if (child.getName().equals(metadataFileName)) {
+        return child;
+      }
+      if (child.isDirectory()) {
+        VirtualFile matchedFile = scanForMetadataFile(child, metadataFileName, depth + 1,
+            numOfVisitedFiles, visitedDirs);
+        if (matchedFile != null) {
+          return matchedFile;
+        }
+      }
+    }
+    return null;
+  }
+
+
+  private static class ScanResult {
+    @Nullable
+    private final VirtualFile metadataFile;
+    private final VirtualFile[] visitedDirs;
+    /**
+     * Modification count of each visited directory, which changes as its children are added/removed/renamed
+     */
+    private final long[] dirModificationCounts;
+
+    ScanResult(@Nullable VirtualFile metadataFile, List<VirtualFile> visitedDirs) {
+      this.metadataFile = metadataFile;
+      this.visitedDirs = visitedDirs.toArray(VirtualFile[]::new);
+      this.dirModificationCounts = new long[this.visitedDirs.length];
+      for (int i = 0; i < this.visitedDirs.length; i++) {
+        dirModificationCounts[i] = this.visitedDirs[i].getModificationCount();
+      }
+    }
+
+    boolean isStale() {
+      for (int i = 0; i < visitedDirs.length; i++) {
+        if (!visitedDirs[i].isValid()
+            || visitedDirs[i].getModificationCount() != dirModificationCounts[i]) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+}
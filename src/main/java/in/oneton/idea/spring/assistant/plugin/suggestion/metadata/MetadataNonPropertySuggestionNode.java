@@ -2,11 +2,10 @@ package in.oneton.idea.spring.assistant.plugin.suggestion.metadata;
 
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.module.Module;
-import com.intellij.psi.PsiType;
-import gnu.trove.THashMap;
-import gnu.trove.THashSet;
-import in.oneton.idea.spring.assistant.plugin.misc.PsiCustomUtil;
+import com.intellij.openapi.progress.ProgressManager;
+import in.oneton.idea.spring.assistant.plugin.misc.ChildTable;
 import in.oneton.idea.spring.assistant.plugin.suggestion.Suggestion;
+import in.oneton.idea.spring.assistant.plugin.suggestion.SuggestionConsumer;
 import in.oneton.idea.spring.assistant.plugin.suggestion.SuggestionNode;
 import in.oneton.idea.spring.assistant.plugin.suggestion.SuggestionNodeType;
 import in.oneton.idea.spring.assistant.plugin.suggestion.completion.FileType;
@@ -19,24 +18,18 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
-import org.apache.commons.collections4.Trie;
-import org.apache.commons.collections4.trie.PatriciaTrie;
 import org.jetbrains.annotations.NotNull;
 
 import javax.annotation.Nullable;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
-import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
 import static in.oneton.idea.spring.assistant.plugin.misc.GenericUtil.newListWithMembers;
-import static in.oneton.idea.spring.assistant.plugin.misc.GenericUtil.newSingleElementSortedSet;
-import static in.oneton.idea.spring.assistant.plugin.misc.PsiCustomUtil.safeGetValidType;
 import static java.util.Collections.unmodifiableList;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toSet;
@@ -134,34 +127,30 @@ public class MetadataNonPropertySuggestionNode extends MetadataSuggestionNode {
     @Nullable
     private MetadataNonPropertySuggestionNode parent;
     /**
-     * Set of sources these suggestions belong to
+     * Ids of the sources these suggestions belong to
      */
-    private Set<String> belongsTo;
+    private BitSet belongsTo;
     /**
-     * Child name -> child node. Aids in quick lookup. NOTE: All keys are sanitized
+     * Child name -> child node for the nodes at next level, aids in both quick lookup & prefix based searching. NOTE: All keys are sanitized
+     * <p>
+     * Table is immutable, additions/removals during indexing replace the table, so that searches always see a consistent set of children
      */
     @Nullable
-    private Map<String, MetadataSuggestionNode> childLookup;
-
-    /**
-     * Child trie for the nodes at next level, aids in prefix based searching. NOTE: All keys are sanitized
-     */
-    @Nullable
-    private Trie<String, MetadataSuggestionNode> childrenTrie;
+    private volatile ChildTable<MetadataSuggestionNode> children;
 
     /**
      * @param originalName name that is not sanitised
      * @param parent       parent MetadataNonPropertySuggestionNode node
-     * @param belongsTo    file/jar containing this property
+     * @param belongsTo    id of the file/jar containing this property
      * @return newly constructed group node
      */
     public static MetadataNonPropertySuggestionNode newInstance(String originalName,
-                                                                @Nullable MetadataNonPropertySuggestionNode parent, String belongsTo) {
+                                                                @Nullable MetadataNonPropertySuggestionNode parent, int belongsTo) {
         MetadataNonPropertySuggestionNodeBuilder builder =
                 MetadataNonPropertySuggestionNode.builder().name(SuggestionNode.sanitise(originalName))
                         .originalName(originalName).parent(parent);
-        Set<String> belongsToSet = new THashSet<>();
-        belongsToSet.add(belongsTo);
+        BitSet belongsToSet = new BitSet();
+        belongsToSet.set(belongsTo);
         builder.belongsTo(belongsToSet);
         return builder.build();
     }
@@ -178,9 +167,9 @@ public class MetadataNonPropertySuggestionNode extends MetadataSuggestionNode {
             boolean lastSegment = pathSegmentStartIndex == (pathSegments.length - 1);
             String pathSegment = pathSegments[pathSegmentStartIndex];
             if (hasChildren()) {
-                assert childLookup != null;
-                if (childLookup.containsKey(pathSegment)) {
-                    MetadataSuggestionNode child = childLookup.get(pathSegment);
+                assert children != null;
+                MetadataSuggestionNode child = children.get(pathSegment);
+                if (child != null) {
                     if (lastSegment) {
                         deepestMatch = child;
                     } else {
@@ -209,9 +198,9 @@ public class MetadataNonPropertySuggestionNode extends MetadataSuggestionNode {
             String currentPathSegment = pathSegments[pathSegmentStartIndex];
             boolean lastSegment = pathSegmentStartIndex == (pathSegments.length - 1);
             if (hasChildren()) {
-                assert childLookup != null;
-                if (childLookup.containsKey(currentPathSegment)) {
-                    MetadataSuggestionNode child = childLookup.get(currentPathSegment);
+                assert children != null;
+                MetadataSuggestionNode child = children.get(currentPathSegment);
+                if (child != null) {
                     matchesRootTillMe.add(child);
                     if (lastSegment) {
                         deepestMatch = matchesRootTillMe;
@@ -236,15 +225,15 @@ public class MetadataNonPropertySuggestionNode extends MetadataSuggestionNode {
         return deepestMatch;
     }
 
-    public void addChildren(Module module, SpringConfigurationMetadataGroup group,
-                            String[] rawPathSegments, int startIndex, String belongsTo) {
+    public void addChildren(SpringConfigurationMetadataGroup group, String[] rawPathSegments, int startIndex,
+                            int belongsTo) {
         MetadataNonPropertySuggestionNode groupNode =
                 addChildren(rawPathSegments, startIndex, rawPathSegments.length - 1, belongsTo);
-        groupNode.setGroup(module, group);
+        groupNode.setGroup(group);
     }
 
     public void addChildren(SpringConfigurationMetadataProperty property, String[] rawPathSegments,
-                            int startIndex, String belongsTo) {
+                            int startIndex, int belongsTo) {
         MetadataNonPropertySuggestionNode parentNode;
         // since last property is the actual property, lets only add children only till last but one
         int endIndexIncl = rawPathSegments.length - 2;
@@ -263,38 +252,48 @@ public class MetadataNonPropertySuggestionNode extends MetadataSuggestionNode {
     public SortedSet<Suggestion> findKeySuggestionsForQueryPrefix(Module module, FileType fileType,
                                                                   List<SuggestionNode> matchesRootTillMe, int numOfAncestors, String[] querySegmentPrefixes,
                                                                   int querySegmentPrefixStartIndex, @Nullable Set<String> siblingsToExclude) {
+        SortedSet<Suggestion> suggestions = new TreeSet<>();
+        if (findKeySuggestionsForQueryPrefix(module, fileType, matchesRootTillMe, numOfAncestors, querySegmentPrefixes,
+                querySegmentPrefixStartIndex, siblingsToExclude, suggestions::add)) {
+            return suggestions;
+        }
+        return null;
+    }
+
+    @Override
+    public boolean findKeySuggestionsForQueryPrefix(Module module, FileType fileType,
+                                                    List<SuggestionNode> matchesRootTillMe, int numOfAncestors, String[] querySegmentPrefixes,
+                                                    int querySegmentPrefixStartIndex, @Nullable Set<String> siblingsToExclude,
+                                                    SuggestionConsumer consumer) {
         boolean lookingForConcreteNode = querySegmentPrefixStartIndex >= querySegmentPrefixes.length;
         if (lookingForConcreteNode) {
             if (isGroup()) {
                 // If we have only one child, lets send the child value directly instead of this node. This way user does not need trigger suggestion for level, esp. when we know there will is only be one child
                 if (hasOnlyOneChild(module)) {
-                    assert childrenTrie != null;
+                    assert children != null;
                     return addChildToMatchesAndSearchInNextLevel(module, fileType, matchesRootTillMe,
                             numOfAncestors, querySegmentPrefixes, querySegmentPrefixStartIndex,
-                            childrenTrie.values());
+                            children.values(), consumer);
                 } else { // either there are no children/multiple children are present. Lets return suggestions
                     assert group != null;
-                    return newSingleElementSortedSet(
-                            group.newSuggestion(fileType, matchesRootTillMe, numOfAncestors));
+                    consumer.accept(group.newSuggestion(module, fileType, matchesRootTillMe, numOfAncestors));
+                    return true;
                 }
             } else { // intermediate node, lets get all next level groups & properties
-                assert childrenTrie != null;
+                assert children != null;
                 return addChildToMatchesAndSearchInNextLevel(module, fileType, matchesRootTillMe,
                         numOfAncestors, querySegmentPrefixes, querySegmentPrefixStartIndex,
-                        childrenTrie.values());
+                        children.values(), consumer);
             }
         } else {
-            if (hasChildren()) {
-                assert childrenTrie != null;
-                assert childLookup != null;
+            ChildTable<MetadataSuggestionNode> children = this.children;
+            if (children != null && !children.isEmpty()) {
                 String querySegmentPrefix = querySegmentPrefixes[querySegmentPrefixStartIndex];
-                SortedMap<String, MetadataSuggestionNode> sortedPrefixToMetadataNode =
-                        childrenTrie.prefixMap(querySegmentPrefix);
-                Collection<MetadataSuggestionNode> matchedChildren = sortedPrefixToMetadataNode.values();
+                Collection<MetadataSuggestionNode> matchedChildren = children.prefixValues(querySegmentPrefix);
 
                 Set<MetadataSuggestionNode> exclusionMembers = null;
                 if (siblingsToExclude != null) {
-                    exclusionMembers = siblingsToExclude.stream().map(childLookup::get).collect(toSet());
+                    exclusionMembers = siblingsToExclude.stream().map(children::get).collect(toSet());
                 }
 
                 if (!isEmpty(exclusionMembers) && !isEmpty(matchedChildren)) {
@@ -304,35 +303,26 @@ public class MetadataNonPropertySuggestionNode extends MetadataSuggestionNode {
                                     .collect(toList());
                 }
 
-                if (matchedChildren.size() != 0) {
-                    SortedSet<Suggestion> suggestions =
-                            addChildToMatchesAndSearchInNextLevel(module, fileType, matchesRootTillMe,
-                                    numOfAncestors, querySegmentPrefixes, querySegmentPrefixStartIndex + 1,
-                                    matchedChildren);
-                    // If the leaf is deprecated (management.context-path), it will shadow deeper match (management.server.servlet.context-path)
-                    if (suggestions != null) {
-                        return suggestions;
-                    } else {
-                        // lets search in the next level
-                        return addChildToMatchesAndSearchInNextLevel(module, fileType, matchesRootTillMe,
-                                numOfAncestors, querySegmentPrefixes, querySegmentPrefixStartIndex,
-                                computeChildrenToIterateOver(childLookup, exclusionMembers));
-                    }
-                } else {
-                    // lets search in the next level
-                    return addChildToMatchesAndSearchInNextLevel(module, fileType, matchesRootTillMe,
-                            numOfAncestors, querySegmentPrefixes, querySegmentPrefixStartIndex,
-                            computeChildrenToIterateOver(childLookup, exclusionMembers));
+                // If the leaf is deprecated (management.context-path), it will shadow deeper match (management.server.servlet.context-path)
+                if (matchedChildren.size() != 0 && addChildToMatchesAndSearchInNextLevel(module, fileType,
+                        matchesRootTillMe, numOfAncestors, querySegmentPrefixes, querySegmentPrefixStartIndex + 1,
+                        matchedChildren, consumer)) {
+                    return true;
                 }
+                // lets search in the next level
+                return addChildToMatchesAndSearchInNextLevel(module, fileType, matchesRootTillMe,
+                        numOfAncestors, querySegmentPrefixes, querySegmentPrefixStartIndex,
+                        computeChildrenToIterateOver(children, exclusionMembers), consumer);
             }
-            return null;
+            return false;
         }
     }
 
     @Override
     protected boolean hasOnlyOneChild(Module module) {
-        return childrenTrie != null && childrenTrie.size() == 1;
-        //     && childrenTrie.values().stream()
+        ChildTable<MetadataSuggestionNode> children = this.children;
+        return children != null && children.size() == 1;
+        //     && children.values().stream()
         //        .allMatch(MetadataSuggestionNode::hasOnlyOneChild)
     }
 
@@ -341,8 +331,9 @@ public class MetadataNonPropertySuggestionNode extends MetadataSuggestionNode {
         StringBuilder builder = new StringBuilder(originalName)
                 .append(isRoot() ? "(root + group)" : (isGroup() ? "(group)" : "(intermediate)"))
                 .append("\n");
-        if (childLookup != null) {
-            childLookup.forEach(
+        ChildTable<MetadataSuggestionNode> children = this.children;
+        if (children != null) {
+            children.forEach(
                     (k, v) -> builder.append(v.toTree().trim().replaceAll("^", "  ").replaceAll("\n", "\n  "))
                             .append("\n"));
         }
@@ -350,36 +341,49 @@ public class MetadataNonPropertySuggestionNode extends MetadataSuggestionNode {
     }
 
     /**
-     * @param containerPath Represents path to the metadata file container
-     * @return true if no children left & this item does not belong to any other source
+     * Detaches the given child from this node
+     *
+     * @param child child that no longer belongs to any source
      */
+    public synchronized void removeChild(MetadataSuggestionNode child) {
+        if (hasChildren()) {
+            assert children != null;
+            if (children.get(child.getName()) == child) {
+                children = children.without(child.getName());
+            }
+            if (!hasChildren()) {
+                children = null;
+            }
+        }
+    }
+
     @Override
-    public synchronized boolean removeRefCascadeDown(String containerPath) {
-        belongsTo.remove(containerPath);
-        // If the current node & all its children belong to a single file, lets remove the whole tree
-        if (belongsTo.size() == 0) {
-            return true;
+    public MetadataNonPropertySuggestionNode deepCopy(@Nullable MetadataNonPropertySuggestionNode parent) {
+        MetadataNonPropertySuggestionNode copy = MetadataNonPropertySuggestionNode.builder().name(name)
+                .originalName(originalName).group(group).parent(parent)
+                .belongsTo((BitSet) belongsTo.clone()).build();
+        ChildTable<MetadataSuggestionNode> children = this.children;
+        if (children != null) {
+            copy.children = children.mapValues(child -> child.deepCopy(copy));
         }
+        return copy;
+    }
 
-        if (hasChildren()) {
-            assert childLookup != null;
-            assert childrenTrie != null;
-            Iterator<MetadataSuggestionNode> iterator = childrenTrie.values().iterator();
-            while (iterator.hasNext()) {
-                MetadataSuggestionNode child = iterator.next();
-                boolean canRemoveReference = child.removeRefCascadeDown(containerPath);
-                if (canRemoveReference) {
-                    iterator.remove();
-                    childLookup.remove(child.getName());
-                    childrenTrie.remove(child.getName());
+    @Override
+    public boolean removeRefCascadeTillLeaves(int containerId) {
+        if (!belongsTo.get(containerId)) {
+            return false;
+        }
+        ChildTable<MetadataSuggestionNode> children = this.children;
+        if (children != null) {
+            // table is immutable, so detaching children while iterating over it is safe
+            for (MetadataSuggestionNode child : children.values()) {
+                if (child.removeRefCascadeTillLeaves(containerId)) {
+                    removeChild(child);
                 }
             }
-            if (!hasChildren()) {
-                childLookup = null;
-                childrenTrie = null;
-            }
         }
-        return false;
+        return removeRef(containerId);
     }
 
     @Override
@@ -438,7 +442,8 @@ public class MetadataNonPropertySuggestionNode extends MetadataSuggestionNode {
     }
 
     private boolean hasChildren() {
-        return childrenTrie != null && childrenTrie.size() != 0;
+        ChildTable<MetadataSuggestionNode> children = this.children;
+        return children != null && !children.isEmpty();
     }
 
     @NotNull
@@ -446,79 +451,65 @@ public class MetadataNonPropertySuggestionNode extends MetadataSuggestionNode {
     public SuggestionNodeType getSuggestionNodeType(Module module) {
         if (isGroup()) {
             assert group != null;
-            return group.getNodeType();
+            return group.getNodeType(module);
         } else {
             return SuggestionNodeType.UNDEFINED;
         }
     }
 
-    public void setGroup(Module module, SpringConfigurationMetadataGroup group) {
-        updateGroupType(module, group);
+    /**
+     * Type of the group is resolved on first use, as groups are indexed irrespective of whether the IDE is in dumb mode
+     */
+    public void setGroup(SpringConfigurationMetadataGroup group) {
         this.group = group;
     }
 
     @Override
     public void refreshClassProxy(Module module) {
-        updateGroupType(module, group);
+        if (group != null) {
+            group.refreshNodeType(module);
+        }
         if (hasChildren()) {
-            assert childLookup != null;
-            childLookup.values().forEach(child -> child.refreshClassProxy(module));
+            assert children != null;
+            children.values().forEach(child -> child.refreshClassProxy(module));
         }
     }
 
     private Collection<MetadataSuggestionNode> computeChildrenToIterateOver(
-            @NotNull Map<String, MetadataSuggestionNode> childLookup,
+            @NotNull ChildTable<MetadataSuggestionNode> children,
             Set<MetadataSuggestionNode> exclusionMembers) {
         Collection<MetadataSuggestionNode> childrenToIterateOver;
         if (!isEmpty(exclusionMembers)) {
             childrenToIterateOver =
-                    childLookup.values().stream().filter(value -> !exclusionMembers.contains(value))
+                    children.values().stream().filter(value -> !exclusionMembers.contains(value))
                             .collect(toList());
         } else {
-            childrenToIterateOver = childLookup.values();
+            childrenToIterateOver = children.values();
         }
         return childrenToIterateOver;
     }
 
     private synchronized void addProperty(SpringConfigurationMetadataProperty property, String originalName,
-                                          String belongsTo) {
+                                          int belongsTo) {
         addRefCascadeTillRoot(belongsTo);
-        if (!hasChildren()) {
-            childLookup = new THashMap<>();
-            childrenTrie = new PatriciaTrie<>();
-        }
-
-        assert childLookup != null;
-        assert childrenTrie != null;
         MetadataSuggestionNode childNode =
                 MetadataPropertySuggestionNode.newInstance(originalName, property, this, belongsTo);
-
-        String name = SuggestionNode.sanitise(originalName);
-        childLookup.put(name, childNode);
-        childrenTrie.put(name, childNode);
+        putChild(SuggestionNode.sanitise(originalName), childNode);
     }
 
     private synchronized MetadataNonPropertySuggestionNode addChildren(String[] rawPathSegments, int startIndex,
-                                                                       int endIndexIncl, String belongsTo) {
+                                                                       int endIndexIncl, int belongsTo) {
         addRefCascadeTillRoot(belongsTo);
-        if (!hasChildren()) {
-            childLookup = new THashMap<>();
-            childrenTrie = new PatriciaTrie<>();
-        }
-
-        assert childLookup != null;
-        assert childrenTrie != null;
 
         String rawPathSegment = rawPathSegments[startIndex];
         String pathSegment = SuggestionNode.sanitise(rawPathSegment);
-        MetadataNonPropertySuggestionNode childNode =
-                (MetadataNonPropertySuggestionNode) childLookup.get(pathSegment);
+        MetadataNonPropertySuggestionNode childNode = children != null ?
+                (MetadataNonPropertySuggestionNode) children.get(pathSegment) :
+                null;
         if (childNode == null) {
             childNode = MetadataNonPropertySuggestionNode.newInstance(rawPathSegment, this, belongsTo);
             childNode.setParent(this);
-
-            childLookup.put(pathSegment, childNode);
-            childrenTrie.put(pathSegment, childNode);
+            putChild(pathSegment, childNode);
         }
 
         // If this is the last segment, lets set group
@@ -529,37 +520,27 @@ public class MetadataNonPropertySuggestionNode extends MetadataSuggestionNode {
         }
     }
 
-    private SortedSet<Suggestion> addChildToMatchesAndSearchInNextLevel(Module module,
-                                                                        FileType fileType, List<SuggestionNode> matchesRootTillParentNode, int numOfAncestors,
-                                                                        String[] querySegmentPrefixes, int querySegmentPrefixStartIndex,
-                                                                        Collection<MetadataSuggestionNode> childNodes) {
-        SortedSet<Suggestion> suggestions = null;
-        for (MetadataSuggestionNode child : childNodes) {
-            List<SuggestionNode> matchesRootTillChild =
-                    unmodifiableList(newListWithMembers(matchesRootTillParentNode, child));
-            Set<Suggestion> matchedSuggestions = child
-                    .findKeySuggestionsForQueryPrefix(module, fileType, matchesRootTillChild, numOfAncestors,
-                            querySegmentPrefixes, querySegmentPrefixStartIndex, null);
-            if (matchedSuggestions != null) {
-                if (suggestions == null) {
-                    suggestions = new TreeSet<>();
-                }
-                suggestions.addAll(matchedSuggestions);
-            }
-        }
-        return suggestions;
+    private void putChild(String name, MetadataSuggestionNode childNode) {
+        ChildTable<MetadataSuggestionNode> current = children != null ? children : ChildTable.empty();
+        children = current.with(name, childNode);
     }
 
-    private void updateGroupType(Module module, SpringConfigurationMetadataGroup group) {
-        if (group != null && group.getClassName() != null) {
-            group.refreshDelegate(module);
-            PsiType groupPsiType = safeGetValidType(module, group.getClassName());
-            if (groupPsiType != null) {
-                group.setNodeType(PsiCustomUtil.getSuggestionNodeType(groupPsiType));
-            } else {
-                group.setNodeType(SuggestionNodeType.UNKNOWN_CLASS);
+    private boolean addChildToMatchesAndSearchInNextLevel(Module module,
+                                                          FileType fileType, List<SuggestionNode> matchesRootTillParentNode, int numOfAncestors,
+                                                          String[] querySegmentPrefixes, int querySegmentPrefixStartIndex,
+                                                          Collection<MetadataSuggestionNode> childNodes, SuggestionConsumer consumer) {
+        boolean found = false;
+        for (MetadataSuggestionNode child : childNodes) {
+            if (consumer.isStopped()) {
+                break;
             }
+            ProgressManager.checkCanceled();
+            List<SuggestionNode> matchesRootTillChild =
+                    unmodifiableList(newListWithMembers(matchesRootTillParentNode, child));
+            found |= child.findKeySuggestionsForQueryPrefix(module, fileType, matchesRootTillChild, numOfAncestors,
+                    querySegmentPrefixes, querySegmentPrefixStartIndex, null, consumer);
         }
+        return found;
     }
 
 }
@@ -1,7 +1,6 @@
 package in.oneton.idea.spring.assistant.plugin.suggestion.metadata;
 
 import com.intellij.openapi.module.Module;
-import gnu.trove.THashSet;
 import in.oneton.idea.spring.assistant.plugin.suggestion.Suggestion;
 import in.oneton.idea.spring.assistant.plugin.suggestion.SuggestionNode;
 import in.oneton.idea.spring.assistant.plugin.suggestion.SuggestionNodeType;
@@ -17,6 +16,7 @@ import lombok.ToString;
 import org.jetbrains.annotations.NotNull;
 
 import javax.annotation.Nullable;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Set;
 import java.util.SortedSet;
@@ -50,9 +50,9 @@ public class MetadataPropertySuggestionNode extends MetadataSuggestionNode {
   @Nullable
   private MetadataNonPropertySuggestionNode parent;
   /**
-   * Set of sources these suggestions belong to
+   * Ids of the sources these suggestions belong to
    */
-  private Set<String> belongsTo;
+  private BitSet belongsTo;
   // TODO: Make sure that this will be part of search only if type & sourceType are part of the class path
   private SpringConfigurationMetadataProperty property;
 
@@ -60,14 +60,14 @@ public class MetadataPropertySuggestionNode extends MetadataSuggestionNode {
    * @param originalName name that is not sanitised
    * @param property     property to associate
    * @param parent       parent MetadataNonPropertySuggestionNode node
-   * @param belongsTo    file/jar containing this property
+   * @param belongsTo    id of the file/jar containing this property
    * @return newly constructed property node
    */
   public static MetadataPropertySuggestionNode newInstance(String originalName,
       @NotNull SpringConfigurationMetadataProperty property,
-      @Nullable MetadataNonPropertySuggestionNode parent, String belongsTo) {
-    Set<String> belongsToSet = new THashSet<>();
-    belongsToSet.add(belongsTo);
+      @Nullable MetadataNonPropertySuggestionNode parent, int belongsTo) {
+    BitSet belongsToSet = new BitSet();
+    belongsToSet.set(belongsTo);
     return builder().name(sanitise(originalName))
                     .originalName(originalName)
                     .property(property)
@@ -219,10 +219,13 @@ public class MetadataPropertySuggestionNode extends MetadataSuggestionNode {
   }
 
   @Override
-  public boolean removeRefCascadeDown(String containerPath) {
-    belongsTo.remove(containerPath);
-    // If the current node & all its children belong to a single file, lets remove the whole tree
-    return belongsTo.size() == 0;
+  public MetadataPropertySuggestionNode deepCopy(@Nullable MetadataNonPropertySuggestionNode parent) {
+    return builder().name(name)
+                    .originalName(originalName)
+                    .property(property)
+                    .parent(parent)
+                    .belongsTo((BitSet) belongsTo.clone())
+                    .build();
   }
 
   @Override
@@ -8,8 +8,8 @@ import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 
 import javax.annotation.Nullable;
+import java.util.BitSet;
 import java.util.List;
-import java.util.Set;
 import java.util.SortedSet;
 import java.util.Stack;
 
@@ -45,24 +45,53 @@ public abstract class MetadataSuggestionNode implements SuggestionNode {
         return findValueSuggestionsForPrefix(module, fileType, matchesRootTillMe, prefix, null);
     }
 
-    public void addRefCascadeTillRoot(String containerPath) {
+    public void addRefCascadeTillRoot(int containerId) {
         MetadataSuggestionNode node = this;
         do {
-            if (node.getBelongsTo().contains(containerPath)) {
+            if (node.getBelongsTo().get(containerId)) {
                 break;
             }
-            node.getBelongsTo().add(containerPath);
+            node.getBelongsTo().set(containerId);
             node = node.getParent();
-        } while (node != null && !node.isRoot());
+        } while (node != null);
     }
 
-    public abstract Set<String> getBelongsTo();
+    /**
+     * @return ids of the metadata file containers this node belongs to
+     */
+    public abstract BitSet getBelongsTo();
+
+    /**
+     * Removes reference to the container from this node only. Since references cascade till root,
+     * a node that no longer belongs to any source cannot have any descendants that do
+     *
+     * @param containerId Represents id of the metadata file container
+     * @return true if this item does not belong to any other source & hence can be detached from its parent
+     */
+    public boolean removeRef(int containerId) {
+        getBelongsTo().clear(containerId);
+        return getBelongsTo().isEmpty();
+    }
 
     /**
-     * @param containerPath Represents path to the metadata file container
-     * @return true if no children left & this item does not belong to any other source
+     * Removes reference to the container from this node & its descendants, detaching the descendants that no longer belong to any source.
+     * Since references cascade till root, descendants of a node that does not belong to the container are left alone
+     *
+     * @param containerId Represents id of the metadata file container
+     * @return true if this item does not belong to any other source & hence can be detached from its parent
+     */
+    public boolean removeRefCascadeTillLeaves(int containerId) {
+        return getBelongsTo().get(containerId) && removeRef(containerId);
+    }
+
+    /**
+     * Copies the subtree rooted at this node, so that it can be modified without affecting searches on the original subtree.
+     * Group/property metadata is shared between the original & the copy
+     *
+     * @param parent parent of the copy, null for roots
+     * @return copy of this node
      */
-    public abstract boolean removeRefCascadeDown(String containerPath);
+    public abstract MetadataSuggestionNode deepCopy(@Nullable MetadataNonPropertySuggestionNode parent);
 
     /**
      * During reindexing lets make sure that we refresh references to proxies so that subsequent searches would be faster
@@ -71,14 +100,14 @@ public abstract class MetadataSuggestionNode implements SuggestionNode {
      */
     public abstract void refreshClassProxy(Module module);
 
-    protected abstract String getName();
+    public abstract String getName();
 
     @Override
     @NotNull
     public abstract String getOriginalName();
 
     @Nullable
-    protected abstract MetadataNonPropertySuggestionNode getParent();
+    public abstract MetadataNonPropertySuggestionNode getParent();
 
     protected abstract boolean isRoot();
 
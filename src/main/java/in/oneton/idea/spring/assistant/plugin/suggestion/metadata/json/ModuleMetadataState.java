@@ -0,0 +1,32 @@
+package in.oneton.idea.spring.assistant.plugin.suggestion.metadata.json;
+
+import com.intellij.openapi.module.Module;
+import com.intellij.util.containers.CollectionFactory;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * A Module level service which holds the module specific state (class backing the property/group & its node type)
+ * of parsed metadata.
+ * <p>
+ * Parsed metadata is shared by all modules that depend on the same container, where as classes are resolved against
+ * the classpath of each module. Keeping this state here (rather than on per module copies of the metadata) lets
+ * modules share properties & groups, & drops the state along with the module.
+ * Entries are weakly keyed by identity, so state of metadata that is no longer referred is reclaimed as well
+ */
+public class ModuleMetadataState {
+
+  private final Map<Object, Object> metadataToState =
+      CollectionFactory.createConcurrentWeakIdentityMap();
+
+  public static ModuleMetadataState getInstance(@NotNull Module module) {
+    return module.getService(ModuleMetadataState.class);
+  }
+
+  @SuppressWarnings("unchecked")
+  <T> T stateOf(Object metadata, Supplier<T> newState) {
+    return (T) metadataToState.computeIfAbsent(metadata, key -> newState.get());
+  }
+}
@@ -1,6 +1,5 @@
 package in.oneton.idea.spring.assistant.plugin.suggestion.metadata.json;
 
-import com.google.gson.annotations.SerializedName;
 import com.intellij.codeInsight.documentation.DocumentationManagerUtil;
 import com.intellij.lang.documentation.DocumentationProvider;
 import com.intellij.openapi.module.Module;
@@ -9,6 +8,7 @@ import com.intellij.psi.PsiType;
 import com.intellij.psi.util.PsiTypesUtil;
 import com.tiamaes.cloud.assistant.idea.plugin.DocumentationManager;
 import in.oneton.idea.spring.assistant.plugin.misc.GenericUtil;
+import in.oneton.idea.spring.assistant.plugin.misc.PsiCustomUtil;
 import in.oneton.idea.spring.assistant.plugin.suggestion.Suggestion;
 import in.oneton.idea.spring.assistant.plugin.suggestion.SuggestionNode;
 import in.oneton.idea.spring.assistant.plugin.suggestion.SuggestionNodeType;
@@ -47,7 +47,6 @@ public class SpringConfigurationMetadataGroup {
 
   private String name;
   @Nullable
-  @SerializedName("type")
   private String className;
   @Nullable
   private String description;
@@ -55,15 +54,6 @@ public class SpringConfigurationMetadataGroup {
   private String sourceType;
   @Nullable
   private String sourceMethod;
-  @NotNull
-  private SuggestionNodeType nodeType = SuggestionNodeType.UNDEFINED;
-  /**
-   * Responsible for all suggestion queries that needs to be matched against a class
-   */
-  @Nullable
-  private MetadataProxy delegate;
-
-  private boolean delegateCreationAttempted;
 
   public String getDocumentation(Module module, String nodeNavigationPathDotDelimited) {
     StringBuilder doc = new StringBuilder();
@@ -135,35 +125,60 @@ public class SpringConfigurationMetadataGroup {
     return doc.toString();
   }
 
-  public Suggestion newSuggestion(FileType fileType, List<SuggestionNode> matchesRootTillMe,
-      int numOfAncestors) {
+  public Suggestion newSuggestion(Module module, FileType fileType,
+      List<SuggestionNode> matchesRootTillMe, int numOfAncestors) {
     return Suggestion.builder().suggestionToDisplay(
                          GenericUtil.dotDelimitedOriginalNames(matchesRootTillMe, numOfAncestors))
                      .description(description).shortType(shortenedType(className)).numOfAncestors(numOfAncestors)
-                     .matchesTopFirst(matchesRootTillMe).icon(nodeType.getIcon()).fileType(fileType).build();
+                     .matchesTopFirst(matchesRootTillMe).icon(getNodeType(module).getIcon()).fileType(fileType).build();
   }
 
+  /**
+   * Group is shared by all modules that depend on the same container, type of the group is resolved (per module) on first use
+   */
+  @NotNull
+  public SuggestionNodeType getNodeType(Module module) {
+    if (className == null) {
+      return SuggestionNodeType.UNDEFINED;
+    }
+    ModuleState state = stateOf(module);
+    if (!state.nodeTypeResolved) {
+      refreshNodeType(module);
+    }
+    return state.nodeType;
+  }
+
+  public void refreshNodeType(Module module) {
+    if (className != null) {
+      refreshDelegate(module);
+      ModuleState state = stateOf(module);
+      PsiType type = getPsiType(module);
+      state.nodeType = type != null ? PsiCustomUtil.getSuggestionNodeType(type) : UNKNOWN_CLASS;
+      state.nodeTypeResolved = true;
+    }
+  }
 
   public void refreshDelegate(Module module) {
     if (className != null) {
+      ModuleState state = stateOf(module);
       // Lets update the delegate information only if anything has changed from last time we saw this
       PsiType type = getPsiType(module);
       boolean validTypeExists = type != null;
       // In the previous refresh, class could not be found. Now class is available in the classpath
       if (validTypeExists) {
-        if (delegate == null) {
-          delegate = newMetadataProxy(module, type);
+        if (state.delegate == null) {
+          state.delegate = newMetadataProxy(module, type);
           // lets force the nodeType to recalculated
-          nodeType = null;
+          state.nodeTypeResolved = false;
         }
       }
       // In the previous refresh, class was available in classpath. Now it is no longer available
-      if (!validTypeExists && delegate != null) {
-        delegate = null;
-        nodeType = UNKNOWN_CLASS;
+      if (!validTypeExists && state.delegate != null) {
+        state.delegate = null;
+        state.nodeType = UNKNOWN_CLASS;
       }
+      state.delegateCreationAttempted = true;
     }
-    delegateCreationAttempted = true;
   }
 
 
@@ -176,9 +191,33 @@ public class SpringConfigurationMetadataGroup {
 
   @Nullable
   public MetadataProxy getDelegate(Module module) {
-    if (!delegateCreationAttempted) {
+    if (className == null) {
+      return null;
+    }
+    ModuleState state = stateOf(module);
+    if (!state.delegateCreationAttempted) {
       refreshDelegate(module);
     }
-    return delegate;
+    return state.delegate;
+  }
+
+  private ModuleState stateOf(Module module) {
+    return ModuleMetadataState.getInstance(module).stateOf(this, ModuleState::new);
+  }
+
+
+  /**
+   * State of the group that depends on the classpath of the module
+   */
+  private static class ModuleState {
+    @NotNull
+    private SuggestionNodeType nodeType = SuggestionNodeType.UNDEFINED;
+    /**
+     * Responsible for all suggestion queries that needs to be matched against a class
+     */
+    @Nullable
+    private MetadataProxy delegate;
+    private boolean delegateCreationAttempted;
+    private boolean nodeTypeResolved;
   }
 }
@@ -1,11 +1,10 @@
 package in.oneton.idea.spring.assistant.plugin.suggestion.metadata.json;
 
 import gnu.trove.THashMap;
+import in.oneton.idea.spring.assistant.plugin.misc.ChildTable;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
-import org.apache.commons.collections4.Trie;
-import org.apache.commons.collections4.trie.PatriciaTrie;
 
 import javax.annotation.Nullable;
 import java.util.Collection;
@@ -21,7 +20,7 @@ import static java.util.Objects.requireNonNull;
  * Refer to https://docs.spring.io/spring-boot/docs/2.0.0.M6/reference/htmlsingle/#configuration-metadata-hints-attributes
  */
 @EqualsAndHashCode(of = "name")
-public class SpringConfigurationMetadataHint implements GsonPostProcessable {
+public class SpringConfigurationMetadataHint {
   private static final Pattern KEY_REGEX_PATTERN_FOR_MAP = Pattern.compile("\\.keys$");
   private static final Pattern VALUE_REGEX_PATTERN_FOR_MAP = Pattern.compile("\\.values$");
 
@@ -29,16 +28,19 @@ public class SpringConfigurationMetadataHint implements GsonPostProcessable {
   @Getter
   private String name;
   @Setter
+  @Getter
   @Nullable
   private SpringConfigurationMetadataHintValue[] values;
   @Setter
+  @Getter
   @Nullable
   private SpringConfigurationMetadataValueProvider[] providers;
 
+  /**
+   * Sanitised value -> hint value, aids in both quick lookup & prefix based searching
+   */
   @Nullable
-  private Map<String, SpringConfigurationMetadataHintValue> valueLookup;
-  @Nullable
-  private Trie<String, SpringConfigurationMetadataHintValue> valueTrie;
+  private ChildTable<SpringConfigurationMetadataHintValue> valueTable;
 
   /**
    * If the property that corresponds with this hint represents a map, Hint's key would be end with `.keys`/`.values`
@@ -58,19 +60,20 @@ public class SpringConfigurationMetadataHint implements GsonPostProcessable {
     return VALUE_REGEX_PATTERN_FOR_MAP.matcher(name).find();
   }
 
-  @Override
-  public void doOnGsonDeserialization() {
+  /**
+   * Builds lookup structures over the values, should be called once all values are set
+   */
+  public void indexValues() {
     if (hasPredefinedValues()) {
-      valueLookup = new THashMap<>();
-      valueTrie = new PatriciaTrie<>();
+      Map<String, SpringConfigurationMetadataHintValue> valueLookup = new THashMap<>();
       for (SpringConfigurationMetadataHintValue value : requireNonNull(values)) {
         // The default value can be array (if property is of type array) as per documentation, we dont support those usecases as of now
         if (value.representsSingleValue()) {
           String suggestion = value.toString();
           valueLookup.put(sanitise(suggestion), value);
-          valueTrie.put(sanitise(suggestion), value);
         }
       }
+      valueTable = ChildTable.of(valueLookup);
     }
   }
 
@@ -81,8 +84,8 @@ public class SpringConfigurationMetadataHint implements GsonPostProcessable {
   @Nullable
   public SpringConfigurationMetadataHintValue findHintValueWithName(String pathSegment) {
     SpringConfigurationMetadataHintValue value = null;
-    if (valueLookup != null) {
-      value = valueLookup.get(sanitise(pathSegment));
+    if (valueTable != null) {
+      value = valueTable.get(sanitise(pathSegment));
     }
 
     if (value == null) {
@@ -96,8 +99,8 @@ public class SpringConfigurationMetadataHint implements GsonPostProcessable {
 
   public Collection<SpringConfigurationMetadataHintValue> findHintValuesWithPrefix(
       String querySegmentPrefix) {
-    if (valueTrie != null) {
-      return valueTrie.prefixMap(sanitise(querySegmentPrefix)).values();
+    if (valueTable != null) {
+      return valueTable.prefixValues(sanitise(querySegmentPrefix));
     }
     return null;
   }
@@ -1,6 +1,5 @@
 package in.oneton.idea.spring.assistant.plugin.suggestion.metadata.json;
 
-import com.google.gson.annotations.SerializedName;
 import com.intellij.openapi.module.Module;
 import com.intellij.psi.PsiType;
 import in.oneton.idea.spring.assistant.plugin.misc.GenericUtil;
@@ -44,7 +43,6 @@ public class SpringConfigurationMetadataHintValue {
   /**
    * A valid value for the element to which the hint refers. If the type of the associated PROPERTY is an ARRAY, it can also be an ARRAY of value(s). This attribute is mandatory.
    */
-  @SerializedName("value")
   private Object nameAsObjOrArray;
   @Nullable
   private String description;
@@ -1,7 +1,5 @@
 package in.oneton.idea.spring.assistant.plugin.suggestion.metadata.json;
 
-import com.google.gson.annotations.Expose;
-import com.google.gson.annotations.SerializedName;
 import com.intellij.openapi.module.Module;
 import com.intellij.psi.PsiType;
 import in.oneton.idea.spring.assistant.plugin.misc.GenericUtil;
@@ -71,10 +69,11 @@ public class SpringConfigurationMetadataProperty
   private String name;
   @Nullable
   @Setter
-  @SerializedName("type")
+  @Getter
   private String className;
   @Nullable
   @Setter
+  @Getter
   private String description;
   /**
    * The class name of the source that contributed this PROPERTY. For example, if the PROPERTY were from a class annotated with @ConfigurationProperties, this attribute would contain the fully qualified name of that class. If the source type is unknown, it may be omitted.
@@ -95,31 +94,28 @@ public class SpringConfigurationMetadataProperty
    */
   @Nullable
   @Setter
+  @Getter
   private Object defaultValue;
 
   /**
    * Represents either the only hint associated (or) key specific hint when the property represents a map
    */
   @Nullable
-  @Expose(deserialize = false)
+  @Getter
   private SpringConfigurationMetadataHint genericOrKeyHint;
 
   /**
    * If the property of type map, the property can have both keys & values. This hint represents value
    */
   @Nullable
-  @Expose(deserialize = false)
+  @Getter
   private SpringConfigurationMetadataHint valueHint;
 
   /**
-   * Responsible for all suggestion queries that needs to be matched against a class
+   * Node type implied by the hints, takes precedence over the one derived from the class
    */
   @Nullable
-  private MetadataProxy delegate;
-
-  @Nullable
-  private SuggestionNodeType nodeType;
-  private boolean delegateCreationAttempted;
+  private SuggestionNodeType hintNodeType;
 
   @Nullable
   public List<SuggestionNode> findChildDeepestKeyMatch(Module module,
@@ -296,45 +292,70 @@ public class SpringConfigurationMetadataProperty
 
   @NotNull
   public SuggestionNodeType getSuggestionNodeType(Module module) {
-    if (nodeType == null) {
-      if (className != null) {
-        refreshDelegate(module);
+    if (hintNodeType != null) {
+      return hintNodeType;
+    }
+    if (className == null) {
+      return SuggestionNodeType.UNDEFINED;
+    }
+    ModuleState state = stateOf(module);
+    if (state.nodeType == null) {
+      refreshDelegate(module);
 
-        if (delegate != null) {
-          nodeType = delegate.getSuggestionNodeType(module);
-        }
+      MetadataProxy delegate = state.delegate;
+      if (delegate != null) {
+        state.nodeType = delegate.getSuggestionNodeType(module);
+      }
 
-        if (nodeType == null) {
-          nodeType = UNKNOWN_CLASS;
-        }
-      } else {
-        nodeType = SuggestionNodeType.UNDEFINED;
+      if (state.nodeType == null) {
+        state.nodeType = UNKNOWN_CLASS;
       }
     }
 
-    return nodeType;
+    return state.nodeType;
   }
 
   public void refreshDelegate(Module module) {
     if (className != null) {
+      ModuleState state = stateOf(module);
       // Lets update the delegate information only if anything has changed from last time we saw this
       PsiType type = getPsiType(module);
       boolean validTypeExists = type != null;
       // In the previous refresh, class could not be found. Now class is available in the classpath
       if (validTypeExists) {
-        if (delegate == null) {
-          delegate = newMetadataProxy(module, type);
+        if (state.delegate == null) {
+          state.delegate = newMetadataProxy(module, type);
           // lets force the nodeType to recalculated
-          nodeType = null;
+          state.nodeType = null;
         }
       }
       // In the previous refresh, class was available in classpath. Now it is no longer available
-      if (!validTypeExists && delegate != null) {
-        delegate = null;
-        nodeType = UNKNOWN_CLASS;
+      if (!validTypeExists && state.delegate != null) {
+        state.delegate = null;
+        state.nodeType = UNKNOWN_CLASS;
       }
+      state.delegateCreationAttempted = true;
     }
-    delegateCreationAttempted = true;
+  }
+
+  /**
+   * Parsed metadata is shared by all modules (& by all index snapshots of a module) that depend on the same container.
+   * Hints can come from a different container than the property. So, a module that needs to attach such a hint does so on its own copy
+   *
+   * @return copy of this property that shares the parsed metadata & hints, but not the module specific state
+   */
+  public SpringConfigurationMetadataProperty copy() {
+    SpringConfigurationMetadataProperty copy = new SpringConfigurationMetadataProperty();
+    copy.name = name;
+    copy.className = className;
+    copy.description = description;
+    copy.sourceType = sourceType;
+    copy.deprecation = deprecation;
+    copy.defaultValue = defaultValue;
+    copy.genericOrKeyHint = genericOrKeyHint;
+    copy.valueHint = valueHint;
+    copy.hintNodeType = hintNodeType;
+    return copy;
   }
 
   @Override
@@ -354,7 +375,7 @@ public class SpringConfigurationMetadataProperty
       List<SuggestionNode> matchesRootTillContainerProperty, String prefix,
       @Nullable Set<String> siblingsToExclude) {
     assert isLeaf(module);
-    if (nodeType == VALUES) {
+    if (getSuggestionNodeType(module) == VALUES) {
       Collection<SpringConfigurationMetadataHintValue> matches =
           requireNonNull(genericOrKeyHint).findHintValuesWithPrefix(prefix);
       if (!isEmpty(matches)) {
@@ -404,9 +425,11 @@ public class SpringConfigurationMetadataProperty
 
   private void updateNodeType() {
     if (isMapWithPredefinedKeys() || isMapWithPredefinedValues()) {
-      nodeType = MAP;
+      hintNodeType = MAP;
     } else if (isLeafWithKnownValues()) {
-      nodeType = VALUES;
+      hintNodeType = VALUES;
+    } else {
+      hintNodeType = null;
     }
   }
 
@@ -458,17 +481,6 @@ public class SpringConfigurationMetadataProperty
   private String getDefaultValueAsStr() {
     if (defaultValue != null && !(defaultValue instanceof Array)
         && !(defaultValue instanceof Collection)) {
-      if (className != null && defaultValue instanceof Double) {
-        // if defaultValue is a number, its being parsed by gson as double & we will see an incorrect fraction when we take toString()
-        switch (className) {
-          case "java.lang.Integer":
-            return Integer.toString(((Double) defaultValue).intValue());
-          case "java.lang.Byte":
-            return Byte.toString(((Double) defaultValue).byteValue());
-          case "java.lang.Short":
-            return Short.toString(((Double) defaultValue).shortValue());
-        }
-      }
       return defaultValue.toString();
     }
     return null;
@@ -476,10 +488,18 @@ public class SpringConfigurationMetadataProperty
 
   @Nullable
   public MetadataProxy getDelegate(Module module) {
-    if (!delegateCreationAttempted) {
+    if (className == null) {
+      return null;
+    }
+    ModuleState state = stateOf(module);
+    if (!state.delegateCreationAttempted) {
       refreshDelegate(module);
     }
-    return delegate;
+    return state.delegate;
+  }
+
+  private ModuleState stateOf(Module module) {
+    return ModuleMetadataState.getInstance(module).stateOf(this, ModuleState::new);
   }
 
   @Nullable
@@ -686,4 +706,19 @@ public class SpringConfigurationMetadataProperty
 
   }
 
+
+  /**
+   * State of the property that depends on the classpath of the module
+   */
+  private static class ModuleState {
+    /**
+     * Responsible for all suggestion queries that needs to be matched against a class
+     */
+    @Nullable
+    private MetadataProxy delegate;
+    @Nullable
+    private SuggestionNodeType nodeType;
+    private boolean delegateCreationAttempted;
+  }
+
 }
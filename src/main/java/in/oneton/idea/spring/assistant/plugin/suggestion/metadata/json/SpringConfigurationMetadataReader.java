@@ -0,0 +1,395 @@
+package in.oneton.idea.spring.assistant.plugin.suggestion.metadata.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.JsonEOFException;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads `/META-INF/spring-configuration-metadata.json` using a streaming parser, building groups, properties & hints as the tokens are read.
+ * Unknown attributes are skipped. Input that is not valid json (including a truncated file) is reported as an {@link IOException}.
+ * <p>
+ * Numbers retain their natural type (Integer, Long or Double), arrays are read as lists & objects (default values of maps) as maps
+ */
+public class SpringConfigurationMetadataReader {
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  private SpringConfigurationMetadataReader() {
+  }
+
+  /**
+   * @param inputStream metadata file contents. Encoding is auto detected as per JSON spec
+   * @return metadata read from the stream
+   * @throws IOException if the stream could not be read or if it does not contain valid json
+   */
+  public static SpringConfigurationMetadata read(InputStream inputStream) throws IOException {
+    SpringConfigurationMetadata metadata = new SpringConfigurationMetadata();
+    try (JsonParser parser = JSON_FACTORY.createParser(inputStream)) {
+      expect(parser, parser.nextToken(), JsonToken.START_OBJECT);
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.getCurrentName();
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.START_ARRAY) {
+          switch (field) {
+            case "groups":
+              metadata.setGroups(readObjects(parser, SpringConfigurationMetadataReader::readGroup));
+              break;
+            case "properties":
+              metadata.setProperties(
+                  readObjects(parser, SpringConfigurationMetadataReader::readProperty));
+              break;
+            case "hints":
+              metadata.setHints(readObjects(parser, SpringConfigurationMetadataReader::readHint));
+              break;
+            default:
+              parser.skipChildren();
+          }
+        } else {
+          parser.skipChildren();
+        }
+      }
+      expect(parser, parser.currentToken(), JsonToken.END_OBJECT);
+    }
+    return metadata;
+  }
+
+  private static SpringConfigurationMetadataGroup readGroup(JsonParser parser) throws IOException {
+    SpringConfigurationMetadataGroup group = new SpringConfigurationMetadataGroup();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.getCurrentName();
+      parser.nextToken();
+      switch (field) {
+        case "name":
+          group.setName(readString(parser));
+          break;
+        case "type":
+          group.setClassName(readString(parser));
+          break;
+        case "description":
+          group.setDescription(readString(parser));
+          break;
+        case "sourceType":
+          group.setSourceType(readString(parser));
+          break;
+        case "sourceMethod":
+          group.setSourceMethod(readString(parser));
+          break;
+        default:
+          parser.skipChildren();
+      }
+    }
+    return group;
+  }
+
+  private static SpringConfigurationMetadataProperty readProperty(JsonParser parser)
+      throws IOException {
+    SpringConfigurationMetadataProperty property = new SpringConfigurationMetadataProperty();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.getCurrentName();
+      parser.nextToken();
+      switch (field) {
+        case "name":
+          property.setName(readString(parser));
+          break;
+        case "type":
+          property.setClassName(readString(parser));
+          break;
+        case "description":
+          property.setDescription(readString(parser));
+          break;
+        case "sourceType":
+          property.setSourceType(readString(parser));
+          break;
+        case "defaultValue":
+          property.setDefaultValue(readValue(parser));
+          break;
+        case "deprecation":
+          property.setDeprecation(readDeprecation(parser));
+          break;
+        default:
+          parser.skipChildren();
+      }
+    }
+    return property;
+  }
+
+  @Nullable
+  private static SpringConfigurationMetadataDeprecation readDeprecation(JsonParser parser)
+      throws IOException {
+    if (parser.currentToken() != JsonToken.START_OBJECT) {
+      parser.skipChildren();
+      return null;
+    }
+    SpringConfigurationMetadataDeprecation deprecation = new SpringConfigurationMetadataDeprecation();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.getCurrentName();
+      parser.nextToken();
+      switch (field) {
+        case "level":
+          deprecation.setLevel(toDeprecationLevel(readString(parser)));
+          break;
+        case "reason":
+          deprecation.setReason(readString(parser));
+          break;
+        case "replacement":
+          deprecation.setReplacement(readString(parser));
+          break;
+        default:
+          parser.skipChildren();
+      }
+    }
+    return deprecation;
+  }
+
+  private static SpringConfigurationMetadataHint readHint(JsonParser parser) throws IOException {
+    SpringConfigurationMetadataHint hint = new SpringConfigurationMetadataHint();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.getCurrentName();
+      JsonToken token = parser.nextToken();
+      switch (field) {
+        case "name":
+          hint.setName(readString(parser));
+          break;
+        case "values":
+          if (token == JsonToken.START_ARRAY) {
+            hint.setValues(readObjects(parser, SpringConfigurationMetadataReader::readHintValue)
+                .toArray(new SpringConfigurationMetadataHintValue[0]));
+          } else {
+            parser.skipChildren();
+          }
+          break;
+        case "providers":
+          if (token == JsonToken.START_ARRAY) {
+            hint.setProviders(
+                readObjects(parser, SpringConfigurationMetadataReader::readValueProvider)
+                    .toArray(new SpringConfigurationMetadataValueProvider[0]));
+          } else {
+            parser.skipChildren();
+          }
+          break;
+        default:
+          parser.skipChildren();
+      }
+    }
+    hint.indexValues();
+    return hint;
+  }
+
+  /**
+   * @return null if the mandatory value is missing
+   */
+  @Nullable
+  private static SpringConfigurationMetadataHintValue readHintValue(JsonParser parser)
+      throws IOException {
+    SpringConfigurationMetadataHintValue value = new SpringConfigurationMetadataHintValue();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.getCurrentName();
+      parser.nextToken();
+      switch (field) {
+        case "value":
+          value.setNameAsObjOrArray(readValue(parser));
+          break;
+        case "description":
+          value.setDescription(readString(parser));
+          break;
+        default:
+          parser.skipChildren();
+      }
+    }
+    return value.getNameAsObjOrArray() != null ? value : null;
+  }
+
+  private static SpringConfigurationMetadataValueProvider readValueProvider(JsonParser parser)
+      throws IOException {
+    SpringConfigurationMetadataValueProvider provider = new SpringConfigurationMetadataValueProvider();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.getCurrentName();
+      JsonToken token = parser.nextToken();
+      switch (field) {
+        case "name":
+          provider.setType(toValueProviderType(readString(parser)));
+          break;
+        case "parameters":
+          if (token == JsonToken.START_OBJECT) {
+            provider.setParameters(readValueProviderParams(parser));
+          } else {
+            parser.skipChildren();
+          }
+          break;
+        default:
+          parser.skipChildren();
+      }
+    }
+    return provider;
+  }
+
+  private static SpringConfigurationMetadataValueProviderParams readValueProviderParams(
+      JsonParser parser) throws IOException {
+    SpringConfigurationMetadataValueProviderParams parameters =
+        new SpringConfigurationMetadataValueProviderParams();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.getCurrentName();
+      JsonToken token = parser.nextToken();
+      switch (field) {
+        case "target":
+          parameters.setTarget(readString(parser));
+          break;
+        case "concrete":
+          parameters.setConcrete(token == JsonToken.VALUE_TRUE);
+          break;
+        default:
+          parser.skipChildren();
+      }
+    }
+    return parameters;
+  }
+
+  /**
+   * Reads all objects of the array the parser is positioned at. Elements that are not objects are skipped
+   */
+  private static <T> List<T> readObjects(JsonParser parser, ObjectReader<T> objectReader)
+      throws IOException {
+    List<T> objects = new ArrayList<>();
+    JsonToken token;
+    while ((token = parser.nextToken()) != null && token != JsonToken.END_ARRAY) {
+      if (token == JsonToken.START_OBJECT) {
+        T object = objectReader.read(parser);
+        if (object != null) {
+          objects.add(object);
+        }
+      } else {
+        parser.skipChildren();
+      }
+    }
+    return objects;
+  }
+
+  /**
+   * @return text of the current scalar token, null for `null` & for structures (which are skipped)
+   */
+  @Nullable
+  private static String readString(JsonParser parser) throws IOException {
+    JsonToken token = currentToken(parser);
+    if (token == JsonToken.VALUE_NULL) {
+      return null;
+    }
+    if (token.isScalarValue()) {
+      return parser.getText();
+    }
+    parser.skipChildren();
+    return null;
+  }
+
+  @Nullable
+  private static Object readValue(JsonParser parser) throws IOException {
+    switch (currentToken(parser)) {
+      case VALUE_STRING:
+        return parser.getText();
+      case VALUE_NUMBER_INT:
+        return parser.getNumberValue();
+      case VALUE_NUMBER_FLOAT:
+        return parser.getDoubleValue();
+      case VALUE_TRUE:
+        return Boolean.TRUE;
+      case VALUE_FALSE:
+        return Boolean.FALSE;
+      case START_ARRAY:
+        List<Object> values = new ArrayList<>();
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.END_ARRAY) {
+          Object value = readValue(parser);
+          if (value != null) {
+            values.add(value);
+          }
+        }
+        return values;
+      case START_OBJECT:
+        // object default values (of maps, for e.g.) are retained as is
+        Map<String, Object> fieldToValue = new LinkedHashMap<>();
+        while ((token = parser.nextToken()) != null && token != JsonToken.END_OBJECT) {
+          String field = parser.currentName();
+          parser.nextToken();
+          fieldToValue.put(field, readValue(parser));
+        }
+        return fieldToValue;
+      default:
+        parser.skipChildren();
+        return null;
+    }
+  }
+
+  @Nullable
+  private static SpringConfigurationMetadataDeprecationLevel toDeprecationLevel(
+      @Nullable String level) {
+    if (level != null) {
+      for (SpringConfigurationMetadataDeprecationLevel value : SpringConfigurationMetadataDeprecationLevel
+          .values()) {
+        if (value.name().equals(level)) {
+          return value;
+        }
+      }
+    }
+    return null;
+  }
+
+  @Nullable
+  private static SpringConfigurationMetadataValueProviderType toValueProviderType(
+      @Nullable String providerTypeAsStr) {
+    if (providerTypeAsStr == null) {
+      return null;
+    }
+    switch (providerTypeAsStr) {
+      case "class-reference":
+        return SpringConfigurationMetadataValueProviderType.class_reference;
+      case "handle-as":
+        return SpringConfigurationMetadataValueProviderType.handle_as;
+      case "logger-name":
+        return SpringConfigurationMetadataValueProviderType.logger_name;
+      case "spring-bean-reference":
+        return SpringConfigurationMetadataValueProviderType.spring_bean_reference;
+      case "spring-profile-name":
+        return SpringConfigurationMetadataValueProviderType.spring_profile_name;
+      case "any":
+        return SpringConfigurationMetadataValueProviderType.any;
+      default:
+        return SpringConfigurationMetadataValueProviderType.unknown;
+    }
+  }
+
+  /**
+   * @return token the parser is positioned at, never null
+   * @throws JsonEOFException if the input ended abruptly
+   */
+  private static JsonToken currentToken(JsonParser parser) throws JsonEOFException {
+    JsonToken token = parser.currentToken();
+    if (token == null) {
+      throw new JsonEOFException(parser, null, "Unexpected end of metadata");
+    }
+    return token;
+  }
+
+  private static void expect(JsonParser parser, @Nullable JsonToken actual, JsonToken expected)
+      throws JsonParseException {
+    if (actual != expected) {
+      throw new JsonParseException(parser, "Expected " + expected + " but found " + actual);
+    }
+  }
+
+  private interface ObjectReader<T> {
+    /**
+     * @param parser positioned at the start of the object. Should be positioned at the end of the object on return
+     */
+    @Nullable
+    T read(JsonParser parser) throws IOException;
+  }
+
+}
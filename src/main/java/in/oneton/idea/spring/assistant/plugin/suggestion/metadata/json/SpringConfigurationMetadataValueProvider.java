@@ -1,6 +1,5 @@
 package in.oneton.idea.spring.assistant.plugin.suggestion.metadata.json;
 
-import com.google.gson.annotations.SerializedName;
 import lombok.Data;
 
 /**
@@ -11,7 +10,6 @@ public class SpringConfigurationMetadataValueProvider {
   /**
    * The name of the provider to use to offer additional content assistance for the element to which the hint refers.
    */
-  @SerializedName("name")
   private SpringConfigurationMetadataValueProviderType type;
   /**
    * Any additional parameter that the provider supports (check the documentation of the provider for more details).
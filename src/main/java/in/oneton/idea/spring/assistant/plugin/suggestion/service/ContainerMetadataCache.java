@@ -0,0 +1,233 @@
+package in.oneton.idea.spring.assistant.plugin.suggestion.service;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.vfs.VirtualFile;
+import in.oneton.idea.spring.assistant.plugin.suggestion.metadata.MetadataContainerInfo;
+import in.oneton.idea.spring.assistant.plugin.suggestion.metadata.json.ModuleMetadataState;
+import in.oneton.idea.spring.assistant.plugin.suggestion.metadata.json.SpringConfigurationMetadata;
+import in.oneton.idea.spring.assistant.plugin.suggestion.metadata.json.SpringConfigurationMetadataGroup;
+import in.oneton.idea.spring.assistant.plugin.suggestion.metadata.json.SpringConfigurationMetadataHint;
+import in.oneton.idea.spring.assistant.plugin.suggestion.metadata.json.SpringConfigurationMetadataProperty;
+import in.oneton.idea.spring.assistant.plugin.suggestion.metadata.json.SpringConfigurationMetadataReader;
+import org.jetbrains.annotations.NotNull;
+
+import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.SoftReference;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import static com.intellij.openapi.application.ApplicationManager.getApplication;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Comparator.comparing;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * An Application level service which holds parsed metadata of every container (archive/metadata file) seen so far.
+ * Modules that share the same dependencies (e.g. `spring-boot-autoconfigure`) get the same parsed metadata,
+ * instead of each module parsing the same file again.
+ * <p>
+ * Entries are keyed by container path & are only reused if the marker of the container has not changed since they were parsed.
+ * Parsed metadata is held softly, so that it can be reclaimed (& reparsed on demand) under memory pressure.
+ * Parsed metadata is also persisted to disk, so that it survives IDE restarts, see {@link ContainerMetadataDiskCache}
+ * <p>
+ * Cached metadata (down to the groups & properties) is shared by the index of every module & must not be modified.
+ * Module specific state is maintained per module, see {@link ModuleMetadataState}
+ * <p>
+ * Only the parsed metadata is shared across modules. Each module still builds its own tree of suggestion nodes over it, as the tree mixes
+ * the containers of the module & nodes refer to containers by ids handed out by the {@link ContainerRegistry} of the module.
+ * Subtrees are shared only between the snapshots of the same module, see {@link SuggestionIndex}
+ */
+public class ContainerMetadataCache implements Disposable {
+  private static final Logger log = Logger.getInstance(ContainerMetadataCache.class);
+
+  private static final int MAX_PARSE_PARALLELISM = 8;
+
+  private final ConcurrentMap<String, Entry> containerPathToEntry = new ConcurrentHashMap<>();
+  /**
+   * Parsing is IO & CPU bound, lets not let a big classpath take over all the cores of the machine.
+   * Threads of the pool are released when the service is disposed
+   */
+  private final ForkJoinPool parsePool = new ForkJoinPool(
+      Math.max(1, Math.min(Runtime.getRuntime().availableProcessors() - 1, MAX_PARSE_PARALLELISM)));
+  private final ContainerMetadataDiskCache diskCache = new ContainerMetadataDiskCache(
+      Paths.get(PathManager.getSystemPath(), "spring-boot-assistant", "metadata"));
+
+  public static ContainerMetadataCache getInstance() {
+    return getApplication().getService(ContainerMetadataCache.class);
+  }
+
+  /**
+   * @param containerInfo container whose metadata is requested
+   * @return parsed metadata of the container, either from cache or freshly parsed. null if the metadata file no longer exists
+   * @throws IOException if the metadata file could not be read
+   */
+  @Nullable
+  public SpringConfigurationMetadata getMetadata(MetadataContainerInfo containerInfo)
+      throws IOException {
+    Entry entry = containerPathToEntry.compute(containerInfo.getContainerArchiveOrFileRef(),
+        (containerPath, existing) -> existing != null && existing.marker == containerInfo
+            .getMarker() ? existing : new Entry(containerInfo.getMarker()));
+    return entry.getOrParse(containerInfo, diskCache);
+  }
+
+  /**
+   * Parses all the given containers in parallel. Containers whose metadata is already cached are returned as is
+   *
+   * @param containerInfos containers whose metadata is requested
+   * @return container to its parsed metadata in the same order as requested. Containers that no longer exist (or) could not be read are mapped to null
+   */
+  public Map<MetadataContainerInfo, SpringConfigurationMetadata> getMetadata(
+      List<MetadataContainerInfo> containerInfos) {
+    List<ForkJoinTask<SpringConfigurationMetadata>> tasks = containerInfos.stream()
+        .map(containerInfo -> parsePool.submit(() -> getMetadataOrNull(containerInfo)))
+        .collect(toList());
+    Map<MetadataContainerInfo, SpringConfigurationMetadata> containerToMetadata =
+        new LinkedHashMap<>();
+    for (int i = 0; i < containerInfos.size(); i++) {
+      containerToMetadata.put(containerInfos.get(i), tasks.get(i).join());
+    }
+    return containerToMetadata;
+  }
+
+  @Nullable
+  private SpringConfigurationMetadata getMetadataOrNull(MetadataContainerInfo containerInfo) {
+    try {
+      return getMetadata(containerInfo);
+    } catch (IOException e) {
+      log.warn("Exception encountered while processing metadata file: " + containerInfo.getFileUrl(), e);
+      evict(containerInfo);
+      return null;
+    }
+  }
+
+  /**
+   * Removes the cached metadata of the container, so that it gets parsed again when requested next time
+   *
+   * @param containerInfo container to forget
+   */
+  public void evict(MetadataContainerInfo containerInfo) {
+    containerPathToEntry.computeIfPresent(containerInfo.getContainerArchiveOrFileRef(),
+        (containerPath, existing) -> existing.marker == containerInfo.getMarker() ? null : existing);
+  }
+
+  @Override
+  public void dispose() {
+    parsePool.shutdownNow();
+    containerPathToEntry.clear();
+  }
+
+  @NotNull
+  private static SpringConfigurationMetadata parse(MetadataContainerInfo containerInfo,
+      VirtualFile metadataFile) throws IOException {
+    debug(() -> log.debug("Parsing metadata of " + containerInfo));
+    try (InputStream inputStream = new BufferedInputStream(metadataFile.getInputStream())) {
+      return toShareable(SpringConfigurationMetadataReader.read(inputStream));
+    }
+  }
+
+  /**
+   * Metadata is shared across threads & modules, so lets sort & clean it up once here, instead of doing the same in every module
+   */
+  private static SpringConfigurationMetadata toShareable(SpringConfigurationMetadata metadata) {
+    List<SpringConfigurationMetadataGroup> groups =
+        metadata.getGroups() != null ? new ArrayList<>(metadata.getGroups()) : new ArrayList<>();
+    groups.sort(comparing(SpringConfigurationMetadataGroup::getName));
+
+    List<SpringConfigurationMetadataProperty> properties =
+        metadata.getProperties() != null ? new ArrayList<>(metadata.getProperties()) :
+            new ArrayList<>();
+    // Remove unnamed property, perhaps happens on invalid user defined metadata files.
+    // TODO We should use bean validator to assure that the input data match the requirements, exclude invalid ones silently.
+    properties.removeIf(p -> Objects.isNull(p.getName()));
+    properties.sort(comparing(SpringConfigurationMetadataProperty::getName));
+
+    List<SpringConfigurationMetadataHint> hints =
+        metadata.getHints() != null ? new ArrayList<>(metadata.getHints()) : new ArrayList<>();
+    hints.sort(comparing(SpringConfigurationMetadataHint::getName));
+
+    SpringConfigurationMetadata shareable = new SpringConfigurationMetadata();
+    shareable.setGroups(groups.isEmpty() ? emptyList() : unmodifiableList(groups));
+    shareable.setProperties(properties.isEmpty() ? emptyList() : unmodifiableList(properties));
+    shareable.setHints(hints.isEmpty() ? emptyList() : unmodifiableList(hints));
+    return shareable;
+  }
+
+  /**
+   * Hints almost always refer to the properties of the same container. Lets attach these once here, before metadata is shared,
+   * so that modules need not copy the properties to attach them
+   */
+  private static void attachHints(SpringConfigurationMetadata metadata) {
+    if (metadata.getHints().isEmpty()) {
+      return;
+    }
+    Map<String, SpringConfigurationMetadataProperty> nameToProperty = new HashMap<>();
+    for (SpringConfigurationMetadataProperty property : metadata.getProperties()) {
+      nameToProperty.putIfAbsent(property.getName(), property);
+    }
+    for (SpringConfigurationMetadataHint hint : metadata.getHints()) {
+      SpringConfigurationMetadataProperty property = nameToProperty.get(hint.getExpectedPropertyName());
+      if (property != null) {
+        if (hint.representsValueOfMap()) {
+          property.setValueHint(hint);
+        } else {
+          property.setGenericOrKeyHint(hint);
+        }
+      }
+    }
+  }
+
+  private static void debug(Runnable doWhenDebug) {
+    if (log.isDebugEnabled()) {
+      doWhenDebug.run();
+    }
+  }
+
+
+  private static class Entry {
+    private final long marker;
+    private SoftReference<SpringConfigurationMetadata> metadataRef;
+
+    Entry(long marker) {
+      this.marker = marker;
+    }
+
+    /**
+     * Multiple modules can request the same container at the same time during startup. Only one of them parses, rest wait for the result
+     */
+    @Nullable
+    synchronized SpringConfigurationMetadata getOrParse(MetadataContainerInfo containerInfo,
+        ContainerMetadataDiskCache diskCache) throws IOException {
+      SpringConfigurationMetadata metadata = metadataRef != null ? metadataRef.get() : null;
+      if (metadata == null) {
+        VirtualFile metadataFile = containerInfo.getMetadataFile();
+        if (metadataFile == null) {
+          return null;
+        }
+        metadata = diskCache.read(containerInfo, metadataFile);
+        if (metadata == null) {
+          metadata = parse(containerInfo, metadataFile);
+          diskCache.write(containerInfo, metadataFile, metadata);
+        }
+        attachHints(metadata);
+        metadataRef = new SoftReference<>(metadata);
+      }
+      return metadata;
+    }
+  }
+
+}
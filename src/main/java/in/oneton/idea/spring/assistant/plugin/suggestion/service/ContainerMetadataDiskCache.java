@@ -0,0 +1,486 @@
+package in.oneton.idea.spring.assistant.plugin.suggestion.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.util.io.IOUtil;
+import in.oneton.idea.spring.assistant.plugin.suggestion.metadata.MetadataContainerInfo;
+import in.oneton.idea.spring.assistant.plugin.suggestion.metadata.json.SpringConfigurationMetadata;
+import in.oneton.idea.spring.assistant.plugin.suggestion.metadata.json.SpringConfigurationMetadataDeprecation;
+import in.oneton.idea.spring.assistant.plugin.suggestion.metadata.json.SpringConfigurationMetadataDeprecationLevel;
+import in.oneton.idea.spring.assistant.plugin.suggestion.metadata.json.SpringConfigurationMetadataGroup;
+import in.oneton.idea.spring.assistant.plugin.suggestion.metadata.json.SpringConfigurationMetadataHint;
+import in.oneton.idea.spring.assistant.plugin.suggestion.metadata.json.SpringConfigurationMetadataHintValue;
+import in.oneton.idea.spring.assistant.plugin.suggestion.metadata.json.SpringConfigurationMetadataProperty;
+import in.oneton.idea.spring.assistant.plugin.suggestion.metadata.json.SpringConfigurationMetadataValueProvider;
+import in.oneton.idea.spring.assistant.plugin.suggestion.metadata.json.SpringConfigurationMetadataValueProviderParams;
+import in.oneton.idea.spring.assistant.plugin.suggestion.metadata.json.SpringConfigurationMetadataValueProviderType;
+
+import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * Persists parsed metadata of each container in a compact binary format under IDE's system directory,
+ * so that metadata of libraries (which almost never change) need not be parsed again after IDE restart.
+ * Building the index off this metadata needs no PSI, so the index is rebuilt while the IDE is still indexing.
+ * <p>
+ * Each container gets its own file, named after its url. Modification stamps are only valid within an IDE session,
+ * so an entry is considered valid only if the timestamp & length of the metadata file & the timestamp of its container are the same as when the entry was written.
+ */
+class ContainerMetadataDiskCache {
+  private static final Logger log = Logger.getInstance(ContainerMetadataDiskCache.class);
+
+  /**
+   * Should be incremented whenever the layout of the file changes
+   */
+  private static final int FORMAT_VERSION = 3;
+
+  private static final byte NULL = 0;
+  private static final byte STRING = 1;
+  private static final byte BOOLEAN = 2;
+  private static final byte INTEGER = 3;
+  private static final byte LONG = 4;
+  private static final byte DOUBLE = 5;
+  private static final byte LIST = 6;
+  private static final byte JSON = 7;
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  private final Path cacheDir;
+
+  ContainerMetadataDiskCache(Path cacheDir) {
+    this.cacheDir = cacheDir;
+  }
+
+  /**
+   * @return metadata persisted earlier for the container, null if there is none or if the container got modified since then
+   */
+  @Nullable
+  SpringConfigurationMetadata read(MetadataContainerInfo containerInfo, VirtualFile metadataFile) {
+    Path cacheFile = toCacheFile(containerInfo);
+    try (DataInputStream in = new DataInputStream(
+        new BufferedInputStream(Files.newInputStream(cacheFile)))) {
+      if (in.readInt() != FORMAT_VERSION || !containerInfo.getContainerArchiveOrFileRef()
+          .equals(IOUtil.readUTF(in)) || in.readLong() != metadataFile.getTimeStamp()
+          || in.readLong() != metadataFile.getLength()
+          || in.readLong() != containerTimeStamp(containerInfo)) {
+        return null;
+      }
+      SpringConfigurationMetadata metadata = new SpringConfigurationMetadata();
+      metadata.setGroups(readGroups(in));
+      metadata.setProperties(readProperties(in));
+      metadata.setHints(readHints(in));
+      debug(() -> log.debug("Loaded persisted metadata of " + containerInfo));
+      return metadata;
+    } catch (NoSuchFileException e) {
+      return null;
+    } catch (IOException | RuntimeException e) {
+      log.warn("Ignoring corrupt metadata cache " + cacheFile + " of " + containerInfo, e);
+      return null;
+    }
+  }
+
+  void write(MetadataContainerInfo containerInfo, VirtualFile metadataFile,
+      SpringConfigurationMetadata metadata) {
+    Path cacheFile = toCacheFile(containerInfo);
+    try {
+      Files.createDirectories(cacheDir);
+      Path tempFile = Files.createTempFile(cacheDir, cacheFile.getFileName().toString(), ".tmp");
+      try {
+        try (OutputStream fileOut = Files.newOutputStream(tempFile);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut))) {
+          out.writeInt(FORMAT_VERSION);
+          IOUtil.writeUTF(out, containerInfo.getContainerArchiveOrFileRef());
+          out.writeLong(metadataFile.getTimeStamp());
+          out.writeLong(metadataFile.getLength());
+          out.writeLong(containerTimeStamp(containerInfo));
+          writeGroups(out, metadata.getGroups());
+          writeProperties(out, metadata.getProperties());
+          writeHints(out, metadata.getHints());
+        }
+        Files.move(tempFile, cacheFile, REPLACE_EXISTING, ATOMIC_MOVE);
+      } finally {
+        Files.deleteIfExists(tempFile);
+      }
+    } catch (IOException e) {
+      // cache is only an optimisation, lets not fail indexing because of it
+      log.warn("Could not persist metadata of " + containerInfo + " to " + cacheFile, e);
+    }
+  }
+
+  private Path toCacheFile(MetadataContainerInfo containerInfo) {
+    return cacheDir.resolve(
+        UUID.nameUUIDFromBytes(containerInfo.getContainerArchiveOrFileRef().getBytes(UTF_8))
+            + ".bin");
+  }
+
+  private static long containerTimeStamp(MetadataContainerInfo containerInfo) {
+    VirtualFile container =
+        VirtualFileManager.getInstance().findFileByUrl(containerInfo.getContainerArchiveOrFileRef());
+    return container != null ? container.getTimeStamp() : -1;
+  }
+
+  private static void writeGroups(DataOutput out,
+      @Nullable Collection<SpringConfigurationMetadataGroup> groups) throws IOException {
+    writeSize(out, groups);
+    if (groups != null) {
+      for (SpringConfigurationMetadataGroup group : groups) {
+        writeNullableString(out, group.getName());
+        writeNullableString(out, group.getClassName());
+        writeNullableString(out, group.getDescription());
+        writeNullableString(out, group.getSourceType());
+        writeNullableString(out, group.getSourceMethod());
+      }
+    }
+  }
+
+  private static List<SpringConfigurationMetadataGroup> readGroups(DataInput in)
+      throws IOException {
+    int size = in.readInt();
+    List<SpringConfigurationMetadataGroup> groups = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      SpringConfigurationMetadataGroup group = new SpringConfigurationMetadataGroup();
+      group.setName(readNullableString(in));
+      group.setClassName(readNullableString(in));
+      group.setDescription(readNullableString(in));
+      group.setSourceType(readNullableString(in));
+      group.setSourceMethod(readNullableString(in));
+      groups.add(group);
+    }
+    return toUnmodifiableList(groups);
+  }
+
+  private static void writeProperties(DataOutput out,
+      @Nullable Collection<SpringConfigurationMetadataProperty> properties) throws IOException {
+    writeSize(out, properties);
+    if (properties != null) {
+      for (SpringConfigurationMetadataProperty property : properties) {
+        writeNullableString(out, property.getName());
+        writeNullableString(out, property.getClassName());
+        writeNullableString(out, property.getDescription());
+        writeNullableString(out, property.getSourceType());
+        writeValue(out, property.getDefaultValue());
+        SpringConfigurationMetadataDeprecation deprecation = property.getDeprecation();
+        out.writeBoolean(deprecation != null);
+        if (deprecation != null) {
+          writeNullableString(out,
+              deprecation.getLevel() != null ? deprecation.getLevel().name() : null);
+          writeNullableString(out, deprecation.getReason());
+          writeNullableString(out, deprecation.getReplacement());
+        }
+      }
+    }
+  }
+
+  private static List<SpringConfigurationMetadataProperty> readProperties(DataInput in)
+      throws IOException {
+    int size = in.readInt();
+    List<SpringConfigurationMetadataProperty> properties = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      SpringConfigurationMetadataProperty property = new SpringConfigurationMetadataProperty();
+      property.setName(readNullableString(in));
+      property.setClassName(readNullableString(in));
+      property.setDescription(readNullableString(in));
+      property.setSourceType(readNullableString(in));
+      property.setDefaultValue(readValue(in));
+      if (in.readBoolean()) {
+        SpringConfigurationMetadataDeprecation deprecation =
+            new SpringConfigurationMetadataDeprecation();
+        String level = readNullableString(in);
+        deprecation.setLevel(level != null ? SpringConfigurationMetadataDeprecationLevel.valueOf(level) : null);
+        deprecation.setReason(readNullableString(in));
+        deprecation.setReplacement(readNullableString(in));
+        property.setDeprecation(deprecation);
+      }
+      properties.add(property);
+    }
+    return toUnmodifiableList(properties);
+  }
+
+  private static void writeHints(DataOutput out,
+      @Nullable Collection<SpringConfigurationMetadataHint> hints) throws IOException {
+    writeSize(out, hints);
+    if (hints != null) {
+      for (SpringConfigurationMetadataHint hint : hints) {
+        writeNullableString(out, hint.getName());
+        SpringConfigurationMetadataHintValue[] values = hint.getValues();
+        out.writeInt(values != null ? values.length : -1);
+        if (values != null) {
+          for (SpringConfigurationMetadataHintValue value : values) {
+            writeValue(out, value.getNameAsObjOrArray());
+            writeNullableString(out, value.getDescription());
+          }
+        }
+        SpringConfigurationMetadataValueProvider[] providers = hint.getProviders();
+        out.writeInt(providers != null ? providers.length : -1);
+        if (providers != null) {
+          for (SpringConfigurationMetadataValueProvider provider : providers) {
+            writeNullableString(out, provider.getType() != null ? provider.getType().name() : null);
+            SpringConfigurationMetadataValueProviderParams parameters = provider.getParameters();
+            out.writeBoolean(parameters != null);
+            if (parameters != null) {
+              writeNullableString(out, parameters.getTarget());
+              out.writeBoolean(parameters.isConcrete());
+            }
+          }
+        }
+      }
+    }
+  }
+
+  private static List<SpringConfigurationMetadataHint> readHints(DataInput in) throws IOException {
+    int size = in.readInt();
+    List<SpringConfigurationMetadataHint> hints = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      SpringConfigurationMetadataHint hint = new SpringConfigurationMetadataHint();
+      hint.setName(readNullableString(in));
+      int numOfValues = in.readInt();
+      if (numOfValues != -1) {
+        SpringConfigurationMetadataHintValue[] values =
+            new SpringConfigurationMetadataHintValue[numOfValues];
+        for (int j = 0; j < numOfValues; j++) {
+          values[j] = SpringConfigurationMetadataHintValue.builder().nameAsObjOrArray(readValue(in))
+              .description(readNullableString(in)).build();
+        }
+        hint.setValues(values);
+      }
+      int numOfProviders = in.readInt();
+      if (numOfProviders != -1) {
+        SpringConfigurationMetadataValueProvider[] providers =
+            new SpringConfigurationMetadataValueProvider[numOfProviders];
+        for (int j = 0; j < numOfProviders; j++) {
+          SpringConfigurationMetadataValueProvider provider =
+              new SpringConfigurationMetadataValueProvider();
+          String type = readNullableString(in);
+          provider.setType(type != null ? SpringConfigurationMetadataValueProviderType.valueOf(type) : null);
+          if (in.readBoolean()) {
+            SpringConfigurationMetadataValueProviderParams parameters =
+                new SpringConfigurationMetadataValueProviderParams();
+            parameters.setTarget(readNullableString(in));
+            parameters.setConcrete(in.readBoolean());
+            provider.setParameters(parameters);
+          }
+          providers[j] = provider;
+        }
+        hint.setProviders(providers);
+      }
+      hint.indexValues();
+      hints.add(hint);
+    }
+    return toUnmodifiableList(hints);
+  }
+
+  /**
+   * Default values & hint values are mostly scalars or arrays of scalars. Objects (default values of maps, for e.g.)
+   * are persisted as json, so that they are read back as the same structure
+   */
+  private static void writeValue(DataOutput out, @Nullable Object value) throws IOException {
+    if (value == null) {
+      out.writeByte(NULL);
+    } else if (value instanceof Boolean) {
+      out.writeByte(BOOLEAN);
+      out.writeBoolean((Boolean) value);
+    } else if (value instanceof Integer) {
+      out.writeByte(INTEGER);
+      out.writeInt((Integer) value);
+    } else if (value instanceof Long) {
+      out.writeByte(LONG);
+      out.writeLong((Long) value);
+    } else if (value instanceof Double) {
+      out.writeByte(DOUBLE);
+      out.writeDouble((Double) value);
+    } else if (value instanceof Collection) {
+      out.writeByte(LIST);
+      Collection<?> values = (Collection<?>) value;
+      out.writeInt(values.size());
+      for (Object element : values) {
+        writeValue(out, element);
+      }
+    } else if (value instanceof String) {
+      out.writeByte(STRING);
+      IOUtil.writeUTF(out, (String) value);
+    } else {
+      out.writeByte(JSON);
+      IOUtil.writeUTF(out, toJson(value));
+    }
+  }
+
+  @Nullable
+  private static Object readValue(DataInput in) throws IOException {
+    byte type = in.readByte();
+    switch (type) {
+      case NULL:
+        return null;
+      case BOOLEAN:
+        return in.readBoolean();
+      case INTEGER:
+        return in.readInt();
+      case LONG:
+        return in.readLong();
+      case DOUBLE:
+        return in.readDouble();
+      case LIST:
+        int size = in.readInt();
+        List<Object> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+          values.add(readValue(in));
+        }
+        return values;
+      case STRING:
+        return IOUtil.readUTF(in);
+      case JSON:
+        return fromJson(IOUtil.readUTF(in));
+      default:
+        throw new IOException("Unknown value type " + type);
+    }
+  }
+
+  private static String toJson(Object value) throws IOException {
+    StringWriter writer = new StringWriter();
+    try (JsonGenerator generator = JSON_FACTORY.createGenerator(writer)) {
+      writeJsonValue(generator, value);
+    }
+    return writer.toString();
+  }
+
+  private static void writeJsonValue(JsonGenerator generator, @Nullable Object value)
+      throws IOException {
+    if (value == null) {
+      generator.writeNull();
+    } else if (value instanceof Boolean) {
+      generator.writeBoolean((Boolean) value);
+    } else if (value instanceof Integer || value instanceof Long || value instanceof Short
+        || value instanceof Byte) {
+      generator.writeNumber(((Number) value).longValue());
+    } else if (value instanceof BigInteger) {
+      generator.writeNumber((BigInteger) value);
+    } else if (value instanceof BigDecimal) {
+      generator.writeNumber((BigDecimal) value);
+    } else if (value instanceof Number) {
+      generator.writeNumber(((Number) value).doubleValue());
+    } else if (value instanceof Map) {
+      generator.writeStartObject();
+      for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+        generator.writeFieldName(String.valueOf(entry.getKey()));
+        writeJsonValue(generator, entry.getValue());
+      }
+      generator.writeEndObject();
+    } else if (value instanceof Collection) {
+      generator.writeStartArray();
+      for (Object element : (Collection<?>) value) {
+        writeJsonValue(generator, element);
+      }
+      generator.writeEndArray();
+    } else if (value instanceof Object[]) {
+      generator.writeStartArray();
+      for (Object element : (Object[]) value) {
+        writeJsonValue(generator, element);
+      }
+      generator.writeEndArray();
+    } else {
+      generator.writeString(value.toString());
+    }
+  }
+
+  @Nullable
+  private static Object fromJson(String json) throws IOException {
+    try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+      parser.nextToken();
+      return readJsonValue(parser);
+    }
+  }
+
+  @Nullable
+  private static Object readJsonValue(JsonParser parser) throws IOException {
+    JsonToken token = parser.currentToken();
+    if (token == null) {
+      throw new IOException("Unexpected end of persisted json value");
+    }
+    switch (token) {
+      case VALUE_STRING:
+        return parser.getText();
+      case VALUE_NUMBER_INT:
+        return parser.getNumberValue();
+      case VALUE_NUMBER_FLOAT:
+        return parser.getDoubleValue();
+      case VALUE_TRUE:
+        return Boolean.TRUE;
+      case VALUE_FALSE:
+        return Boolean.FALSE;
+      case START_ARRAY:
+        List<Object> values = new ArrayList<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+          values.add(readJsonValue(parser));
+        }
+        return values;
+      case START_OBJECT:
+        Map<String, Object> fieldToValue = new LinkedHashMap<>();
+        while (parser.nextToken() != JsonToken.END_OBJECT) {
+          String field = parser.currentName();
+          parser.nextToken();
+          fieldToValue.put(field, readJsonValue(parser));
+        }
+        return fieldToValue;
+      default:
+        return null;
+    }
+  }
+
+  private static void writeSize(DataOutput out, @Nullable Collection<?> collection)
+      throws IOException {
+    out.writeInt(collection != null ? collection.size() : 0);
+  }
+
+  private static void writeNullableString(DataOutput out, @Nullable String value)
+      throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      IOUtil.writeUTF(out, value);
+    }
+  }
+
+  @Nullable
+  private static String readNullableString(DataInput in) throws IOException {
+    return in.readBoolean() ? IOUtil.readUTF(in) : null;
+  }
+
+  private static <T> List<T> toUnmodifiableList(List<T> list) {
+    return list.isEmpty() ? emptyList() : unmodifiableList(list);
+  }
+
+  private static void debug(Runnable doWhenDebug) {
+    if (log.isDebugEnabled()) {
+      doWhenDebug.run();
+    }
+  }
+
+}
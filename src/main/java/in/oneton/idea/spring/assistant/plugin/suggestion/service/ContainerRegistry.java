@@ -0,0 +1,100 @@
+package in.oneton.idea.spring.assistant.plugin.suggestion.service;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Assigns small integer ids to containers of an index, so that nodes can refer to the containers they belong to
+ * using a {@link BitSet}, instead of holding on to (long) container urls.
+ * <p>
+ * Ids of released containers are reused, so that the highest id stays within the no of containers known at once,
+ * no matter how often containers are added/removed across reindexing. Note that a bitset takes a word for every 64 ids
+ * up to the highest id set in it, so a node belonging to a container with a high id still costs a few words
+ * (a handful for the few hundred containers of a typical module).
+ * Not thread safe, expected to be modified only by the indexing thread, on an index that is not published yet
+ */
+class ContainerRegistry {
+  private final Map<String, Integer> containerPathToId = new HashMap<>();
+  private final List<String> idToContainerPath = new ArrayList<>();
+  private final BitSet usedIds = new BitSet();
+
+  /**
+   * @param containerPath path to the metadata file container
+   * @return id of the container, newly assigned if the container is not known yet
+   */
+  int register(String containerPath) {
+    Integer id = containerPathToId.get(containerPath);
+    if (id == null) {
+      id = usedIds.nextClearBit(0);
+      usedIds.set(id);
+      if (id < idToContainerPath.size()) {
+        idToContainerPath.set(id, containerPath);
+      } else {
+        idToContainerPath.add(containerPath);
+      }
+      containerPathToId.put(containerPath, id);
+    }
+    return id;
+  }
+
+  /**
+   * @param containerPath path to the metadata file container
+   * @return id of the container, null if the container is not known
+   */
+  @Nullable
+  Integer getId(String containerPath) {
+    return containerPathToId.get(containerPath);
+  }
+
+  /**
+   * @param id id of the container
+   * @return path of the container, null if no container is registered with the id
+   */
+  @Nullable
+  String getPath(int id) {
+    return id < idToContainerPath.size() ? idToContainerPath.get(id) : null;
+  }
+
+  /**
+   * Forgets the container, so that its id can be assigned to another container
+   *
+   * @param containerPath path to the metadata file container
+   */
+  void release(String containerPath) {
+    Integer id = containerPathToId.remove(containerPath);
+    if (id != null) {
+      usedIds.clear(id);
+      idToContainerPath.set(id, null);
+    }
+  }
+
+  /**
+   * @param containerIds ids of the containers
+   * @return comma delimited paths of the containers, for logging
+   */
+  String toPaths(BitSet containerIds) {
+    StringBuilder builder = new StringBuilder();
+    for (int id = containerIds.nextSetBit(0); id >= 0; id = containerIds.nextSetBit(id + 1)) {
+      if (builder.length() != 0) {
+        builder.append(',');
+      }
+      builder.append(getPath(id));
+    }
+    return builder.toString();
+  }
+
+  /**
+   * @return registry with the same assignments, that can be modified independently of this registry
+   */
+  ContainerRegistry copy() {
+    ContainerRegistry copy = new ContainerRegistry();
+    copy.containerPathToId.putAll(containerPathToId);
+    copy.idToContainerPath.addAll(idToContainerPath);
+    copy.usedIds.or(usedIds);
+    return copy;
+  }
+}
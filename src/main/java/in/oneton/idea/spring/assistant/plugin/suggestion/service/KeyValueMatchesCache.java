@@ -0,0 +1,47 @@
+package in.oneton.idea.spring.assistant.plugin.suggestion.service;
+
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.module.ModuleUtil;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import in.oneton.idea.spring.assistant.plugin.suggestion.SuggestionNode;
+import org.jetbrains.yaml.psi.YAMLFile;
+import org.jetbrains.yaml.psi.YAMLKeyValue;
+
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.unmodifiableMap;
+
+/**
+ * Keys of a file resolved to their nodes, shared by all inspections & references of the file, so that the keys are resolved once per change
+ * instead of once per inspection. Resolution of a key can depend on java classes (class backed properties) as well as the index,
+ * so cached value is dropped on any PSI change & on reindex
+ */
+public final class KeyValueMatchesCache {
+
+  private KeyValueMatchesCache() {
+  }
+
+  /**
+   * @param file file whose keys need to be resolved
+   * @return key -> nodes from root till the node of the key, see {@link SuggestionService#findMatchedNodesRootTillEnd(YAMLFile)}. Must not be modified
+   */
+  public static Map<YAMLKeyValue, List<SuggestionNode>> getMatchesOf(YAMLFile file) {
+    return CachedValuesManager.getCachedValue(file, () -> {
+      PsiModificationTracker psiModificationTracker =
+          PsiModificationTracker.getInstance(file.getProject());
+      Module module = ModuleUtil.findModuleForFile(file);
+      if (module == null) {
+        Map<YAMLKeyValue, List<SuggestionNode>> noMatches = emptyMap();
+        return CachedValueProvider.Result.create(noMatches, psiModificationTracker);
+      }
+      SuggestionService service = module.getService(SuggestionService.class);
+      Map<YAMLKeyValue, List<SuggestionNode>> keyValueToMatches =
+          unmodifiableMap(service.findMatchedNodesRootTillEnd(file));
+      return CachedValueProvider.Result.create(keyValueToMatches, psiModificationTracker, service);
+    });
+  }
+}
@@ -1,14 +1,59 @@
 package in.oneton.idea.spring.assistant.plugin.suggestion.service;
 
+import com.intellij.openapi.Disposable;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.module.ModuleManager;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.NotNullLazyValue;
+import com.intellij.util.Alarm;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import org.jetbrains.annotations.NotNull;
 
-public class ProjectSuggestionServiceImpl implements ProjectSuggestionService {
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Schedules reindexing of modules. Compilation, maven & gradle imports fire bursts of reindex requests,
+ * so requests are coalesced per module & are only acted upon once the burst settles.
+ * A module that is requested again while its reindex is running gets its running reindex cancelled in favour of a new one
+ */
+public class ProjectSuggestionServiceImpl implements ProjectSuggestionService, Disposable {
   private static final Logger log = Logger.getInstance(ProjectSuggestionServiceImpl.class);
+
+  private static final int REINDEX_DEBOUNCE_DELAY_MILLIS = 500;
+  private static final int MAX_CONCURRENT_REINDEX =
+      Math.max(1, Math.min(Runtime.getRuntime().availableProcessors() / 2, 4));
+
   private final Project project;
+  /**
+   * Alarm & executor are created on first request, so that merely instantiating the service does not need a running application
+   */
+  private final NotNullLazyValue<Alarm> reindexAlarm =
+      NotNullLazyValue.atomicLazy(() -> new Alarm(Alarm.ThreadToUse.POOLED_THREAD, this));
+  private final NotNullLazyValue<ExecutorService> reindexExecutor = NotNullLazyValue.atomicLazy(
+      () -> AppExecutorUtil.createBoundedApplicationPoolExecutor("Spring Boot Assistant Reindex",
+          MAX_CONCURRENT_REINDEX));
+  /**
+   * Modules requested since the last time requests were submitted to the executor. Guarded by itself
+   */
+  private final Set<Module> pendingModules = new LinkedHashSet<>();
+  /**
+   * Modules submitted to the executor whose reindex has not started yet
+   */
+  private final Set<Module> queuedModules = ConcurrentHashMap.newKeySet();
+  private final Map<Module, ProgressIndicator> moduleToRunningIndicator = new ConcurrentHashMap<>();
+  private volatile boolean disposed;
 
 
   public ProjectSuggestionServiceImpl(@NotNull Project project) {
@@ -23,9 +68,69 @@ public class ProjectSuggestionServiceImpl implements ProjectSuggestionService {
 
   @Override
   public void reindex(Module[] modules) {
+    if (disposed) {
+      return;
+    }
     debug(() -> log.debug("-> Indexing requested for a subset of modules of project " + project.getName()));
+    synchronized (pendingModules) {
+      Collections.addAll(pendingModules, modules);
+    }
+    // Lets wait for the rest of the burst, if any
+    Alarm alarm = reindexAlarm.getValue();
+    alarm.cancelAllRequests();
+    alarm.addRequest(this::submitPendingModules, REINDEX_DEBOUNCE_DELAY_MILLIS);
+  }
+
+  private void submitPendingModules() {
+    if (disposed) {
+      return;
+    }
+    List<Module> modules;
+    synchronized (pendingModules) {
+      modules = new ArrayList<>(pendingModules);
+      pendingModules.clear();
+    }
     for (Module module : modules) {
-      module.getService(SuggestionService.class).reindex();
+      if (!queuedModules.add(module)) {
+        debug(() -> log.debug("Indexing of module " + module.getName() + " is already queued"));
+        continue;
+      }
+      // Running reindex might have already looked at the classpath that triggered this request, so its result would be stale anyway
+      ProgressIndicator runningIndicator = moduleToRunningIndicator.get(module);
+      if (runningIndicator != null) {
+        runningIndicator.cancel();
+      }
+      reindexExecutor.getValue().execute(() -> reindex(module));
+    }
+  }
+
+  private void reindex(Module module) {
+    queuedModules.remove(module);
+    if (project.isDisposed() || module.isDisposed()) {
+      return;
+    }
+    ProgressIndicator indicator = new EmptyProgressIndicator();
+    moduleToRunningIndicator.put(module, indicator);
+    try {
+      ProgressManager.getInstance()
+          .runProcess(() -> module.getService(SuggestionService.class).reindex(indicator), indicator);
+    } catch (ProcessCanceledException e) {
+      debug(() -> log.debug("Indexing of module " + module.getName() + " is superseded by a newer request"));
+    } finally {
+      moduleToRunningIndicator.remove(module, indicator);
+    }
+  }
+
+  @Override
+  public void dispose() {
+    disposed = true;
+    synchronized (pendingModules) {
+      pendingModules.clear();
+    }
+    moduleToRunningIndicator.values().forEach(ProgressIndicator::cancel);
+    // lets drop queued requests, alarm is disposed along with this service
+    if (reindexExecutor.isComputed()) {
+      reindexExecutor.getValue().shutdownNow();
     }
   }
 
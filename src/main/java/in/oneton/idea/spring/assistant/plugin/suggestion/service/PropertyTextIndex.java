@@ -0,0 +1,307 @@
+package in.oneton.idea.spring.assistant.plugin.suggestion.service;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.miguelfonseca.completely.AutocompleteEngine;
+import com.miguelfonseca.completely.IndexAdapter;
+import com.miguelfonseca.completely.data.Indexable;
+import com.miguelfonseca.completely.data.ScoredObject;
+import com.miguelfonseca.completely.text.analyze.tokenize.WordTokenizer;
+import com.miguelfonseca.completely.text.analyze.transform.LowerCaseTransformer;
+import in.oneton.idea.spring.assistant.plugin.suggestion.metadata.MetadataPropertySuggestionNode;
+import in.oneton.idea.spring.assistant.plugin.suggestion.metadata.json.SpringConfigurationMetadataHint;
+import in.oneton.idea.spring.assistant.plugin.suggestion.metadata.json.SpringConfigurationMetadataHintValue;
+import in.oneton.idea.spring.assistant.plugin.suggestion.metadata.json.SpringConfigurationMetadataProperty;
+import lombok.Getter;
+
+import javax.annotation.Nullable;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptySet;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Full text index over names, descriptions & hint values of the properties of an index snapshot.
+ * Lets user find properties by the words they contain (`pool size`, `connection timeout`) instead of by path prefix.
+ * <p>
+ * Built once per root subtree & never modified after, so searches need no locking. Index of a snapshot {@link #combine(List) combines}
+ * the indexes of its roots, so that reindexing rebuilds only the indexes of the roots it modifies
+ */
+class PropertyTextIndex {
+  private static final Logger log = Logger.getInstance(PropertyTextIndex.class);
+
+  private static final Set<String> STOP_WORDS = loadStopWords();
+
+  /**
+   * A word found in the property name is a much better indicator of relevance than the same word in the description
+   */
+  private static final double NAME_WEIGHT = 1.0;
+  private static final double HINT_VALUE_WEIGHT = 0.6;
+  private static final double DESCRIPTION_WEIGHT = 0.3;
+
+  static final PropertyTextIndex EMPTY = build(emptyList());
+
+  private final IndexAdapter<PropertyDocument> wordIndex;
+  private final AutocompleteEngine<PropertyDocument> engine;
+  @Getter
+  private final int size;
+
+  private PropertyTextIndex(IndexAdapter<PropertyDocument> wordIndex, int size) {
+    this.wordIndex = wordIndex;
+    this.engine = new AutocompleteEngine.Builder<PropertyDocument>().setIndex(wordIndex)
+        .setAnalyzers(new LowerCaseTransformer(), new WordTokenizer()).build();
+    this.size = size;
+  }
+
+  /**
+   * @param propertyNodes property nodes of the snapshot
+   * @return index over the given properties
+   */
+  static PropertyTextIndex build(Collection<MetadataPropertySuggestionNode> propertyNodes) {
+    PropertyTextIndex textIndex = new PropertyTextIndex(new WordIndexAdapter(), propertyNodes.size());
+    for (MetadataPropertySuggestionNode propertyNode : propertyNodes) {
+      textIndex.engine.add(new PropertyDocument(propertyNode));
+    }
+    return textIndex;
+  }
+
+  /**
+   * Combining costs in proportion to the no of indexes, irrespective of the no of properties they hold
+   *
+   * @param textIndexes indexes over disjoint sets of properties
+   * @return index that searches all the given indexes, same as an index built over all their properties would
+   */
+  static PropertyTextIndex combine(List<PropertyTextIndex> textIndexes) {
+    List<IndexAdapter<PropertyDocument>> wordIndexes = new ArrayList<>(textIndexes.size());
+    int size = 0;
+    for (PropertyTextIndex textIndex : textIndexes) {
+      if (textIndex.size != 0) {
+        wordIndexes.add(textIndex.wordIndex);
+        size += textIndex.size;
+      }
+    }
+    return new PropertyTextIndex(new CombinedIndexAdapter(wordIndexes), size);
+  }
+
+  /**
+   * @param query words to search for, in any form the user would type them (`pool size`, `poolSize`, `pool-size`)
+   * @param limit maximum no of results
+   * @return properties matching the query, best match first. Last word of the query is treated as a prefix
+   */
+  List<MetadataPropertySuggestionNode> search(String query, int limit) {
+    List<String> words = toWords(query);
+    if (words.isEmpty() || size == 0) {
+      return emptyList();
+    }
+    return engine.search(String.join(" ", words), limit).stream().map(PropertyDocument::getNode)
+        .collect(toList());
+  }
+
+  /**
+   * Splits the text into lower cased words, at anything other than a letter/digit & at camel case boundaries.
+   * Stop words are dropped, as they would match almost every description
+   *
+   * @param text text to split
+   * @return words in the order of their appearance
+   */
+  static List<String> toWords(@Nullable String text) {
+    if (text == null || text.isEmpty()) {
+      return emptyList();
+    }
+    List<String> words = new ArrayList<>();
+    int wordStart = -1;
+    for (int i = 0; i <= text.length(); i++) {
+      char c = i < text.length() ? text.charAt(i) : ' ';
+      boolean letterOrDigit = Character.isLetterOrDigit(c);
+      boolean camelBoundary = wordStart != -1 && Character.isUpperCase(c) && Character
+          .isLowerCase(text.charAt(i - 1));
+      if (wordStart != -1 && (!letterOrDigit || camelBoundary)) {
+        addWord(words, text.substring(wordStart, i));
+        wordStart = -1;
+      }
+      if (letterOrDigit && wordStart == -1) {
+        wordStart = i;
+      }
+    }
+    return words;
+  }
+
+  private static void addWord(List<String> words, String word) {
+    String lowerCased = word.toLowerCase();
+    if (!STOP_WORDS.contains(lowerCased)) {
+      words.add(lowerCased);
+    }
+  }
+
+  private static Set<String> loadStopWords() {
+    InputStream stream = PropertyTextIndex.class.getResourceAsStream("/stopwords-en.txt");
+    if (stream == null) {
+      log.warn("Stop words are not bundled, full text search would match every description");
+      return emptySet();
+    }
+    Set<String> stopWords = new HashSet<>();
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, UTF_8))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        String stopWord = line.trim();
+        if (!stopWord.isEmpty()) {
+          stopWords.add(stopWord.toLowerCase());
+        }
+      }
+    } catch (IOException e) {
+      log.warn("Failed to load stop words", e);
+    }
+    return stopWords;
+  }
+
+
+  /**
+   * Searchable view of a property. Text is handed over to the engine as words that are already split & cleaned up,
+   * so that the engine only has to split at spaces
+   */
+  private static class PropertyDocument implements Indexable {
+    @Getter
+    private final MetadataPropertySuggestionNode node;
+    private final Set<String> nameWords;
+    private final Set<String> hintValueWords;
+    private final List<String> fields;
+
+    PropertyDocument(MetadataPropertySuggestionNode node) {
+      this.node = node;
+      SpringConfigurationMetadataProperty property = node.getProperty();
+      nameWords = new LinkedHashSet<>(toWords(property.getName()));
+      hintValueWords = new LinkedHashSet<>();
+      SpringConfigurationMetadataHint hint = property.getGenericOrKeyHint();
+      if (hint != null && hint.hasPredefinedValues()) {
+        for (SpringConfigurationMetadataHintValue value : hint.getValues()) {
+          if (value.representsSingleValue()) {
+            hintValueWords.addAll(toWords(value.toString()));
+          }
+        }
+      }
+      fields = new ArrayList<>(3);
+      fields.add(String.join(" ", nameWords));
+      fields.add(String.join(" ", hintValueWords));
+      fields.add(String.join(" ", toWords(property.getDescription())));
+    }
+
+    @Override
+    public List<String> getFields() {
+      return fields;
+    }
+
+    /**
+     * Shorter names are more likely to be what the user is after, when words match equally well
+     */
+    @Override
+    public double getScore() {
+      return 1.0 / (1 + nameWords.size());
+    }
+
+    double weightOf(String word) {
+      if (nameWords.contains(word)) {
+        return NAME_WEIGHT;
+      } else if (hintValueWords.contains(word)) {
+        return HINT_VALUE_WEIGHT;
+      }
+      return DESCRIPTION_WEIGHT;
+    }
+  }
+
+
+  /**
+   * Sorted word -> documents map. A query token matches all words it is a prefix of, so that the user need not type complete words.
+   * Closer the length of the word to the token & more relevant the field it appears in, higher the score
+   */
+  private static class WordIndexAdapter implements IndexAdapter<PropertyDocument> {
+    private final NavigableMap<String, Map<PropertyDocument, Double>> wordToDocumentWeights =
+        new TreeMap<>();
+
+    @Override
+    public Collection<ScoredObject<PropertyDocument>> get(String token) {
+      Map<PropertyDocument, Double> documentToScore = new HashMap<>();
+      wordToDocumentWeights.subMap(token, true, token + Character.MAX_VALUE, false)
+          .forEach((word, documentToWeight) -> {
+            double matchQuality = (double) token.length() / word.length();
+            documentToWeight.forEach((document, weight) -> documentToScore
+                .merge(document, weight * matchQuality, Math::max));
+          });
+      List<ScoredObject<PropertyDocument>> matches = new ArrayList<>(documentToScore.size());
+      documentToScore.forEach((document, score) -> matches.add(new ScoredObject<>(document, score)));
+      return matches;
+    }
+
+    @Override
+    public boolean put(String token, @Nullable PropertyDocument value) {
+      if (value == null) {
+        return false;
+      }
+      // same word can appear in multiple fields, best field wins
+      wordToDocumentWeights.computeIfAbsent(token, word -> new HashMap<>())
+          .merge(value, value.weightOf(token), Math::max);
+      return true;
+    }
+
+    @Override
+    public boolean remove(PropertyDocument value) {
+      boolean removed = false;
+      Iterator<Map<PropertyDocument, Double>> iterator =
+          wordToDocumentWeights.values().iterator();
+      while (iterator.hasNext()) {
+        Map<PropertyDocument, Double> documentToWeight = iterator.next();
+        if (documentToWeight.remove(value) != null) {
+          removed = true;
+          if (documentToWeight.isEmpty()) {
+            iterator.remove();
+          }
+        }
+      }
+      return removed;
+    }
+  }
+
+  /**
+   * Word indexes of disjoint sets of properties, searched as one. A property lives in a single index, so matches need no merging
+   */
+  private static class CombinedIndexAdapter implements IndexAdapter<PropertyDocument> {
+    private final List<IndexAdapter<PropertyDocument>> wordIndexes;
+
+    CombinedIndexAdapter(List<IndexAdapter<PropertyDocument>> wordIndexes) {
+      this.wordIndexes = wordIndexes;
+    }
+
+    @Override
+    public Collection<ScoredObject<PropertyDocument>> get(String token) {
+      List<ScoredObject<PropertyDocument>> matches = new ArrayList<>();
+      for (IndexAdapter<PropertyDocument> wordIndex : wordIndexes) {
+        matches.addAll(wordIndex.get(token));
+      }
+      return matches;
+    }
+
+    @Override
+    public boolean put(String token, @Nullable PropertyDocument value) {
+      throw new UnsupportedOperationException("Combined index is read only");
+    }
+
+    @Override
+    public boolean remove(PropertyDocument value) {
+      throw new UnsupportedOperationException("Combined index is read only");
+    }
+  }
+}
@@ -0,0 +1,68 @@
+package in.oneton.idea.spring.assistant.plugin.suggestion.service;
+
+import in.oneton.idea.spring.assistant.plugin.misc.ChildTable;
+import in.oneton.idea.spring.assistant.plugin.suggestion.metadata.MetadataNonPropertySuggestionNode;
+import in.oneton.idea.spring.assistant.plugin.suggestion.metadata.MetadataPropertySuggestionNode;
+import in.oneton.idea.spring.assistant.plugin.suggestion.metadata.MetadataSuggestionNode;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Indexes derived from the subtree of a single root. A root whose subtree is not touched by reindexing is shared by the new snapshot as is,
+ * & so are its derived indexes, see {@link SuggestionIndex#buildDerivedIndexes()}. Never modified once built
+ */
+@Getter
+class RootIndex {
+  /**
+   * Sanitised dot delimited path from root -> node, for every node in the subtree
+   */
+  private final ChildTable<MetadataSuggestionNode> pathToNode;
+  /**
+   * Sanitised name -> nodes (at any depth) of the subtree with that name
+   */
+  private final ChildTable<List<MetadataSuggestionNode>> segmentToNodes;
+  /**
+   * Words of names, descriptions & hint values -> properties of the subtree
+   */
+  private final PropertyTextIndex propertyTextIndex;
+
+  private RootIndex(ChildTable<MetadataSuggestionNode> pathToNode,
+      ChildTable<List<MetadataSuggestionNode>> segmentToNodes, PropertyTextIndex propertyTextIndex) {
+    this.pathToNode = pathToNode;
+    this.segmentToNodes = segmentToNodes;
+    this.propertyTextIndex = propertyTextIndex;
+  }
+
+  /**
+   * @param root root whose subtree is completely built
+   * @return indexes of the subtree
+   */
+  static RootIndex build(MetadataSuggestionNode root) {
+    Map<String, MetadataSuggestionNode> pathToNode = new HashMap<>();
+    Map<String, List<MetadataSuggestionNode>> segmentToNodes = new HashMap<>();
+    List<MetadataPropertySuggestionNode> propertyNodes = new ArrayList<>();
+    collect(root, root.getName(), pathToNode, segmentToNodes, propertyNodes);
+    return new RootIndex(ChildTable.of(pathToNode), ChildTable.of(segmentToNodes),
+        PropertyTextIndex.build(propertyNodes));
+  }
+
+  private static void collect(MetadataSuggestionNode node, String path,
+      Map<String, MetadataSuggestionNode> pathToNode, Map<String, List<MetadataSuggestionNode>> segmentToNodes,
+      List<MetadataPropertySuggestionNode> propertyNodes) {
+    pathToNode.put(path, node);
+    segmentToNodes.computeIfAbsent(node.getName(), name -> new ArrayList<>(1)).add(node);
+    if (node.isProperty()) {
+      propertyNodes.add((MetadataPropertySuggestionNode) node);
+    } else {
+      ChildTable<MetadataSuggestionNode> children = ((MetadataNonPropertySuggestionNode) node).getChildren();
+      if (children != null) {
+        children.forEach((name, child) -> collect(child, path + "." + name, pathToNode, segmentToNodes,
+            propertyNodes));
+      }
+    }
+  }
+}
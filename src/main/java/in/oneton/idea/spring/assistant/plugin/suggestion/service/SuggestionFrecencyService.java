@@ -0,0 +1,96 @@
+package in.oneton.idea.spring.assistant.plugin.suggestion.service;
+
+import com.intellij.openapi.components.PersistentStateComponent;
+import com.intellij.openapi.components.State;
+import com.intellij.openapi.components.Storage;
+import com.intellij.openapi.components.StoragePathMacros;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A Project level service that remembers which suggestions the user accepted & when, so that completion can rank
+ * the handful of keys that are used over & over again ahead of the thousands that never are.
+ * <p>
+ * Score of a path is the no of times it was accepted, weighted by how long ago it was accepted last (frecency).
+ * Only the most relevant {@link #MAX_ENTRIES} paths are remembered, the rest are forgotten as newer ones come in
+ */
+@State(name = "SpringBootAssistantFrecency", storages = @Storage(StoragePathMacros.WORKSPACE_FILE))
+public class SuggestionFrecencyService
+    implements PersistentStateComponent<SuggestionFrecencyService.FrecencyState> {
+  private static final int MAX_ENTRIES = 1000;
+
+  private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+  private FrecencyState state = new FrecencyState();
+
+  /**
+   * @param dotDelimitedPath original path (as inserted) of the accepted suggestion
+   */
+  public synchronized void recordAccepted(String dotDelimitedPath) {
+    long now = System.currentTimeMillis();
+    Usage usage = state.pathToUsage.computeIfAbsent(dotDelimitedPath, path -> new Usage());
+    usage.count++;
+    usage.lastUsedMillis = now;
+    if (state.pathToUsage.size() > MAX_ENTRIES) {
+      // lets forget the least relevant path, other than the one that was just used
+      state.pathToUsage.entrySet().stream().filter(entry -> entry.getValue() != usage)
+          .min(Comparator.comparingDouble(entry -> entry.getValue().score(now)))
+          .ifPresent(entry -> state.pathToUsage.remove(entry.getKey()));
+    }
+  }
+
+  /**
+   * @param dotDelimitedPath original path of the suggestion
+   * @return frecency of the path, 0 if it was never accepted
+   */
+  public synchronized double frecencyOf(String dotDelimitedPath) {
+    Usage usage = state.pathToUsage.get(dotDelimitedPath);
+    return usage == null ? 0 : usage.score(System.currentTimeMillis());
+  }
+
+  @NotNull
+  @Override
+  public synchronized FrecencyState getState() {
+    return state;
+  }
+
+  @Override
+  public synchronized void loadState(@NotNull FrecencyState state) {
+    this.state = state;
+  }
+
+
+  public static class FrecencyState {
+    public Map<String, Usage> pathToUsage = new HashMap<>();
+  }
+
+
+  public static class Usage {
+    public int count;
+    public long lastUsedMillis;
+
+    /**
+     * Older usages fade away in steps, the way browsers rank their url history
+     */
+    double score(long now) {
+      long ageInDays = (now - lastUsedMillis) / DAY_MILLIS;
+      double recencyWeight;
+      if (ageInDays < 4) {
+        recencyWeight = 1.0;
+      } else if (ageInDays < 14) {
+        recencyWeight = 0.7;
+      } else if (ageInDays < 31) {
+        recencyWeight = 0.5;
+      } else if (ageInDays < 90) {
+        recencyWeight = 0.3;
+      } else {
+        recencyWeight = 0.1;
+      }
+      return count * recencyWeight;
+    }
+  }
+}
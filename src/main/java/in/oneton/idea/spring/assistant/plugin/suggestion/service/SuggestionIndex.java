@@ -0,0 +1,189 @@
+package in.oneton.idea.spring.assistant.plugin.suggestion.service;
+
+import in.oneton.idea.spring.assistant.plugin.misc.PathTokenizer;
+import in.oneton.idea.spring.assistant.plugin.suggestion.metadata.MetadataContainerInfo;
+import in.oneton.idea.spring.assistant.plugin.suggestion.metadata.MetadataSuggestionNode;
+import lombok.Getter;
+import org.apache.commons.collections4.Trie;
+import org.apache.commons.collections4.trie.PatriciaTrie;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Snapshot of the index of a module. Once published, the tree of a snapshot is never modified, so searches can read it without any locking.
+ * Reindexing works on a {@link #copy()} of the published snapshot & publishes the copy only after it is completely built.
+ * <p>
+ * A copy shares the subtrees of all roots with the snapshot it is copied from. Before a subtree is modified, the whole subtree of its root is
+ * copied ({@link #modifiableRoot(String)}), so reindexing costs in proportion to the subtrees of the roots touched by the modified containers,
+ * rather than to the whole tree. Sharing is per root & not per node, as nodes refer to their parents, so a node can not be shared by two
+ * different parents. Derived indexes are kept per root as well & are rebuilt only for the roots that were copied/added/removed.
+ * <p>
+ * Group/property metadata attached to the nodes is shared with the copy & only ever receives reference updates (hints, class proxies).
+ * The same metadata is shared with the indexes of other modules as well ({@link ContainerMetadataCache}), but nodes are not, as each module
+ * builds its own tree with container ids from its own {@link ContainerRegistry}
+ */
+class SuggestionIndex {
+  @Getter
+  private final Map<String, MetadataContainerInfo> seenContainerPathToContainerInfo = new HashMap<>();
+  /**
+   * Within the trie, all keys are stored in sanitised format to enable us find keys without worrying about hyphens, underscores, e.t.c in the keys themselves.
+   * Must not be modified directly, see {@link #modifiableRoot(String)}, {@link #addRoot(String, MetadataSuggestionNode)} & {@link #removeRoot(String)}
+   */
+  @Getter
+  private final Trie<String, MetadataSuggestionNode> rootSearchIndex = new PatriciaTrie<>();
+  /**
+   * Nodes refer to the containers they belong to by id, see {@link MetadataSuggestionNode#getBelongsTo()}
+   */
+  @Getter
+  private final ContainerRegistry containerRegistry;
+  /**
+   * Sanitised root name -> indexes derived from the subtree of the root. Rebuilt by {@link #buildDerivedIndexes()} only for the roots
+   * that are modified, rest are carried over by {@link #copy()}
+   */
+  private final Map<String, RootIndex> rootNameToIndex = new HashMap<>();
+  /**
+   * Roots that were added/copied by this snapshot (& hence are not shared with any other snapshot), till the derived indexes are built
+   */
+  private final Set<String> modifiedRootNames = new HashSet<>();
+  /**
+   * Words of property names, descriptions & hint values -> properties, over the text indexes of all roots
+   */
+  @Getter
+  private PropertyTextIndex propertyTextIndex = PropertyTextIndex.EMPTY;
+
+  SuggestionIndex() {
+    this(new ContainerRegistry());
+  }
+
+  private SuggestionIndex(ContainerRegistry containerRegistry) {
+    this.containerRegistry = containerRegistry;
+  }
+
+  /**
+   * @return copy of this snapshot that shares the subtrees of all roots with this snapshot, till these are requested for modification
+   */
+  SuggestionIndex copy() {
+    SuggestionIndex copy = new SuggestionIndex(containerRegistry.copy());
+    copy.seenContainerPathToContainerInfo.putAll(seenContainerPathToContainerInfo);
+    copy.rootSearchIndex.putAll(rootSearchIndex);
+    copy.rootNameToIndex.putAll(rootNameToIndex);
+    copy.propertyTextIndex = propertyTextIndex;
+    return copy;
+  }
+
+  /**
+   * Copies the subtree of the root the first time it is requested, so that the subtree can be modified without affecting
+   * searches on the snapshot this was copied from
+   *
+   * @param rootName sanitised name of the root
+   * @return root that can be modified, null if there is no such root
+   */
+  @Nullable
+  MetadataSuggestionNode modifiableRoot(String rootName) {
+    MetadataSuggestionNode root = rootSearchIndex.get(rootName);
+    if (root != null && modifiedRootNames.add(rootName)) {
+      root = root.deepCopy(null);
+      rootSearchIndex.put(rootName, root);
+    }
+    return root;
+  }
+
+  void addRoot(String rootName, MetadataSuggestionNode root) {
+    modifiedRootNames.add(rootName);
+    rootSearchIndex.put(rootName, root);
+  }
+
+  void removeRoot(String rootName) {
+    modifiedRootNames.add(rootName);
+    rootSearchIndex.remove(rootName);
+  }
+
+  /**
+   * @param rootName sanitised name of the root
+   * @return true if the subtree of the root holds nodes of the container
+   */
+  boolean rootBelongsTo(String rootName, int containerId) {
+    MetadataSuggestionNode root = rootSearchIndex.get(rootName);
+    // references cascade till root, so root belongs to every container any of its descendants belong to
+    return root != null && root.getBelongsTo().get(containerId);
+  }
+
+  /**
+   * Builds the indexes that are derived from the subtrees of the modified roots. Should be called once the tree of this snapshot is completely built
+   */
+  void buildDerivedIndexes() {
+    if (modifiedRootNames.isEmpty()) {
+      return;
+    }
+    for (String rootName : modifiedRootNames) {
+      MetadataSuggestionNode root = rootSearchIndex.get(rootName);
+      if (root != null) {
+        rootNameToIndex.put(rootName, RootIndex.build(root));
+      } else {
+        rootNameToIndex.remove(rootName);
+      }
+    }
+    modifiedRootNames.clear();
+    propertyTextIndex = PropertyTextIndex.combine(
+        rootNameToIndex.values().stream().map(RootIndex::getPropertyTextIndex).collect(toList()));
+  }
+
+  /**
+   * @param sanitisedPath sanitised dot delimited path
+   * @return node at the path, null if there is no such node
+   */
+  @Nullable
+  MetadataSuggestionNode findNode(String sanitisedPath) {
+    int rootNameEnd = sanitisedPath.indexOf('.');
+    RootIndex rootIndex =
+        rootNameToIndex.get(rootNameEnd == -1 ? sanitisedPath : sanitisedPath.substring(0, rootNameEnd));
+    return rootIndex != null ? rootIndex.getPathToNode().get(sanitisedPath) : null;
+  }
+
+  /**
+   * Resolves the path straight off the keys, sanitising only the first segment, see {@link PathTokenizer#compareTo(String)}
+   *
+   * @param tokenizer tokenizer over the raw keys of the path
+   * @return node at the path, null if there is no such node
+   */
+  @Nullable
+  MetadataSuggestionNode findNode(PathTokenizer tokenizer) {
+    if (!tokenizer.rewind().next()) {
+      return null;
+    }
+    RootIndex rootIndex = rootNameToIndex.get(tokenizer.segment());
+    return rootIndex != null ? rootIndex.getPathToNode().find(tokenizer::compareTo) : null;
+  }
+
+  /**
+   * @param sanitisedPrefix sanitised prefix
+   * @return nodes (at any depth) whose names start with the prefix, grouped by name
+   */
+  List<List<MetadataSuggestionNode>> findNodesWithNamePrefix(String sanitisedPrefix) {
+    List<List<MetadataSuggestionNode>> matches = new ArrayList<>();
+    for (RootIndex rootIndex : rootNameToIndex.values()) {
+      matches.addAll(rootIndex.getSegmentToNodes().prefixValues(sanitisedPrefix));
+    }
+    return matches;
+  }
+
+  /**
+   * @return all nodes of the snapshot
+   */
+  Collection<MetadataSuggestionNode> getNodes() {
+    List<MetadataSuggestionNode> nodes = new ArrayList<>();
+    for (RootIndex rootIndex : rootNameToIndex.values()) {
+      nodes.addAll(rootIndex.getPathToNode().values());
+    }
+    return nodes;
+  }
+}
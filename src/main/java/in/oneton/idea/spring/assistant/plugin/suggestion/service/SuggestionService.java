@@ -2,16 +2,27 @@ package in.oneton.idea.spring.assistant.plugin.suggestion.service;
 
 import com.intellij.codeInsight.lookup.LookupElement;
 import com.intellij.openapi.module.Module;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.util.ModificationTracker;
 import com.intellij.psi.PsiElement;
+import com.intellij.util.Processor;
+import in.oneton.idea.spring.assistant.plugin.suggestion.Suggestion;
 import in.oneton.idea.spring.assistant.plugin.suggestion.SuggestionNode;
 import in.oneton.idea.spring.assistant.plugin.suggestion.completion.FileType;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.yaml.psi.YAMLFile;
+import org.jetbrains.yaml.psi.YAMLKeyValue;
 
 import javax.annotation.Nullable;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.ToDoubleFunction;
 
-public interface SuggestionService {
+/**
+ * Modification count of the service changes every time the module is reindexed
+ */
+public interface SuggestionService extends ModificationTracker {
   static SuggestionService getInstance(@NotNull Module module) {
     return module.getService(SuggestionService.class);
   }
@@ -19,21 +30,54 @@ public interface SuggestionService {
   @Nullable
   List<SuggestionNode> findMatchedNodesRootTillEnd(List<String> containerElements);
 
+  /**
+   * Resolves every key of the file in a single pass. Each key is resolved from where its parent key was resolved,
+   * instead of resolving the whole path of every key from root, as {@link #findMatchedNodesRootTillEnd(List)} would
+   *
+   * @param file file to resolve the keys of
+   * @return key -> nodes from root till the node of the key. Keys that do not match any node are absent.
+   * Keys that are accepted without a node of their own (i.e keys of a map) are mapped to an empty list
+   */
+  Map<YAMLKeyValue, List<SuggestionNode>> findMatchedNodesRootTillEnd(YAMLFile file);
+
   @SuppressWarnings("BooleanMethodIsAlwaysInverted")
   boolean canProvideSuggestions();
 
   /**
+   * Hands over the suggestions to the consumer as soon as they are found, prioritised by their relevance so that the lookup can order them.
+   * Search stops once `limit` suggestions are handed over, so the rest of the index is not walked for candidates that would not be shown.
+   * Search checks for cancellation as it moves from one node to the other
+   *
    * @param fileType                      type of file requesting suggestion
    * @param element                       element on which search is triggered. Useful for cases like identifying chioces that were already selected incase of an enum, e.t.c
    * @param ancestralKeys                 hierarchy of element from where the suggestion is requested. i.e if in yml user is trying to get suggestions for `s.a` under `spring:\n\trabbitmq.listener:` element, then this value would ['spring', 'rabbitmq.listener']
    * @param queryWithDotDelimitedPrefixes query string user is trying to search for. In the above example, the value for this would be `s.a`
    * @param siblingsToExclude             siblings to exclude from search
-   * @return results matching query string (without the containerElementsLeafToRoot). In the above example the values would be `simple.acknowledge-mode` & `simple.auto-startup`
+   * @param limit                         maximum no of suggestions to hand over
+   * @param relevance                     scores the candidates, higher is better
+   * @param consumer                      receives the suggestions (without the containerElementsLeafToRoot) in the order they are found, search stops when this returns false.
+   *                                      In the above example the values would be `simple.acknowledge-mode` & `simple.auto-startup`
    */
-  @Nullable
-  List<LookupElement> findSuggestionsForQueryPrefix(FileType fileType, PsiElement element,
-      @Nullable List<String> ancestralKeys,
-      String queryWithDotDelimitedPrefixes, @Nullable Set<String> siblingsToExclude);
+  void findSuggestionsForQueryPrefix(FileType fileType, PsiElement element,
+      @Nullable List<String> ancestralKeys, String queryWithDotDelimitedPrefixes,
+      @Nullable Set<String> siblingsToExclude, int limit, ToDoubleFunction<Suggestion> relevance,
+      Processor<? super LookupElement> consumer);
 
-  void reindex();
+  /**
+   * Searches property names, descriptions & hint values for the words of the query, irrespective of where they appear in the property path
+   *
+   * @param fileType type of file requesting suggestions
+   * @param query    words to search for (`pool size`, `poolSize`, `pool-size`), last word can be partial
+   * @param limit    maximum no of suggestions
+   * @return suggestions for matching properties, best match first
+   */
+  List<LookupElement> findSuggestionsForText(FileType fileType, String query, int limit);
+
+  /**
+   * Brings the index up to date with the classpath of the module. Runs on the calling thread, which should be a background thread.
+   * Reindexing is usually requested via {@link ProjectSuggestionService}, which coalesces requests
+   *
+   * @param indicator progress of this run, reindexing stops (leaving the current index untouched) once this is cancelled
+   */
+  void reindex(ProgressIndicator indicator);
 }
@@ -1,58 +1,68 @@
 package in.oneton.idea.spring.assistant.plugin.suggestion.service;
 
-import com.google.gson.GsonBuilder;
+import com.intellij.codeInsight.completion.PrioritizedLookupElement;
 import com.intellij.codeInsight.lookup.LookupElement;
+import com.intellij.openapi.application.ReadAction;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.module.Module;
-import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.roots.OrderEnumerator;
+import com.intellij.openapi.roots.OrderRootsEnumerator;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.util.registry.Registry;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiClassType;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiType;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.psi.util.PsiUtilCore;
+import com.intellij.util.Processor;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import in.oneton.idea.spring.assistant.plugin.misc.PathTokenizer;
 import in.oneton.idea.spring.assistant.plugin.suggestion.Suggestion;
+import in.oneton.idea.spring.assistant.plugin.suggestion.SuggestionConsumer;
 import in.oneton.idea.spring.assistant.plugin.suggestion.SuggestionNode;
+import in.oneton.idea.spring.assistant.plugin.suggestion.SuggestionNodeType;
+import in.oneton.idea.spring.assistant.plugin.suggestion.clazz.ClassMetadataWarmUp;
+import in.oneton.idea.spring.assistant.plugin.suggestion.clazz.MetadataProxy;
 import in.oneton.idea.spring.assistant.plugin.suggestion.completion.FileType;
 import in.oneton.idea.spring.assistant.plugin.suggestion.metadata.MetadataContainerInfo;
+import in.oneton.idea.spring.assistant.plugin.suggestion.metadata.MetadataFileScanCache;
 import in.oneton.idea.spring.assistant.plugin.suggestion.metadata.MetadataNonPropertySuggestionNode;
 import in.oneton.idea.spring.assistant.plugin.suggestion.metadata.MetadataPropertySuggestionNode;
 import in.oneton.idea.spring.assistant.plugin.suggestion.metadata.MetadataSuggestionNode;
-import in.oneton.idea.spring.assistant.plugin.suggestion.metadata.json.GsonPostProcessEnablingTypeFactory;
 import in.oneton.idea.spring.assistant.plugin.suggestion.metadata.json.SpringConfigurationMetadata;
 import in.oneton.idea.spring.assistant.plugin.suggestion.metadata.json.SpringConfigurationMetadataGroup;
 import in.oneton.idea.spring.assistant.plugin.suggestion.metadata.json.SpringConfigurationMetadataHint;
 import in.oneton.idea.spring.assistant.plugin.suggestion.metadata.json.SpringConfigurationMetadataProperty;
-import in.oneton.idea.spring.assistant.plugin.suggestion.metadata.json.SpringConfigurationMetadataValueProviderType;
-import in.oneton.idea.spring.assistant.plugin.suggestion.metadata.json.SpringConfigurationMetadataValueProviderTypeDeserializer;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.collections4.MapUtils;
 import org.apache.commons.collections4.Trie;
-import org.apache.commons.collections4.trie.PatriciaTrie;
 import org.apache.commons.lang.time.StopWatch;
+import org.jetbrains.yaml.psi.YAMLFile;
+import org.jetbrains.yaml.psi.YAMLKeyValue;
 
 import javax.annotation.Nullable;
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
 import java.util.SortedMap;
+import java.util.function.ToDoubleFunction;
 
-import static com.intellij.openapi.application.ApplicationManager.getApplication;
 import static in.oneton.idea.spring.assistant.plugin.misc.GenericUtil.modifiableList;
 import static in.oneton.idea.spring.assistant.plugin.misc.GenericUtil.truncateIdeaDummyIdentifier;
-import static in.oneton.idea.spring.assistant.plugin.suggestion.Suggestion.PERIOD_DELIMITER;
 import static in.oneton.idea.spring.assistant.plugin.suggestion.SuggestionNode.sanitise;
 import static java.util.Arrays.stream;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.newSetFromMap;
 import static java.util.Collections.singletonList;
 import static java.util.Collections.unmodifiableList;
-import static java.util.Comparator.comparing;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toSet;
 
@@ -62,51 +72,140 @@ import static java.util.stream.Collectors.toSet;
  */
 public class SuggestionServiceImpl implements SuggestionService {
     private static final Logger log = Logger.getInstance(SuggestionServiceImpl.class);
+    private static final String WARM_UP_DEPTH_REGISTRY_KEY = "spring.assistant.metadata.warm.up.depth";
 
     private final Module module;
-    private final Map<String, MetadataContainerInfo> seenContainerPathToContainerInfo;
     /**
-     * Within the trie, all keys are stored in sanitised format to enable us find keys without worrying about hyphens, underscores, e.t.c in the keys themselves
+     * Published snapshot of the index. Searches always see a complete index, reindexing builds a new snapshot off to the side & swaps it in
      */
-    private final Trie<String, MetadataSuggestionNode> rootSearchIndex;
-    private boolean indexAvailable = false;
+    private volatile SuggestionIndex index;
+    private volatile long indexModificationCount;
 
 
     SuggestionServiceImpl(Module module) {
         this.module = module;
-        seenContainerPathToContainerInfo = new HashMap<>();
-        rootSearchIndex = new PatriciaTrie<>();
+        index = new SuggestionIndex();
     }
 
     private static String firstPathSegment(String element) {
-        return element.trim().split(PERIOD_DELIMITER, -1)[0];
+        PathTokenizer tokenizer = new PathTokenizer().reset(element);
+        tokenizer.next();
+        return tokenizer.rawSegment();
     }
 
     private static String[] toSanitizedPathSegments(String element) {
-        String[] splits = element.trim().split(PERIOD_DELIMITER, -1);
-        for (int i = 0; i < splits.length; i++) {
-            splits[i] = sanitise(splits[i]);
-        }
-        return splits;
+        return new PathTokenizer().reset(element).sanitisedSegments();
     }
 
     private static String[] toRawPathSegments(String element) {
-        String[] splits = element.trim().split(PERIOD_DELIMITER, -1);
-        for (int i = 0; i < splits.length; i++) {
-            splits[i] = splits[i].trim();
-        }
-        return splits;
+        return new PathTokenizer().reset(element).rawSegments();
     }
 
 
     @Nullable
     @Override
     public List<SuggestionNode> findMatchedNodesRootTillEnd(List<String> containerElements) {
-        String[] pathSegments = containerElements
-                .stream()
-                .flatMap(element -> stream(toSanitizedPathSegments(element)))
-                .toArray(String[]::new);
-        MetadataSuggestionNode searchStartNode = rootSearchIndex.get(pathSegments[0]);
+        SuggestionIndex suggestionIndex = index;
+        PathTokenizer tokenizer = new PathTokenizer().reset(containerElements);
+        // Most keys in a file are plain metadata paths, lets resolve them straight off the keys without sanitising & joining the segments
+        MetadataSuggestionNode node = suggestionIndex.findNode(tokenizer);
+        if (node != null) {
+            return matchesRootTill(node);
+        }
+        return findMatchedNodesRootTillEnd(suggestionIndex, tokenizer.sanitisedSegments());
+    }
+
+    @Override
+    public Map<YAMLKeyValue, List<SuggestionNode>> findMatchedNodesRootTillEnd(YAMLFile file) {
+        SuggestionIndex suggestionIndex = index;
+        Map<YAMLKeyValue, List<SuggestionNode>> keyValueToMatches = new HashMap<>();
+        PathTokenizer tokenizer = new PathTokenizer();
+        // Parents are always visited before their children, so every key continues from where its parent key was resolved
+        for (YAMLKeyValue keyValue : PsiTreeUtil.findChildrenOfType(file, YAMLKeyValue.class)) {
+            ProgressManager.checkCanceled();
+            YAMLKeyValue parentKeyValue = PsiTreeUtil.getParentOfType(keyValue, YAMLKeyValue.class);
+            List<SuggestionNode> matches;
+            if (parentKeyValue == null) {
+                matches = findMatchedNodesRootTillEnd(suggestionIndex,
+                        tokenizer.reset(truncateIdeaDummyIdentifier(keyValue.getKeyText())).sanitisedSegments());
+            } else {
+                List<SuggestionNode> parentMatches = keyValueToMatches.get(parentKeyValue);
+                if (parentMatches == null) {
+                    // Nothing below an unknown key can be known
+                    continue;
+                }
+                matches = parentMatches.isEmpty() ?
+                        parentMatches :
+                        findMatchedNodesFrom(suggestionIndex, keyValue, parentMatches, tokenizer);
+            }
+            if (matches != null) {
+                keyValueToMatches.put(keyValue, matches);
+            }
+        }
+        return keyValueToMatches;
+    }
+
+    /**
+     * @param parentMatches nodes from root till the node of the parent key
+     * @return nodes from root till the node of the key, null if no node matches
+     */
+    @Nullable
+    private List<SuggestionNode> findMatchedNodesFrom(SuggestionIndex suggestionIndex, YAMLKeyValue keyValue,
+                                                      List<SuggestionNode> parentMatches, PathTokenizer tokenizer) {
+        String[] pathSegments = tokenizer.reset(truncateIdeaDummyIdentifier(keyValue.getKeyText())).sanitisedSegments();
+        SuggestionNode parentNode = parentMatches.get(parentMatches.size() - 1);
+        List<SuggestionNode> matches =
+                parentNode.findDeepestSuggestionNode(module, new ArrayList<>(parentMatches), pathSegments, 0);
+        if (matches != null) {
+            return matches;
+        }
+        // Unknown keys are rare, lets leave the special cases (map properties accepting any key, e.t.c) to the lookup of the whole path
+        List<String> ancestralKeys = new ArrayList<>();
+        PsiElement context = keyValue;
+        do {
+            if (context instanceof YAMLKeyValue) {
+                ancestralKeys.add(0, truncateIdeaDummyIdentifier(((YAMLKeyValue) context).getKeyText()));
+            }
+            context = context.getParent();
+        } while (context != null);
+        return findMatchedNodesRootTillEnd(suggestionIndex, tokenizer.reset(ancestralKeys).sanitisedSegments());
+    }
+
+    /**
+     * Paths that end at a metadata node are resolved with a single lookup in the flat path index. Paths that continue past a property
+     * (into class members, map keys, e.t.c) are resolved from the property onwards
+     *
+     * @param suggestionIndex index to search in
+     * @param pathSegments    sanitised path segments
+     * @return nodes from root till the node at the path, null if no node matches
+     */
+    @Nullable
+    private List<SuggestionNode> findMatchedNodesRootTillEnd(SuggestionIndex suggestionIndex, String[] pathSegments) {
+        String path = String.join(".", pathSegments);
+        MetadataSuggestionNode node = suggestionIndex.findNode(path);
+        if (node != null) {
+            return matchesRootTill(node);
+        }
+        int ancestorPathLength = path.length();
+        for (int i = pathSegments.length - 1; i > 0; i--) {
+            ancestorPathLength -= pathSegments[i].length() + 1;
+            MetadataSuggestionNode ancestor = suggestionIndex.findNode(path.substring(0, ancestorPathLength));
+            if (ancestor != null) {
+                if (ancestor.isProperty()) {
+                    List<SuggestionNode> deepestMatch =
+                            ancestor.findDeepestSuggestionNode(module, matchesRootTill(ancestor), pathSegments, i);
+                    // Same as the tree walk, a (non root) map property accepts any key even if its type could not tell
+                    if (deepestMatch == null && ancestor.getParent() != null
+                            && ancestor.getSuggestionNodeType(module) == SuggestionNodeType.MAP) {
+                        return emptyList();
+                    }
+                    return deepestMatch;
+                }
+                break;
+            }
+        }
+        // Lets leave the rest of the cases (if any) to the tree
+        MetadataSuggestionNode searchStartNode = suggestionIndex.getRootSearchIndex().get(pathSegments[0]);
         if (searchStartNode != null) {
             List<SuggestionNode> matches = modifiableList(searchStartNode);
             if (pathSegments.length > 1) {
@@ -117,35 +216,39 @@ public class SuggestionServiceImpl implements SuggestionService {
         return null;
     }
 
+    @Override
+    public long getModificationCount() {
+        return indexModificationCount;
+    }
+
     @Override
     public boolean canProvideSuggestions() {
-        return indexAvailable && !rootSearchIndex.isEmpty();
+        return !index.getRootSearchIndex().isEmpty();
     }
 
     @Override
-    public List<LookupElement> findSuggestionsForQueryPrefix(FileType fileType, PsiElement element,
-                                                             @Nullable List<String> ancestralKeys, String queryWithDotDelimitedPrefixes,
-                                                             @Nullable Set<String> siblingsToExclude) {
+    public void findSuggestionsForQueryPrefix(FileType fileType, PsiElement element,
+                                              @Nullable List<String> ancestralKeys, String queryWithDotDelimitedPrefixes,
+                                              @Nullable Set<String> siblingsToExclude, int limit,
+                                              ToDoubleFunction<Suggestion> relevance,
+                                              Processor<? super LookupElement> consumer) {
         debug(() -> log.debug("Search requested for " + queryWithDotDelimitedPrefixes));
         StopWatch timer = new StopWatch();
         timer.start();
+        SuggestionStream suggestions = new SuggestionStream(limit, relevance, consumer);
         try {
+            SuggestionIndex suggestionIndex = index;
+            Trie<String, MetadataSuggestionNode> rootSearchIndex = suggestionIndex.getRootSearchIndex();
             String[] querySegmentPrefixes = toSanitizedPathSegments(queryWithDotDelimitedPrefixes);
-            Set<Suggestion> suggestions = null;
             if (ancestralKeys != null) {
-                String[] ancestralKeySegments =
-                        ancestralKeys.stream().flatMap(key -> stream(toRawPathSegments(key)))
-                                .toArray(String[]::new);
-                MetadataSuggestionNode rootNode = rootSearchIndex.get(sanitise(ancestralKeySegments[0]));
+                String[] sanitisedAncestralPathSegments = new PathTokenizer().reset(ancestralKeys).sanitisedSegments();
+                MetadataSuggestionNode rootNode = rootSearchIndex.get(sanitisedAncestralPathSegments[0]);
                 if (rootNode != null) {
                     List<SuggestionNode> matchesRootToDeepest;
                     SuggestionNode startSearchFrom = null;
-                    if (ancestralKeySegments.length > 1) {
-                        String[] sanitisedAncestralPathSegments =
-                                stream(ancestralKeySegments).map(SuggestionNode::sanitise).toArray(String[]::new);
-                        matchesRootToDeepest = rootNode
-                                .findDeepestSuggestionNode(module, modifiableList(rootNode),
-                                        sanitisedAncestralPathSegments, 1);
+                    if (sanitisedAncestralPathSegments.length > 1) {
+                        matchesRootToDeepest =
+                                findMatchedNodesRootTillEnd(suggestionIndex, sanitisedAncestralPathSegments);
                         if (CollectionUtils.isNotEmpty(matchesRootToDeepest)) {
                             startSearchFrom = matchesRootToDeepest.get(matchesRootToDeepest.size() - 1);
                         }
@@ -157,84 +260,159 @@ public class SuggestionServiceImpl implements SuggestionService {
                     if (startSearchFrom != null) {
                         // if search start node is a leaf, this means, the user is looking for values for the given key, lets find the suggestions for values
                         if (startSearchFrom.isLeaf(module)) {
-                            suggestions = startSearchFrom.findValueSuggestionsForPrefix(module, fileType,
+                            suggestions.addAll(startSearchFrom.findValueSuggestionsForPrefix(module, fileType,
                                     unmodifiableList(matchesRootToDeepest),
-                                    sanitise(truncateIdeaDummyIdentifier(element.getText())), siblingsToExclude);
+                                    sanitise(truncateIdeaDummyIdentifier(element.getText())), siblingsToExclude));
                         } else {
-                            suggestions = startSearchFrom.findKeySuggestionsForQueryPrefix(module, fileType,
+                            startSearchFrom.findKeySuggestionsForQueryPrefix(module, fileType,
                                     unmodifiableList(matchesRootToDeepest), matchesRootToDeepest.size(),
-                                    querySegmentPrefixes, 0, siblingsToExclude);
+                                    querySegmentPrefixes, 0, siblingsToExclude, suggestions);
                         }
                     }
                 }
             } else {
-                String rootQuerySegmentPrefix = querySegmentPrefixes[0];
-                SortedMap<String, MetadataSuggestionNode> topLevelQueryResults =
-                        rootSearchIndex.prefixMap(rootQuerySegmentPrefix);
-
-                Collection<MetadataSuggestionNode> childNodes;
-                int querySegmentPrefixStartIndex;
+                // Every segment of the query is a prefix (`spring.data.r` also matches `spring.datasource.read-only`),
+                // so the path index can not narrow the search down to the nodes under a single path
+                findSuggestionsFromRoots(suggestionIndex, fileType, querySegmentPrefixes, siblingsToExclude,
+                        suggestions);
+            }
+        } finally {
+            timer.stop();
+            debug(() -> log.debug("Search took " + timer + ", found " + suggestions.size() + " suggestions"));
+        }
+    }
 
-                // If no results are found at the top level, let dive deeper and find matches
-                if (MapUtils.isEmpty(topLevelQueryResults)) {
-                    childNodes = rootSearchIndex.values();
-                    querySegmentPrefixStartIndex = 0;
-                } else {
-                    childNodes = topLevelQueryResults.values();
-                    querySegmentPrefixStartIndex = 1;
+    @Override
+    public List<LookupElement> findSuggestionsForText(FileType fileType, String query, int limit) {
+        debug(() -> log.debug("Full text search requested for " + query));
+        StopWatch timer = new StopWatch();
+        timer.start();
+        try {
+            List<MetadataPropertySuggestionNode> matches = index.getPropertyTextIndex().search(query, limit);
+            List<LookupElement> lookupElements = new ArrayList<>(matches.size());
+            for (MetadataPropertySuggestionNode match : matches) {
+                if (!match.getProperty().isDeprecatedError()) {
+                    Suggestion suggestion = match.getProperty()
+                            .buildKeySuggestion(module, fileType, matchesRootTill(match), 0);
+                    // Query need not be a prefix of the suggestion, so lets make sure lookup does not filter the match out
+                    lookupElements.add(suggestion.newLookupElement().withLookupString(query));
                 }
+            }
+            return lookupElements;
+        } finally {
+            timer.stop();
+            debug(() -> log.debug("Full text search took " + timer));
+        }
+    }
 
-                Collection<MetadataSuggestionNode> nodesToSearchAgainst;
-                if (siblingsToExclude != null) {
-                    Set<MetadataSuggestionNode> nodesToExclude = siblingsToExclude
-                            .stream()
-                            .flatMap(exclude -> rootSearchIndex.prefixMap(exclude).values().stream())
-                            .collect(toSet());
-                    nodesToSearchAgainst =
-                            childNodes.stream().filter(node -> !nodesToExclude.contains(node)).collect(toList());
-                } else {
-                    nodesToSearchAgainst = childNodes;
-                }
+    private static List<SuggestionNode> matchesRootTill(MetadataSuggestionNode node) {
+        List<SuggestionNode> matchesRootTillNode = new ArrayList<>();
+        MetadataSuggestionNode current = node;
+        do {
+            matchesRootTillNode.add(0, current);
+            current = current.getParent();
+        } while (current != null);
+        return matchesRootTillNode;
+    }
 
-                suggestions = doFindSuggestionsForQueryPrefix(fileType, nodesToSearchAgainst,
-                        querySegmentPrefixes, querySegmentPrefixStartIndex);
+    private void findSuggestionsFromRoots(SuggestionIndex suggestionIndex, FileType fileType, String[] querySegmentPrefixes,
+                                          @Nullable Set<String> siblingsToExclude, SuggestionStream suggestions) {
+        Trie<String, MetadataSuggestionNode> rootSearchIndex = suggestionIndex.getRootSearchIndex();
+        String rootQuerySegmentPrefix = querySegmentPrefixes[0];
+        SortedMap<String, MetadataSuggestionNode> topLevelQueryResults =
+                rootSearchIndex.prefixMap(rootQuerySegmentPrefix);
+
+        Collection<MetadataSuggestionNode> childNodes;
+        int querySegmentPrefixStartIndex;
+
+        // If no results are found at the top level, let dive deeper and find matches
+        if (MapUtils.isEmpty(topLevelQueryResults)) {
+            if (siblingsToExclude == null) {
+                findSuggestionsForAbbreviatedQuery(suggestionIndex, fileType, querySegmentPrefixes, suggestions);
+                return;
             }
+            childNodes = rootSearchIndex.values();
+            querySegmentPrefixStartIndex = 0;
+        } else {
+            childNodes = topLevelQueryResults.values();
+            querySegmentPrefixStartIndex = 1;
+        }
 
-            if (suggestions != null) {
-                return toLookupElements(suggestions);
-            }
-            return null;
-        } finally {
-            timer.stop();
-            debug(() -> log.debug("Search took " + timer));
+        Collection<MetadataSuggestionNode> nodesToSearchAgainst;
+        if (siblingsToExclude != null) {
+            Set<MetadataSuggestionNode> nodesToExclude = siblingsToExclude
+                    .stream()
+                    .flatMap(exclude -> rootSearchIndex.prefixMap(exclude).values().stream())
+                    .collect(toSet());
+            nodesToSearchAgainst =
+                    childNodes.stream().filter(node -> !nodesToExclude.contains(node)).collect(toList());
+        } else {
+            nodesToSearchAgainst = childNodes;
         }
+
+        doFindSuggestionsForQueryPrefix(fileType, nodesToSearchAgainst, querySegmentPrefixes,
+                querySegmentPrefixStartIndex, suggestions);
     }
 
-    @Nullable
-    private Set<Suggestion> doFindSuggestionsForQueryPrefix(FileType fileType,
-                                                            Collection<MetadataSuggestionNode> nodesToSearchWithin, String[] querySegmentPrefixes,
-                                                            int querySegmentPrefixStartIndex) {
-        Set<Suggestion> suggestions = null;
-        for (MetadataSuggestionNode suggestionNode : nodesToSearchWithin) {
-            Set<Suggestion> matchedSuggestions = suggestionNode
-                    .findKeySuggestionsForQueryPrefix(module, fileType, modifiableList(suggestionNode), 0,
-                            querySegmentPrefixes, querySegmentPrefixStartIndex);
-            if (matchedSuggestions != null) {
-                if (suggestions == null) {
-                    suggestions = new HashSet<>();
+    /**
+     * Segments of a query that does not match any root (`a.ch.c`) can match nodes at any depth, as long as they match in order.
+     * Instead of exploring every subtree, lets pick the nodes matching each segment from the segment index &
+     * keep only those whose ancestors match the preceding segments
+     */
+    private void findSuggestionsForAbbreviatedQuery(SuggestionIndex suggestionIndex, FileType fileType,
+                                                    String[] querySegmentPrefixes, SuggestionStream suggestions) {
+        List<Set<MetadataSuggestionNode>> segmentIndexToMatches = new ArrayList<>(querySegmentPrefixes.length);
+        for (int i = 0; i < querySegmentPrefixes.length; i++) {
+            Set<MetadataSuggestionNode> matches = newSetFromMap(new IdentityHashMap<>());
+            suggestionIndex.findNodesWithNamePrefix(querySegmentPrefixes[i]).forEach(matches::addAll);
+            if (matches.isEmpty()) { // none of the remaining segments can match either
+                break;
+            }
+            segmentIndexToMatches.add(matches);
+            boolean lastSegment = i == querySegmentPrefixes.length - 1;
+            for (MetadataSuggestionNode match : matches) {
+                // Properties backed by a class match rest of the segments against the class
+                boolean canMatchRest = lastSegment || (match.isProperty() && !match.isLeaf(module));
+                if (suggestions.isStopped()) {
+                    return;
+                }
+                if (canMatchRest && ancestorsMatchInOrder(match, segmentIndexToMatches, i)) {
+                    ProgressManager.checkCanceled();
+                    match.findKeySuggestionsForQueryPrefix(module, fileType, unmodifiableList(matchesRootTill(match)), 0,
+                            querySegmentPrefixes, i + 1, null, suggestions);
                 }
-                suggestions.addAll(matchedSuggestions);
             }
         }
-        return suggestions;
     }
 
-    @Nullable
-    private List<LookupElement> toLookupElements(@Nullable Set<Suggestion> suggestions) {
-        if (suggestions != null) {
-            return suggestions.stream().map(Suggestion::newLookupElement).collect(toList());
+    /**
+     * @return true if ancestors of the node contain a match for every segment before the one matched by the node, in the same order
+     */
+    private static boolean ancestorsMatchInOrder(MetadataSuggestionNode node,
+                                                 List<Set<MetadataSuggestionNode>> segmentIndexToMatches, int nodeSegmentIndex) {
+        int segmentIndex = nodeSegmentIndex - 1;
+        MetadataSuggestionNode ancestor = node.getParent();
+        // Matching the nearest ancestor first leaves the most room for the preceding segments
+        while (segmentIndex >= 0 && ancestor != null) {
+            if (segmentIndexToMatches.get(segmentIndex).contains(ancestor)) {
+                segmentIndex--;
+            }
+            ancestor = ancestor.getParent();
+        }
+        return segmentIndex < 0;
+    }
+
+    private void doFindSuggestionsForQueryPrefix(FileType fileType, Collection<MetadataSuggestionNode> nodesToSearchWithin,
+                                                 String[] querySegmentPrefixes, int querySegmentPrefixStartIndex,
+                                                 SuggestionStream suggestions) {
+        for (MetadataSuggestionNode suggestionNode : nodesToSearchWithin) {
+            if (suggestions.isStopped()) {
+                break;
+            }
+            ProgressManager.checkCanceled();
+            suggestionNode.findKeySuggestionsForQueryPrefix(module, fileType, modifiableList(suggestionNode), 0,
+                    querySegmentPrefixes, querySegmentPrefixStartIndex, null, suggestions);
         }
-        return null;
     }
 
     /**
@@ -250,34 +428,115 @@ public class SuggestionServiceImpl implements SuggestionService {
     }
 
     @Override
-    public void reindex() {
-        getApplication().executeOnPooledThread(() ->
-                DumbService.getInstance(module.getProject()).runReadActionInSmartMode(() -> {
-                    synchronized (SuggestionServiceImpl.this) {
-                        debug(() -> log.debug("--> Indexing requested for module " + module.getName()));
-                        StopWatch moduleTimer = new StopWatch();
-                        moduleTimer.start();
-                        try {
-                            indexAvailable = false;
-                            OrderEnumerator moduleOrderEnumerator = OrderEnumerator.orderEntries(module);
-                            List<MetadataContainerInfo> newModuleContainersToProcess = computeNewContainersToProcess(
-                                    moduleOrderEnumerator);
-                            List<MetadataContainerInfo> moduleContainersToRemove = computeContainersToRemove(moduleOrderEnumerator);
-                            processContainers(newModuleContainersToProcess, moduleContainersToRemove);
-                            indexAvailable = true;
-                        } finally {
-                            moduleTimer.stop();
-                            debug(() -> log.debug("<-- Indexing took " + moduleTimer + " for module " + module.getName()));
-                        }
-                    }
-                }));
+    public void reindex(ProgressIndicator indicator) {
+        synchronized (this) {
+            debug(() -> log.debug("--> Indexing requested for module " + module.getName()));
+            StopWatch moduleTimer = new StopWatch();
+            moduleTimer.start();
+            try {
+                SuggestionIndex current = index;
+                List<MetadataContainerInfo> freshContainers = new ArrayList<>();
+                List<MetadataContainerInfo> moduleContainersToRemove = new ArrayList<>();
+                // Roots are known even while the IDE is indexing, so lets not wait for smart mode
+                ReadAction.run(() -> {
+                    // SDK never contains metadata, so lets not look into its roots at all
+                    OrderRootsEnumerator moduleOrderEnumerator =
+                            OrderEnumerator.orderEntries(module).recursively().withoutSdk().classes();
+                    freshContainers.addAll(computeFreshContainers(current, moduleOrderEnumerator));
+                    moduleContainersToRemove.addAll(computeContainersToRemove(current, moduleOrderEnumerator));
+                });
+                if (freshContainers.isEmpty() && moduleContainersToRemove.isEmpty()) {
+                    debug(() -> log.debug("No (new)metadata files to index"));
+                    return;
+                }
+                indicator.checkCanceled();
+                List<MetadataContainerInfo> newModuleContainersToProcess = freshContainers.stream()
+                        .filter(MetadataContainerInfo::containsMetadataFile).collect(toList());
+                // Parsing does not need PSI, so lets do it outside read action & in parallel
+                Map<MetadataContainerInfo, SpringConfigurationMetadata> containerToMetadata =
+                        ContainerMetadataCache.getInstance().getMetadata(newModuleContainersToProcess);
+                indicator.checkCanceled();
+
+                // Searches continue to use the current snapshot while the new one is being built.
+                // If this run gets cancelled, the new snapshot is simply discarded.
+                // Staging shares the subtrees of all roots with the current snapshot & copies only the ones the containers touch
+                SuggestionIndex staging = current.copy();
+                // lets remove the references of modified containers before these are marked as seen, so that new ones are left alone
+                removeContainers(staging, newModuleContainersToProcess, moduleContainersToRemove);
+                freshContainers.forEach(containerInfo -> staging.getSeenContainerPathToContainerInfo()
+                        .put(containerInfo.getContainerArchiveOrFileRef(), containerInfo));
+                // Tree is built off the parsed (or disk cached) metadata alone, types of groups/properties are resolved on first use.
+                // So, suggestions are available while the IDE is still indexing
+                processContainers(staging, containerToMetadata);
+                indicator.checkCanceled();
+                staging.buildDerivedIndexes();
+                indicator.checkCanceled();
+                index = staging;
+                indexModificationCount++;
+                scheduleClassMetadataWarmUp(staging);
+            } finally {
+                moduleTimer.stop();
+                debug(() -> log.debug("<-- Indexing took " + moduleTimer + " for module " + module.getName()));
+            }
+        }
+    }
+
+    /**
+     * Builds class metadata of the groups defined by the project itself (& of their nested types) in the background,
+     * so that the first completion inside a class backed property is as fast as the ones that follow.
+     * Runs as a non blocking read action, so it yields to write actions, & is dropped once a newer index is published
+     */
+    private void scheduleClassMetadataWarmUp(SuggestionIndex snapshot) {
+        int depth = Registry.intValue(WARM_UP_DEPTH_REGISTRY_KEY);
+        if (depth <= 0) {
+            return;
+        }
+        ReadAction.nonBlocking(() -> warmUpClassMetadata(snapshot, depth))
+                .inSmartMode(module.getProject())
+                .expireWhen(() -> module.isDisposed() || index != snapshot)
+                .coalesceBy(this)
+                .submit(AppExecutorUtil.getAppExecutorService());
     }
 
-    private List<MetadataContainerInfo> computeNewContainersToProcess(OrderEnumerator orderEnumerator) {
-        List<MetadataContainerInfo> containersToProcess = new ArrayList<>();
-        for (VirtualFile metadataFileContainer : orderEnumerator.recursively().classes().getRoots()) {
+    private void warmUpClassMetadata(SuggestionIndex snapshot, int depth) {
+        StopWatch timer = new StopWatch();
+        timer.start();
+        ProjectFileIndex projectFileIndex = ProjectFileIndex.getInstance(module.getProject());
+        ClassMetadataWarmUp warmUp = new ClassMetadataWarmUp(module, depth);
+        for (MetadataSuggestionNode node : snapshot.getNodes()) {
+            ProgressManager.checkCanceled();
+            if (!(node instanceof MetadataNonPropertySuggestionNode)) {
+                continue;
+            }
+            SpringConfigurationMetadataGroup group = ((MetadataNonPropertySuggestionNode) node).getGroup();
+            if (group == null || group.getClassName() == null) {
+                continue;
+            }
+            MetadataProxy delegate = group.getDelegate(module);
+            PsiType type = delegate != null ? delegate.getPsiType(module) : null;
+            // lets leave classes from libraries alone, these are rarely navigated into & there are a lot of them
+            if (type instanceof PsiClassType) {
+                VirtualFile file = PsiUtilCore.getVirtualFile(((PsiClassType) type).resolve());
+                if (file != null && projectFileIndex.isInContent(file)) {
+                    warmUp.warmUp(type);
+                }
+            }
+        }
+        timer.stop();
+        debug(() -> log.debug("Warmed up metadata of " + warmUp.getVisitedTypeCount() + " types in " + timer
+                + " for module " + module.getName()));
+    }
+
+    /**
+     * @return containers that were either not seen before or were modified since they were last seen
+     */
+    private List<MetadataContainerInfo> computeFreshContainers(SuggestionIndex suggestionIndex, OrderRootsEnumerator orderEnumerator) {
+        Map<String, MetadataContainerInfo> seenContainerPathToContainerInfo = suggestionIndex.getSeenContainerPathToContainerInfo();
+        List<MetadataContainerInfo> freshContainers = new ArrayList<>();
+        MetadataFileScanCache scanCache = MetadataFileScanCache.getInstance(module.getProject());
+        for (VirtualFile metadataFileContainer : orderEnumerator.getRoots()) {
             Collection<MetadataContainerInfo> metadataContainerInfos =
-                    MetadataContainerInfo.newInstances(metadataFileContainer);
+                    MetadataContainerInfo.newInstances(metadataFileContainer, scanCache);
             for (MetadataContainerInfo metadataContainerInfo : metadataContainerInfos) {
                 boolean seenBefore = seenContainerPathToContainerInfo
                         .containsKey(metadataContainerInfo.getContainerArchiveOrFileRef());
@@ -294,22 +553,12 @@ public class SuggestionServiceImpl implements SuggestionService {
                 }
 
                 boolean looksFresh = !seenBefore || updatedSinceLastSeen;
-                boolean processMetadata = looksFresh && metadataContainerInfo.containsMetadataFile();
-                if (processMetadata) {
-                    containersToProcess.add(metadataContainerInfo);
-                }
-
                 if (looksFresh) {
-                    seenContainerPathToContainerInfo
-                            .put(metadataContainerInfo.getContainerArchiveOrFileRef(), metadataContainerInfo);
+                    freshContainers.add(metadataContainerInfo);
                 }
             }
         }
-
-        if (containersToProcess.isEmpty()) {
-            debug(() -> log.debug("No (new)metadata files to index"));
-        }
-        return containersToProcess;
+        return freshContainers;
     }
 
     /**
@@ -318,92 +567,93 @@ public class SuggestionServiceImpl implements SuggestionService {
      * @param orderEnumerator classpath roots to work with
      * @return list of container paths that are no longer valid
      */
-    private List<MetadataContainerInfo> computeContainersToRemove(OrderEnumerator orderEnumerator) {
-        Set<String> newContainerPaths = stream(orderEnumerator.recursively().classes().getRoots())
-                .flatMap(MetadataContainerInfo::getContainerArchiveOrFileRefs).collect(toSet());
+    private List<MetadataContainerInfo> computeContainersToRemove(SuggestionIndex suggestionIndex, OrderRootsEnumerator orderEnumerator) {
+        Map<String, MetadataContainerInfo> seenContainerPathToContainerInfo = suggestionIndex.getSeenContainerPathToContainerInfo();
+        MetadataFileScanCache scanCache = MetadataFileScanCache.getInstance(module.getProject());
+        Set<String> newContainerPaths = stream(orderEnumerator.getRoots())
+                .flatMap(root -> MetadataContainerInfo.getContainerArchiveOrFileRefs(root, scanCache))
+                .collect(toSet());
         Set<String> knownContainerPathSet = new HashSet<>(seenContainerPathToContainerInfo.keySet());
         knownContainerPathSet.removeAll(newContainerPaths);
         return knownContainerPathSet.stream().map(seenContainerPathToContainerInfo::get).collect(toList());
     }
 
-    private void processContainers(List<MetadataContainerInfo> toProcess, List<MetadataContainerInfo> toRemove) {
+    private void removeContainers(SuggestionIndex suggestionIndex, List<MetadataContainerInfo> toProcess,
+                                  List<MetadataContainerInfo> toRemove) {
         // Lets remove references to files that are no longer present in classpath
-        toRemove.forEach(this::removeReferences);
+        toRemove.forEach(metadataContainerInfo -> removeReferences(suggestionIndex, metadataContainerInfo));
 
         for (MetadataContainerInfo metadataContainerInfo : toProcess) {
             // lets remove existing references from search index, as these files are modified, so that we can rebuild index
-            if (seenContainerPathToContainerInfo.containsKey(metadataContainerInfo.getContainerArchiveOrFileRef())) {
-                removeReferences(metadataContainerInfo);
+            if (suggestionIndex.getSeenContainerPathToContainerInfo().containsKey(metadataContainerInfo.getContainerArchiveOrFileRef())) {
+                removeReferences(suggestionIndex, metadataContainerInfo);
             }
+        }
+    }
 
-            String metadataFilePath = metadataContainerInfo.getFileUrl();
-            VirtualFile metadataFile = metadataContainerInfo.getMetadataFile();
-            if (metadataFile == null) {
-                continue;
-            }
-            try (InputStream inputStream = metadataFile.getInputStream()) {
-                GsonBuilder gsonBuilder = new GsonBuilder();
-                // register custom mapper adapters
-                gsonBuilder.registerTypeAdapter(
-                        SpringConfigurationMetadataValueProviderType.class,
-                        new SpringConfigurationMetadataValueProviderTypeDeserializer()
-                );
-                gsonBuilder.registerTypeAdapterFactory(new GsonPostProcessEnablingTypeFactory());
-                SpringConfigurationMetadata springConfigurationMetadata = gsonBuilder
-                        .create()
-                        .fromJson(
-                                new BufferedReader(new InputStreamReader(inputStream, metadataFile.getCharset())),
-                                SpringConfigurationMetadata.class
-                        );
-                buildMetadataHierarchy(metadataContainerInfo, springConfigurationMetadata);
-                seenContainerPathToContainerInfo.put(
+    /**
+     * Only the indexing thread writes to the index, so metadata parsed in parallel is merged one container after another
+     *
+     * @param suggestionIndex     index that is not published yet
+     * @param containerToMetadata parsed metadata of new/modified containers, null if the metadata could not be read
+     */
+    private void processContainers(SuggestionIndex suggestionIndex,
+                                   Map<MetadataContainerInfo, SpringConfigurationMetadata> containerToMetadata) {
+        containerToMetadata.forEach((metadataContainerInfo, springConfigurationMetadata) -> {
+            ProgressManager.checkCanceled();
+            if (springConfigurationMetadata != null) {
+                buildMetadataHierarchy(suggestionIndex, metadataContainerInfo, springConfigurationMetadata);
+                suggestionIndex.getSeenContainerPathToContainerInfo().put(
                         metadataContainerInfo.getContainerArchiveOrFileRef(),
                         metadataContainerInfo
                 );
-            } catch (IOException e) {
-                log.warn("Exception encountered while processing metadata file: " + metadataFilePath, e);
-                removeReferences(metadataContainerInfo);
             }
-        }
+        });
     }
 
-    private void removeReferences(MetadataContainerInfo metadataContainerInfo) {
+    private void removeReferences(SuggestionIndex suggestionIndex, MetadataContainerInfo metadataContainerInfo) {
         debug(() -> log.debug("Removing references to " + metadataContainerInfo));
         String containerPath = metadataContainerInfo.getContainerArchiveOrFileRef();
-        seenContainerPathToContainerInfo.remove(containerPath);
-
-        Iterator<String> searchIndexIterator = rootSearchIndex.keySet().iterator();
-        while (searchIndexIterator.hasNext()) {
-            MetadataSuggestionNode root = rootSearchIndex.get(searchIndexIterator.next());
-            if (root != null) {
-                boolean removeTree = root.removeRefCascadeDown(metadataContainerInfo.getContainerArchiveOrFileRef());
-                if (removeTree) {
-                    searchIndexIterator.remove();
+        suggestionIndex.getSeenContainerPathToContainerInfo().remove(containerPath);
+
+        ContainerRegistry containerRegistry = suggestionIndex.getContainerRegistry();
+        Integer containerId = containerRegistry.getId(containerPath);
+        if (containerId != null) {
+            // lets take a snapshot of the names, as roots are replaced/removed along the way
+            List<String> rootNames = new ArrayList<>(suggestionIndex.getRootSearchIndex().keySet());
+            for (String rootName : rootNames) {
+                if (suggestionIndex.rootBelongsTo(rootName, containerId)) {
+                    MetadataSuggestionNode root = suggestionIndex.modifiableRoot(rootName);
+                    if (root != null && root.removeRefCascadeTillLeaves(containerId)) {
+                        suggestionIndex.removeRoot(rootName);
+                    }
                 }
             }
         }
+        containerRegistry.release(containerPath);
     }
 
-    private void buildMetadataHierarchy(MetadataContainerInfo metadataContainerInfo,
+    private void buildMetadataHierarchy(SuggestionIndex suggestionIndex, MetadataContainerInfo metadataContainerInfo,
                                         SpringConfigurationMetadata springConfigurationMetadata) {
         debug(() -> log.debug("Adding container to index " + metadataContainerInfo));
         String containerPath = metadataContainerInfo.getContainerArchiveOrFileRef();
-        addGroupsToIndex(springConfigurationMetadata, containerPath);
-        addPropertiesToIndex(springConfigurationMetadata, containerPath);
-        addHintsToIndex(springConfigurationMetadata, containerPath);
+        int containerId = suggestionIndex.getContainerRegistry().register(containerPath);
+        addGroupsToIndex(suggestionIndex, springConfigurationMetadata, containerPath, containerId);
+        addPropertiesToIndex(suggestionIndex, springConfigurationMetadata, containerPath, containerId);
+        addHintsToIndex(suggestionIndex, springConfigurationMetadata, containerPath);
         debug(() -> log.debug("Done adding container to index"));
     }
 
-    private void addGroupsToIndex(SpringConfigurationMetadata springConfigurationMetadata,
-                                  String containerArchiveOrFileRef) {
+    private void addGroupsToIndex(SuggestionIndex suggestionIndex, SpringConfigurationMetadata springConfigurationMetadata,
+                                  String containerArchiveOrFileRef, int containerId) {
+        ContainerRegistry containerRegistry = suggestionIndex.getContainerRegistry();
         List<SpringConfigurationMetadataGroup> groups = springConfigurationMetadata.getGroups();
         if (groups != null) {
-            groups.sort(comparing(SpringConfigurationMetadataGroup::getName));
             for (SpringConfigurationMetadataGroup group : groups) {
                 String[] pathSegments = toSanitizedPathSegments(group.getName());
                 String[] rawPathSegments = toRawPathSegments(group.getName());
 
-                MetadataSuggestionNode closestMetadata = findDeepestMetadataMatch(rootSearchIndex, pathSegments, false);
+                MetadataSuggestionNode closestMetadata = findDeepestMetadataMatch(suggestionIndex, pathSegments, false);
 
                 int startIndex;
                 if (closestMetadata == null) { // path does not have a corresponding root element
@@ -411,11 +661,11 @@ public class SuggestionServiceImpl implements SuggestionService {
                     boolean onlyRootSegmentExists = pathSegments.length == 1;
                     MetadataNonPropertySuggestionNode newGroupSuggestionNode =
                             MetadataNonPropertySuggestionNode
-                                    .newInstance(rawPathSegments[0], null, containerArchiveOrFileRef);
+                                    .newInstance(rawPathSegments[0], null, containerId);
                     if (onlyRootSegmentExists) {
-                        newGroupSuggestionNode.setGroup(module, group);
+                        newGroupSuggestionNode.setGroup(group);
                     }
-                    rootSearchIndex.put(pathSegments[0], newGroupSuggestionNode);
+                    suggestionIndex.addRoot(pathSegments[0], newGroupSuggestionNode);
 
                     closestMetadata = newGroupSuggestionNode;
                     // since we already handled the root level item, let addChildren start from index 1 of pathSegments
@@ -428,54 +678,51 @@ public class SuggestionServiceImpl implements SuggestionService {
                     log.warn(
                             "Detected conflict between an existing metadata property & new group for suggestion path "
                                     + closestMetadata.getPathFromRoot(module)
-                                    + ". Ignoring new group. Existing Property belongs to (" + String.join(",", closestMetadata.getBelongsTo()) + "), New Group belongs to "
+                                    + ". Ignoring new group. Existing Property belongs to (" + containerRegistry.toPaths(closestMetadata.getBelongsTo()) + "), New Group belongs to "
                                     + containerArchiveOrFileRef);
                 } else {
                     // lets add container as a reference till root
                     MetadataNonPropertySuggestionNode groupSuggestionNode =
                             (MetadataNonPropertySuggestionNode) closestMetadata;
-                    groupSuggestionNode.addRefCascadeTillRoot(containerArchiveOrFileRef);
+                    groupSuggestionNode.addRefCascadeTillRoot(containerId);
 
                     boolean haveMoreSegmentsLeft = startIndex < rawPathSegments.length;
                     if (haveMoreSegmentsLeft) {
                         groupSuggestionNode
-                                .addChildren(module, group, rawPathSegments, startIndex, containerArchiveOrFileRef);
+                                .addChildren(group, rawPathSegments, startIndex, containerId);
                     } else {
                         // Node is an intermediate node that has neither group nor property assigned to it, lets assign this group to it
                         // Can happen when `a.b.c` is already added to the metadata tree from an earlier metadata source & now we are trying to add a group for `a.b`
                         // In this e.g, startIndex would be 2. So, there is no point in adding children. We only need to update the tree appropriately
-                        groupSuggestionNode.setGroup(module, group);
+                        groupSuggestionNode.setGroup(group);
                     }
                 }
             }
         }
     }
 
-    private void addPropertiesToIndex(SpringConfigurationMetadata springConfigurationMetadata,
-                                      String containerArchiveOrFileRef) {
+    private void addPropertiesToIndex(SuggestionIndex suggestionIndex, SpringConfigurationMetadata springConfigurationMetadata,
+                                      String containerArchiveOrFileRef, int containerId) {
+        ContainerRegistry containerRegistry = suggestionIndex.getContainerRegistry();
         List<SpringConfigurationMetadataProperty> properties =
                 springConfigurationMetadata.getProperties();
-        // Remove unnamed property, perhaps happens on invalid user defined metadata files.
-        // TODO We should use bean validator to assure that the input data match the requirements, exclude invalid ones silently.
-        properties.removeIf(p -> Objects.isNull(p.getName()));
-        properties.sort(comparing(SpringConfigurationMetadataProperty::getName));
         for (SpringConfigurationMetadataProperty property : properties) {
             String[] pathSegments = toSanitizedPathSegments(property.getName());
             String[] rawPathSegments = toRawPathSegments(property.getName());
             MetadataSuggestionNode closestMetadata =
-                    findDeepestMetadataMatch(rootSearchIndex, pathSegments, false);
+                    findDeepestMetadataMatch(suggestionIndex, pathSegments, false);
 
             int startIndex;
             if (closestMetadata == null) { // path does not have a corresponding root element
                 boolean onlyRootSegmentExists = pathSegments.length == 1;
                 if (onlyRootSegmentExists) {
                     closestMetadata = MetadataPropertySuggestionNode
-                            .newInstance(rawPathSegments[0], property, null, containerArchiveOrFileRef);
+                            .newInstance(rawPathSegments[0], property, null, containerId);
                 } else {
                     closestMetadata = MetadataNonPropertySuggestionNode
-                            .newInstance(rawPathSegments[0], null, containerArchiveOrFileRef);
+                            .newInstance(rawPathSegments[0], null, containerId);
                 }
-                rootSearchIndex.put(pathSegments[0], closestMetadata);
+                suggestionIndex.addRoot(pathSegments[0], closestMetadata);
 
                 // since we already handled the root level item, let addChildren start from index 1 of pathSegments
                 startIndex = 1;
@@ -489,13 +736,12 @@ public class SuggestionServiceImpl implements SuggestionService {
                 if (!closestMetadata.isProperty()) {
                     if (closestMetadata instanceof MetadataNonPropertySuggestionNode) {
                         ((MetadataNonPropertySuggestionNode) closestMetadata)
-                                .addChildren(property, rawPathSegments, startIndex,
-                                        containerArchiveOrFileRef);
+                                .addChildren(property, rawPathSegments, startIndex, containerId);
                     }
                 } else {
                     log.warn("Detected conflict between a new group & existing property for suggestion path "
                             + closestMetadata.getPathFromRoot(module)
-                            + ". Ignoring property. Existing non property node belongs to (" + String.join(",", closestMetadata.getBelongsTo()) + "), New property belongs to "
+                            + ". Ignoring property. Existing non property node belongs to (" + containerRegistry.toPaths(closestMetadata.getBelongsTo()) + "), New property belongs to "
                             + containerArchiveOrFileRef);
                 }
             } else {
@@ -503,45 +749,55 @@ public class SuggestionServiceImpl implements SuggestionService {
                     log.warn(
                             "Detected conflict between a new metadata property & existing non property node for suggestion path "
                                     + closestMetadata.getPathFromRoot(module)
-                                    + ". Ignoring property. Existing non property node belongs to (" + String.join(",", closestMetadata.getBelongsTo()) + "), New property belongs to "
+                                    + ". Ignoring property. Existing non property node belongs to (" + containerRegistry.toPaths(closestMetadata.getBelongsTo()) + "), New property belongs to "
                                     + containerArchiveOrFileRef);
                 } else {
-                    closestMetadata.addRefCascadeTillRoot(containerArchiveOrFileRef);
+                    closestMetadata.addRefCascadeTillRoot(containerId);
                     // TODO according to Spring Doc: https://docs.spring.io/spring-boot/docs/current/reference/html/configuration-metadata.html#configuration-metadata.format.repeated-items
                     // merge metadata from additional-spring-configuration-metadata.json to spring-configuration-metadata.json
                     // and support multiple properties or groups with the same name.
                     log.debug("Detected a duplicate metadata property for suggestion path " + closestMetadata
                             .getPathFromRoot(module) + ". Ignoring property. Existing property belongs to ("
-                            + String.join(",", closestMetadata.getBelongsTo())
+                            + containerRegistry.toPaths(closestMetadata.getBelongsTo())
                             + "), New property belongs to " + containerArchiveOrFileRef);
                 }
             }
         }
     }
 
-    private void addHintsToIndex(SpringConfigurationMetadata springConfigurationMetadata, String containerPath) {
+    private void addHintsToIndex(SuggestionIndex suggestionIndex, SpringConfigurationMetadata springConfigurationMetadata,
+                                 String containerPath) {
+        ContainerRegistry containerRegistry = suggestionIndex.getContainerRegistry();
         List<SpringConfigurationMetadataHint> hints = springConfigurationMetadata.getHints();
         if (hints != null) {
-            hints.sort(comparing(SpringConfigurationMetadataHint::getName));
             for (SpringConfigurationMetadataHint hint : hints) {
                 String[] pathSegments = toSanitizedPathSegments(hint.getExpectedPropertyName());
                 MetadataSuggestionNode closestMetadata =
-                        findDeepestMetadataMatch(rootSearchIndex, pathSegments, true);
+                        findDeepestMetadataMatch(suggestionIndex, pathSegments, true);
                 if (closestMetadata != null) {
                     if (!closestMetadata.isProperty()) {
                         log.warn(
                                 "Unexpected hint " + hint.getName() + " is assigned to  group " + closestMetadata
                                         .getPathFromRoot(module)
                                         + " found. Hints can be only assigned to property. Ignoring the hint completely.Existing group belongs to ("
-                                        + String.join(",", closestMetadata.getBelongsTo())
+                                        + containerRegistry.toPaths(closestMetadata.getBelongsTo())
                                         + "), New hint belongs " + containerPath);
                     } else {
                         MetadataPropertySuggestionNode propertySuggestionNode =
                                 (MetadataPropertySuggestionNode) closestMetadata;
-                        if (hint.representsValueOfMap()) {
-                            propertySuggestionNode.getProperty().setValueHint(hint);
-                        } else {
-                            propertySuggestionNode.getProperty().setGenericOrKeyHint(hint);
+                        SpringConfigurationMetadataProperty property = propertySuggestionNode.getProperty();
+                        boolean alreadyAttached = hint.representsValueOfMap() ?
+                                property.getValueHint() == hint : property.getGenericOrKeyHint() == hint;
+                        // Hints of a container are attached to its own properties when parsed. Property is shared with other modules
+                        // (& with the published index), so lets attach hints from other containers to a copy of our own
+                        if (!alreadyAttached) {
+                            property = property.copy();
+                            if (hint.representsValueOfMap()) {
+                                property.setValueHint(hint);
+                            } else {
+                                property.setGenericOrKeyHint(hint);
+                            }
+                            propertySuggestionNode.setProperty(property);
                         }
                     }
                 }
@@ -549,9 +805,12 @@ public class SuggestionServiceImpl implements SuggestionService {
         }
     }
 
-    private MetadataSuggestionNode findDeepestMetadataMatch(Map<String, MetadataSuggestionNode> roots,
+    /**
+     * Nodes found are about to be modified, so the subtree of the root is copied if it is still shared with the published snapshot
+     */
+    private MetadataSuggestionNode findDeepestMetadataMatch(SuggestionIndex suggestionIndex,
                                                             String[] pathSegments, boolean matchAllSegments) {
-        MetadataSuggestionNode closestMatchedRoot = roots.get(pathSegments[0]);
+        MetadataSuggestionNode closestMatchedRoot = suggestionIndex.modifiableRoot(pathSegments[0]);
         if (closestMatchedRoot != null) {
             closestMatchedRoot =
                     closestMatchedRoot.findDeepestMetadataNode(pathSegments, 1, matchAllSegments);
@@ -562,11 +821,65 @@ public class SuggestionServiceImpl implements SuggestionService {
     @SuppressWarnings("unused")
     private String toTree() {
         StringBuilder builder = new StringBuilder();
-        rootSearchIndex.forEach((k, v) -> {
+        index.getRootSearchIndex().forEach((k, v) -> {
             builder.append("Module: ").append(k).append("\n")
                     .append(v.toTree().trim().replaceFirst("^", "  ").replaceAll("\n", "\n  "))
                     .append("\n");
         });
         return builder.toString();
     }
+
+
+    /**
+     * Hands the candidates found by a search over to the consumer as soon as they are found, skipping duplicates. Each candidate is prioritised
+     * by its relevance, so that the lookup orders them irrespective of the order in which they are found.
+     * <p>
+     * Search stops once `limit` candidates are handed over or the consumer does not want any more. Candidates that are not reached by then are
+     * never considered, even if they are more relevant than the ones handed over, so that first suggestions appear without waiting for the
+     * whole search & large subtrees are not walked in vain
+     */
+    private static class SuggestionStream implements SuggestionConsumer {
+        private final int limit;
+        private final ToDoubleFunction<Suggestion> relevance;
+        private final Processor<? super LookupElement> consumer;
+        private final Set<Suggestion> found = new HashSet<>();
+        private boolean stopped;
+
+        SuggestionStream(int limit, ToDoubleFunction<Suggestion> relevance, Processor<? super LookupElement> consumer) {
+            this.limit = limit;
+            this.relevance = relevance;
+            this.consumer = consumer;
+            this.stopped = limit <= 0;
+        }
+
+        @Override
+        public void accept(Suggestion suggestion) {
+            if (stopped || !found.add(suggestion)) {
+                return;
+            }
+            LookupElement lookupElement = PrioritizedLookupElement
+                    .withPriority(suggestion.newLookupElement(), relevance.applyAsDouble(suggestion));
+            stopped = !consumer.process(lookupElement) || found.size() >= limit;
+        }
+
+        @Override
+        public boolean isStopped() {
+            return stopped;
+        }
+
+        void addAll(@Nullable Collection<Suggestion> suggestions) {
+            if (suggestions != null) {
+                for (Suggestion suggestion : suggestions) {
+                    if (stopped) {
+                        break;
+                    }
+                    accept(suggestion);
+                }
+            }
+        }
+
+        int size() {
+            return found.size();
+        }
+    }
 }
@@ -0,0 +1,185 @@
+package dev.flikas.spring.boot.assistant.idea.plugin.inspection;
+
+import com.intellij.psi.PsiArrayType;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiClassType;
+import com.intellij.psi.PsiEnumConstant;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiPrimitiveType;
+import com.intellij.psi.PsiType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ValueValidatorsTest {
+
+    @Test
+    void booleansAreRelaxed() {
+        ValueValidator validator = validatorOf(classType("java.lang.Boolean"));
+        assertValid(validator, "true", "FALSE", "on", "Off", "yes", "NO", "1", "0");
+        assertInvalid(validator, "maybe", "2", "tru");
+        assertValid(validatorOf(primitive("boolean")), "on");
+    }
+
+    @Test
+    void wholeNumbersAreBoundedByTheirType() {
+        ValueValidator bytes = validatorOf(primitive("byte"));
+        assertValid(bytes, "127", "-128", "+5");
+        assertInvalid(bytes, "128", "-129", "1.0", "-", "");
+
+        ValueValidator ints = validatorOf(classType("java.lang.Integer"));
+        assertValid(ints, "2147483647", "-2147483648");
+        assertInvalid(ints, "2147483648", "-2147483649", "99999999999999999999");
+
+        ValueValidator longs = validatorOf(primitive("long"));
+        assertValid(longs, "9223372036854775807", "-9223372036854775808");
+        assertInvalid(longs, "9223372036854775808", "-9223372036854775809");
+
+        // BigInteger has no bounds
+        assertValid(validatorOf(classType("java.math.BigInteger")), "-99999999999999999999999999");
+    }
+
+    @Test
+    void wholeNumbersCanBeHex() {
+        ValueValidator bytes = validatorOf(primitive("byte"));
+        assertValid(bytes, "0x7F", "0X7f", "#7f", "-0x80");
+        assertInvalid(bytes, "0x80", "#100", "0x", "#", "0xG1");
+        assertValid(validatorOf(primitive("int")), "0x7FFFFFFF");
+        assertInvalid(validatorOf(primitive("int")), "0x80000000");
+    }
+
+    @Test
+    void decimals() {
+        ValueValidator doubles = validatorOf(primitive("double"));
+        assertValid(doubles, "1", "1.5", ".5", "1.", "-1.5e10", "1E-3", "1.5f", "2d", "NaN", "-Infinity");
+        assertInvalid(doubles, ".", "1e", "1.5.1", "abc", "f");
+
+        ValueValidator bigDecimals = validatorOf(classType("java.math.BigDecimal"));
+        assertValid(bigDecimals, "1.5", "-1e10");
+        assertInvalid(bigDecimals, "1.5f", "NaN", "Infinity");
+    }
+
+    @Test
+    void durations() {
+        ValueValidator validator = validatorOf(classType("java.time.Duration"));
+        assertValid(validator, "10", "10s", "500ms", "-5m", "2H", "1d", "100ns", "3us", "PT1H30M", "pt0.5s", "P2D",
+                "-PT10S");
+        assertInvalid(validator, "10sec", "1.5s", "10 s", "s", "PT", "1w");
+    }
+
+    @Test
+    void dataSizes() {
+        ValueValidator validator = validatorOf(classType("org.springframework.util.unit.DataSize"));
+        assertValid(validator, "10", "512MB", "1KB", "-1GB", "0TB", "100B");
+        // units are case sensitive
+        assertInvalid(validator, "10mb", "1kb", "1Gb", "100b");
+        assertInvalid(validator, "10MiB", "MB", "1.5MB", "10 MB", "1PB");
+    }
+
+    @Test
+    void periods() {
+        ValueValidator validator = validatorOf(classType("java.time.Period"));
+        assertValid(validator, "3", "-3", "P1Y2M3D", "p2w", "1y3d", "2m", "1W");
+        assertInvalid(validator, "1h", "P1H", "P", "1.5d", "y");
+    }
+
+    @Test
+    void charsets() {
+        ValueValidator validator = validatorOf(classType("java.nio.charset.Charset"));
+        assertValid(validator, "UTF-8", "utf-8", "UTF8", "ISO-8859-1", "US-ASCII");
+        assertInvalid(validator, "UTF-9", "unknown");
+    }
+
+    @Test
+    void inetAddresses() {
+        ValueValidator validator = validatorOf(classType("java.net.InetAddress"));
+        assertValid(validator, "192.168.0.1", "::1", "fe80::1%eth0", "localhost", "my-host.example.com");
+        assertInvalid(validator, "local host", "10.0.0.1/24", "http://localhost");
+    }
+
+    @Test
+    void enumsAreLenient() {
+        ValueValidator validator = validatorOf(enumType("com.acme.Mode", "FIRST_VALUE", "SECOND"));
+        assertValid(validator, "FIRST_VALUE", "first_value", "first-value", "firstValue", "FirstValue", "second");
+        assertInvalid(validator, "first", "third", "first.value2");
+    }
+
+    @Test
+    void arraysAreCommaDelimited() {
+        ValueValidator ints = validatorOf(arrayOf(primitive("int")));
+        assertValid(ints, "1", "1,2,3", "1, 2 ,3", "1,,2", "1,");
+        assertInvalid(ints, "1,a", "1;2", "1,2147483648");
+
+        ValueValidator enums = validatorOf(arrayOf(enumType("com.acme.Mode", "FIRST_VALUE", "SECOND")));
+        assertValid(enums, "first-value,second");
+        assertInvalid(enums, "first-value,third");
+    }
+
+    @Test
+    void unresolvedTypesAreNotValidated() {
+        PsiClassType unresolved = mock(PsiClassType.class);
+        assertNull(ValueValidators.forType(unresolved));
+        assertNull(ValueValidators.forType(arrayOf(unresolved)));
+    }
+
+    private static ValueValidator validatorOf(PsiType type) {
+        ValueValidator validator = ValueValidators.forType(type);
+        assertNotNull(validator);
+        return validator;
+    }
+
+    private static void assertValid(ValueValidator validator, String... values) {
+        for (String value : values) {
+            assertTrue(validator.isValid(value), "Expected to be valid: " + value);
+        }
+    }
+
+    private static void assertInvalid(ValueValidator validator, String... values) {
+        for (String value : values) {
+            assertFalse(validator.isValid(value), "Expected to be invalid: " + value);
+        }
+    }
+
+    private static PsiType primitive(String name) {
+        PsiPrimitiveType type = mock(PsiPrimitiveType.class);
+        when(type.getCanonicalText()).thenReturn(name);
+        return type;
+    }
+
+    private static PsiType arrayOf(PsiType componentType) {
+        PsiArrayType type = mock(PsiArrayType.class);
+        when(type.getComponentType()).thenReturn(componentType);
+        return type;
+    }
+
+    private static PsiClassType classType(String qualifiedName) {
+        PsiClass psiClass = mock(PsiClass.class);
+        when(psiClass.getQualifiedName()).thenReturn(qualifiedName);
+        return classType(psiClass);
+    }
+
+    private static PsiClassType enumType(String qualifiedName, String... constants) {
+        PsiClass psiClass = mock(PsiClass.class);
+        when(psiClass.getQualifiedName()).thenReturn(qualifiedName);
+        when(psiClass.isEnum()).thenReturn(true);
+        PsiField[] fields = new PsiField[constants.length];
+        for (int i = 0; i < constants.length; i++) {
+            PsiEnumConstant constant = mock(PsiEnumConstant.class);
+            when(constant.getName()).thenReturn(constants[i]);
+            fields[i] = constant;
+        }
+        when(psiClass.getFields()).thenReturn(fields);
+        return classType(psiClass);
+    }
+
+    private static PsiClassType classType(PsiClass psiClass) {
+        PsiClassType type = mock(PsiClassType.class);
+        when(type.resolve()).thenReturn(psiClass);
+        return type;
+    }
+}
@@ -0,0 +1,61 @@
+package in.oneton.idea.spring.assistant.plugin.misc;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChildTableTest {
+
+  @Test
+  void lookupAndPrefixSearch() {
+    Map<String, Integer> keyToValue = new HashMap<>();
+    keyToValue.put("server", 1);
+    keyToValue.put("servlet", 2);
+    keyToValue.put("spring", 3);
+    keyToValue.put("serv", 4);
+    keyToValue.put("management", 5);
+    ChildTable<Integer> table = ChildTable.of(keyToValue);
+
+    assertEquals(5, table.size());
+    assertEquals(Integer.valueOf(3), table.get("spring"));
+    assertNull(table.get("spr"));
+    assertTrue(table.containsKey("serv"));
+    assertEquals(asList(4, 1, 2), table.prefixValues("serv"));
+    assertEquals(asList(1), table.prefixValues("serve"));
+    assertEquals(emptyList(), table.prefixValues("x"));
+    assertEquals(asList(5, 4, 1, 2, 3), table.prefixValues(""));
+    assertEquals(table.values(), table.prefixValues(""));
+  }
+
+  @Test
+  void withAndWithoutLeaveOriginalUntouched() {
+    ChildTable<String> empty = ChildTable.empty();
+    ChildTable<String> table = empty.with("b", "B").with("a", "A").with("c", "C");
+    assertTrue(empty.isEmpty());
+    assertEquals(asList("A", "B", "C"), table.values());
+
+    ChildTable<String> replaced = table.with("b", "b2");
+    assertEquals("B", table.get("b"));
+    assertEquals("b2", replaced.get("b"));
+
+    ChildTable<String> removed = table.without("a");
+    assertEquals(asList("B", "C"), removed.values());
+    assertEquals(3, table.size());
+    assertSame(table, table.without("x"));
+    assertFalse(removed.without("b").without("c").containsKey("c"));
+    assertTrue(removed.without("b").without("c").isEmpty());
+
+    ChildTable<Integer> lengths = table.mapValues(String::length).with("b", 5);
+    assertEquals(asList(1, 5, 1), lengths.values());
+    assertEquals(asList("A", "B", "C"), table.values());
+  }
+}
@@ -0,0 +1,132 @@
+package in.oneton.idea.spring.assistant.plugin.misc;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class PathTokenizerTest {
+
+  @Test
+  void sanitise() {
+    assertEquals("maxhttpheadersize", RelaxedNames.sanitise(" max-http_Header-size "));
+    assertEquals("maxhttpheadersize", RelaxedNames.sanitise("maxHttpHeaderSize"));
+    String sanitised = "server";
+    assertSame(sanitised, RelaxedNames.sanitise(sanitised));
+    assertEquals("", RelaxedNames.sanitise("-_"));
+  }
+
+  @Test
+  void compareAndStartsWith() {
+    assertEquals(0, RelaxedNames.compare("Max-Size", 0, 8, "maxsize"));
+    assertTrue(RelaxedNames.compare("max", 0, 3, "maxsize") < 0);
+    assertTrue(RelaxedNames.compare("max-sizes", 0, 9, "maxsize") > 0);
+    assertTrue(RelaxedNames.compare("maz", 0, 3, "max") > 0);
+    assertTrue(RelaxedNames.startsWith("Max-Size", "maxs"));
+    assertFalse(RelaxedNames.startsWith("Max-Size", "maxz"));
+    assertFalse(RelaxedNames.startsWith("max", "maxs"));
+  }
+
+  @Test
+  void segmentsMatchRegexSplit() {
+    for (String path : asList("server.port", " Server . Max-Http ", "a.", "", "a..b", "spring_data")) {
+      String[] expected = path.trim().split("\\.", -1);
+      for (int i = 0; i < expected.length; i++) {
+        expected[i] = expected[i].trim();
+      }
+      PathTokenizer tokenizer = new PathTokenizer().reset(path);
+      assertEquals(expected.length, tokenizer.segmentCount());
+      assertArrayEquals(expected, tokenizer.rawSegments());
+    }
+  }
+
+  @Test
+  void keysAreWalkedAsOnePath() {
+    PathTokenizer tokenizer = new PathTokenizer().reset(asList("spring.data-source", "Url"));
+    assertArrayEquals(new String[] {"spring", "datasource", "url"}, tokenizer.sanitisedSegments());
+    assertEquals(0, tokenizer.compareTo("spring.datasource.url"));
+    assertTrue(tokenizer.compareTo("spring.datasource") > 0);
+    assertTrue(tokenizer.compareTo("spring.datasource.urls") < 0);
+    assertTrue(tokenizer.compareTo("spring.datasourcea") < 0);
+    assertTrue(tokenizer.compareTo("springa") < 0);
+
+    tokenizer.rewind();
+    assertTrue(tokenizer.next());
+    assertTrue(tokenizer.segmentEquals("spring"));
+    assertTrue(tokenizer.next());
+    assertTrue(tokenizer.segmentStartsWith("data"));
+    assertTrue(tokenizer.next());
+    assertFalse(tokenizer.next());
+  }
+
+  @Test
+  void findsChildOffRawPath() {
+    Map<String, Integer> pathToValue = new HashMap<>();
+    pathToValue.put("spring", 1);
+    pathToValue.put("spring.datasource", 2);
+    pathToValue.put("spring.datasource.url", 3);
+    pathToValue.put("spring.datasourcea", 4);
+    pathToValue.put("server.port", 5);
+    ChildTable<Integer> table = ChildTable.of(pathToValue);
+    PathTokenizer tokenizer = new PathTokenizer();
+    assertEquals(Integer.valueOf(3),
+        table.find(tokenizer.reset(asList("Spring", "data-source.URL"))::compareTo));
+    assertEquals(Integer.valueOf(2), table.find(tokenizer.reset("spring.data_source")::compareTo));
+    assertNull(table.find(tokenizer.reset("spring.data")::compareTo));
+  }
+
+  @Test
+  void lookupDoesNotAllocate() {
+    ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    assumeTrue(threadMXBean instanceof com.sun.management.ThreadMXBean);
+    com.sun.management.ThreadMXBean allocationTracker = (com.sun.management.ThreadMXBean) threadMXBean;
+    assumeTrue(allocationTracker.isThreadAllocatedMemorySupported());
+    allocationTracker.setThreadAllocatedMemoryEnabled(true);
+
+    Map<String, Integer> pathToValue = new HashMap<>();
+    for (int i = 0; i < 1000; i++) {
+      pathToValue.put("spring.group" + i + ".property" + i, i);
+    }
+    ChildTable<Integer> table = ChildTable.of(pathToValue);
+    List<String> keys = asList("Spring", "group-500.Property_500");
+    PathTokenizer tokenizer = new PathTokenizer();
+    ToIntFunction<String> compareToKey = tokenizer::compareTo;
+
+    int iterations = 100_000;
+    int found = 0;
+    // lets warm up, so that the measurement is not thrown off by class loading & compilation
+    for (int i = 0; i < iterations; i++) {
+      tokenizer.reset(keys);
+      found += lookup(table, compareToKey);
+    }
+    long threadId = Thread.currentThread().getId();
+    long allocatedBefore = allocationTracker.getThreadAllocatedBytes(threadId);
+    for (int i = 0; i < iterations; i++) {
+      tokenizer.reset(keys);
+      found += lookup(table, compareToKey);
+    }
+    long allocated = allocationTracker.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+    assertEquals(2 * iterations * 500, found);
+    // a single allocation per lookup would already add up to more than a megabyte
+    assertTrue(allocated < 64 * 1024, "allocated " + allocated + " bytes for " + iterations + " lookups");
+  }
+
+  private static int lookup(ChildTable<Integer> table, ToIntFunction<String> compareToKey) {
+    Integer value = table.find(compareToKey);
+    return value == null ? 0 : value;
+  }
+}
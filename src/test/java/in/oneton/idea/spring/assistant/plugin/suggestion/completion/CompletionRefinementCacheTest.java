@@ -0,0 +1,144 @@
+package in.oneton.idea.spring.assistant.plugin.suggestion.completion;
+
+import com.intellij.codeInsight.completion.PrioritizedLookupElement;
+import com.intellij.codeInsight.lookup.LookupElement;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.UserDataHolderBase;
+import com.intellij.util.Processor;
+import in.oneton.idea.spring.assistant.plugin.suggestion.Suggestion;
+import in.oneton.idea.spring.assistant.plugin.suggestion.service.SuggestionFrecencyService;
+import in.oneton.idea.spring.assistant.plugin.suggestion.service.SuggestionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.ToDoubleFunction;
+
+import static in.oneton.idea.spring.assistant.plugin.suggestion.completion.SuggestionRankerTest.keySuggestion;
+import static java.util.Arrays.asList;
+import static java.util.Comparator.comparingDouble;
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CompletionRefinementCacheTest {
+
+  private final Module module = mock(Module.class);
+  private final SuggestionService service = mock(SuggestionService.class);
+  private final SuggestionFrecencyService frecencyService = mock(SuggestionFrecencyService.class);
+  private final List<Suggestion> indexed =
+      asList(keySuggestion("server.protocol-header"), keySuggestion("server.port-header"),
+          keySuggestion("server.port"));
+  private Editor editor;
+  private int searchCount;
+
+  @BeforeEach
+  void setUp() {
+    UserDataHolderBase userData = new UserDataHolderBase();
+    editor = mock(Editor.class);
+    when(editor.getUserData(any())).thenAnswer(
+        invocation -> userData.getUserData(invocation.<Key<Object>>getArgument(0)));
+    doAnswer(invocation -> {
+      userData.putUserData(invocation.<Key<Object>>getArgument(0), invocation.getArgument(1));
+      return null;
+    }).when(editor).putUserData(any(), any());
+  }
+
+  @Test
+  void refinesPreviousSuggestionsAsTheQueryIsExtended() {
+    assertEquals(asList("server.port", "server.port-header", "server.protocol-header"),
+        find("server.p", 10));
+    assertEquals(1, searchCount);
+
+    assertEquals(asList("server.port", "server.port-header"), find("server.po", 10));
+    assertEquals(asList("server.port-header"), find("server.port-h", 10));
+    assertEquals(1, searchCount);
+  }
+
+  @Test
+  void refinedSuggestionsAreRankedAgain() {
+    find("server.p", 10);
+    when(frecencyService.frecencyOf("server.port-header")).thenReturn(10.0);
+
+    assertEquals(asList("server.port-header", "server.port"), find("server.po", 10));
+    assertEquals(asList("server.port-header"), find("server.po", 1));
+    assertEquals(1, searchCount);
+  }
+
+  @Test
+  void searchesAgainWhenPreviousSuggestionsCanNotAnswerTheQuery() {
+    find("server.p", 10);
+    // next level
+    find("server.port.", 10);
+    assertEquals(2, searchCount);
+
+    find("server.p", 10);
+    // index changed
+    when(service.getModificationCount()).thenReturn(1L);
+    find("server.po", 10);
+    assertEquals(4, searchCount);
+
+    // different parent
+    Module otherModule = mock(Module.class);
+    assertTrue(CompletionRefinementCache.findSuggestions(editor, otherModule, service, null,
+        "server.po", 10, new SuggestionRanker(frecencyService, "server.po"),
+        lookupElement -> true, search(10)));
+    assertEquals(5, searchCount);
+  }
+
+  @Test
+  void searchesCutShortAreNotReused() {
+    // search stops at the limit, so only the first ones found are shown
+    assertEquals(asList("server.port-header", "server.protocol-header"), find("server.p", 2));
+    find("server.po", 2);
+    assertEquals(2, searchCount);
+  }
+
+  @Test
+  void nothingFound() {
+    assertFalse(CompletionRefinementCache.findSuggestions(editor, module, service, null, "x", 10,
+        new SuggestionRanker(frecencyService, "x"), lookupElement -> true,
+        (relevance, consumer) -> searchCount++));
+    assertFalse(CompletionRefinementCache.findSuggestions(editor, module, service, null, "xy", 10,
+        new SuggestionRanker(frecencyService, "xy"), lookupElement -> true,
+        (relevance, consumer) -> searchCount++));
+    assertEquals(2, searchCount);
+  }
+
+  /**
+   * @return lookup strings of the suggestions, in the order the lookup would show them
+   */
+  private List<String> find(String query, int limit) {
+    List<LookupElement> found = new ArrayList<>();
+    CompletionRefinementCache.findSuggestions(editor, module, service, null, query, limit,
+        new SuggestionRanker(frecencyService, query), found::add, search(limit));
+    found.sort(comparingDouble(
+        (LookupElement lookupElement) -> lookupElement.as(PrioritizedLookupElement.CLASS_CONDITION_KEY)
+            .getPriority()).reversed());
+    return found.stream().map(LookupElement::getLookupString).collect(toList());
+  }
+
+  /**
+   * Streams the indexed suggestions in the order they are found till the limit, the way the service would
+   */
+  private BiConsumer<ToDoubleFunction<Suggestion>, Processor<LookupElement>> search(int limit) {
+    return (relevance, consumer) -> {
+      searchCount++;
+      for (Suggestion suggestion : indexed.subList(0, Math.min(limit, indexed.size()))) {
+        if (!consumer.process(PrioritizedLookupElement
+            .withPriority(suggestion.newLookupElement(), relevance.applyAsDouble(suggestion)))) {
+          break;
+        }
+      }
+    };
+  }
+}
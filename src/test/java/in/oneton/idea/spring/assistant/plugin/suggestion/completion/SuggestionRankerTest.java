@@ -0,0 +1,96 @@
+package in.oneton.idea.spring.assistant.plugin.suggestion.completion;
+
+import in.oneton.idea.spring.assistant.plugin.suggestion.Suggestion;
+import in.oneton.idea.spring.assistant.plugin.suggestion.SuggestionNode;
+import in.oneton.idea.spring.assistant.plugin.suggestion.metadata.json.SpringConfigurationMetadataDeprecationLevel;
+import in.oneton.idea.spring.assistant.plugin.suggestion.service.SuggestionFrecencyService;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static in.oneton.idea.spring.assistant.plugin.suggestion.metadata.json.SpringConfigurationMetadataDeprecationLevel.error;
+import static in.oneton.idea.spring.assistant.plugin.suggestion.metadata.json.SpringConfigurationMetadataDeprecationLevel.warning;
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SuggestionRankerTest {
+
+  private final SuggestionFrecencyService frecencyService = mock(SuggestionFrecencyService.class);
+
+  @Test
+  void closerMatchesRankHigher() {
+    SuggestionRanker ranker = new SuggestionRanker(frecencyService, "server.port");
+    Suggestion exact = keySuggestion("server.port");
+    Suggestion prefix = keySuggestion("server.port-header");
+    Suggestion nonPrefix = keySuggestion("server.ssl-port");
+
+    assertTrue(ranker.score(exact) > ranker.score(prefix));
+    assertTrue(ranker.score(prefix) > ranker.score(nonPrefix));
+  }
+
+  @Test
+  void frecencyLiftsAcceptedSuggestions() {
+    when(frecencyService.frecencyOf("server.port-header")).thenReturn(5.0);
+    SuggestionRanker ranker = new SuggestionRanker(frecencyService, "server.po");
+
+    assertEquals(asList("server.port-header", "server.port"),
+        displayed(ranker.top(asList(keySuggestion("server.port"), keySuggestion("server.port-header")), 2)));
+  }
+
+  @Test
+  void deprecatedSuggestionsSink() {
+    SuggestionRanker ranker = new SuggestionRanker(frecencyService, "server.p");
+    Suggestion current = keySuggestion("server.port", null);
+    Suggestion deprecated = keySuggestion("server.port", warning);
+    Suggestion removed = keySuggestion("server.port", error);
+
+    assertTrue(ranker.score(current) > ranker.score(deprecated));
+    assertTrue(ranker.score(deprecated) > ranker.score(removed));
+  }
+
+  @Test
+  void topSelectsBestBestFirst() {
+    List<Suggestion> suggestions = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      String path = "spring.key" + i;
+      // lets make sure the best ones are spread across the input
+      when(frecencyService.frecencyOf(path)).thenReturn((double) ((i * 7) % 50));
+      suggestions.add(keySuggestion(path));
+    }
+    SuggestionRanker ranker = new SuggestionRanker(frecencyService, "spring.key");
+
+    List<Suggestion> sorted = new ArrayList<>(suggestions);
+    sorted.sort(Comparator.comparingDouble(ranker::score).reversed());
+
+    assertEquals(sorted.subList(0, 5), ranker.top(suggestions, 5));
+    assertEquals(sorted, ranker.top(suggestions, 100));
+    assertTrue(ranker.top(suggestions, 0).isEmpty());
+  }
+
+  private static List<String> displayed(List<Suggestion> suggestions) {
+    return suggestions.stream().map(Suggestion::getSuggestionToDisplay).collect(toList());
+  }
+
+  static Suggestion keySuggestion(String path) {
+    return keySuggestion(path, null);
+  }
+
+  static Suggestion keySuggestion(String path,
+      @Nullable SpringConfigurationMetadataDeprecationLevel deprecationLevel) {
+    List<SuggestionNode> matchesTopFirst = new ArrayList<>();
+    for (String name : path.split("\\.")) {
+      SuggestionNode node = mock(SuggestionNode.class);
+      when(node.getOriginalName()).thenReturn(name);
+      matchesTopFirst.add(node);
+    }
+    return Suggestion.builder().suggestionToDisplay(path).deprecationLevel(deprecationLevel)
+        .matchesTopFirst(matchesTopFirst).fileType(FileType.properties).build();
+  }
+}
@@ -0,0 +1,74 @@
+package in.oneton.idea.spring.assistant.plugin.suggestion.metadata;
+
+import com.intellij.openapi.module.Module;
+import in.oneton.idea.spring.assistant.plugin.misc.PathTokenizer;
+import in.oneton.idea.spring.assistant.plugin.suggestion.Suggestion;
+import in.oneton.idea.spring.assistant.plugin.suggestion.completion.FileType;
+import in.oneton.idea.spring.assistant.plugin.suggestion.metadata.json.SpringConfigurationMetadataProperty;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedSet;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+
+class MetadataNonPropertySuggestionNodeTest {
+
+  private final Module module = mock(Module.class);
+  private MetadataNonPropertySuggestionNode root;
+
+  @BeforeEach
+  void setUp() {
+    root = MetadataNonPropertySuggestionNode.newInstance("spring", null, 0);
+    addProperty("spring.data.redis.host");
+    addProperty("spring.datasource.read-only");
+    addProperty("spring.datasource.url");
+    addProperty("spring.jpa.open-in-view");
+  }
+
+  @Test
+  void everySegmentOfTheQueryIsAPrefix() {
+    // `data` is a prefix of both `data` & `datasource`
+    assertEquals(asList("spring.data.redis.host", "spring.datasource.read-only"),
+        find("spring", "data", "r"));
+    assertEquals(asList("spring.data.redis.host", "spring.datasource.read-only", "spring.datasource.url"),
+        find("spring", "da"));
+    assertEquals(singletonList("spring.datasource.url"), find("spring", "datasource", "u"));
+  }
+
+  @Test
+  void streamedSuggestionsMatchCollectedOnes() {
+    List<String> streamed = new ArrayList<>();
+    root.findKeySuggestionsForQueryPrefix(module, FileType.yaml, singletonList(root), 0,
+        new String[] {"spring", "data", "r"}, 1, null,
+        suggestion -> streamed.add(suggestion.getSuggestionToDisplay()));
+    assertEquals(find("spring", "data", "r"), streamed);
+  }
+
+  @Test
+  void nothingMatches() {
+    assertNull(root.findKeySuggestionsForQueryPrefix(module, FileType.yaml,
+        singletonList(root), 0, new String[] {"spring", "x"}, 1, null));
+  }
+
+  private List<String> find(String... querySegmentPrefixes) {
+    SortedSet<Suggestion> suggestions = root.findKeySuggestionsForQueryPrefix(module, FileType.yaml,
+        singletonList(root), 0, querySegmentPrefixes, 1, null);
+    assertNotNull(suggestions);
+    return suggestions.stream().map(Suggestion::getSuggestionToDisplay).collect(toList());
+  }
+
+  private void addProperty(String name) {
+    SpringConfigurationMetadataProperty property = new SpringConfigurationMetadataProperty();
+    property.setName(name);
+    root.addChildren(property, new PathTokenizer().reset(name).rawSegments(), 1, 0);
+  }
+}
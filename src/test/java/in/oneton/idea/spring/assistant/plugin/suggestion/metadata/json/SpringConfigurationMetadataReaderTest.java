@@ -0,0 +1,175 @@
+package in.oneton.idea.spring.assistant.plugin.suggestion.metadata.json;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpringConfigurationMetadataReaderTest {
+
+  @Test
+  void readsGroupsPropertiesAndDefaultValues() throws IOException {
+    SpringConfigurationMetadata metadata = read("{"
+        + "'groups': [{'name': 'server', 'type': 'com.acme.ServerProperties', 'sourceType': 'com.acme.ServerProperties'}],"
+        + "'properties': ["
+        + "  {'name': 'server.port', 'type': 'java.lang.Integer', 'description': 'Port.', 'defaultValue': 8080},"
+        + "  {'name': 'server.timeout', 'defaultValue': 30000000000},"
+        + "  {'name': 'server.ratio', 'defaultValue': 0.75},"
+        + "  {'name': 'server.enabled', 'defaultValue': true},"
+        + "  {'name': 'server.hosts', 'defaultValue': ['a', null, 'b']},"
+        + "  {'name': 'server.headers', 'defaultValue': {'x': 1, 'y': ['z']}},"
+        + "  {'name': 'server.none', 'defaultValue': null}"
+        + "]}");
+
+    SpringConfigurationMetadataGroup group = metadata.getGroups().get(0);
+    assertEquals("server", group.getName());
+    assertEquals("com.acme.ServerProperties", group.getClassName());
+    assertEquals("com.acme.ServerProperties", group.getSourceType());
+
+    List<SpringConfigurationMetadataProperty> properties = metadata.getProperties();
+    assertEquals(7, properties.size());
+    assertEquals("server.port", properties.get(0).getName());
+    assertEquals("java.lang.Integer", properties.get(0).getClassName());
+    assertEquals("Port.", properties.get(0).getDescription());
+    assertEquals(8080, properties.get(0).getDefaultValue());
+    assertEquals(30000000000L, properties.get(1).getDefaultValue());
+    assertEquals(0.75, properties.get(2).getDefaultValue());
+    assertEquals(Boolean.TRUE, properties.get(3).getDefaultValue());
+    // nulls within arrays are dropped
+    assertEquals(asList("a", "b"), properties.get(4).getDefaultValue());
+    Map<String, Object> headers = new LinkedHashMap<>();
+    headers.put("x", 1);
+    headers.put("y", List.of("z"));
+    assertEquals(headers, properties.get(5).getDefaultValue());
+    assertNull(properties.get(6).getDefaultValue());
+    assertNull(metadata.getHints());
+  }
+
+  @Test
+  void readsDeprecation() throws IOException {
+    List<SpringConfigurationMetadataProperty> properties = read("{'properties': ["
+        + "  {'name': 'a', 'deprecation': {'level': 'error', 'reason': 'Gone.', 'replacement': 'b'}},"
+        + "  {'name': 'c', 'deprecation': {}},"
+        + "  {'name': 'd', 'deprecation': {'level': 'unknown', 'since': '3.0'}},"
+        + "  {'name': 'e', 'deprecated': true, 'deprecation': true}"
+        + "]}").getProperties();
+
+    SpringConfigurationMetadataDeprecation deprecation = properties.get(0).getDeprecation();
+    assertNotNull(deprecation);
+    assertEquals(SpringConfigurationMetadataDeprecationLevel.error, deprecation.getLevel());
+    assertEquals("Gone.", deprecation.getReason());
+    assertEquals("b", deprecation.getReplacement());
+    assertTrue(properties.get(0).isDeprecatedError());
+
+    // level is optional, such deprecations are treated as warnings
+    assertNotNull(properties.get(1).getDeprecation());
+    assertFalse(properties.get(1).isDeprecatedError());
+    assertNull(properties.get(2).getDeprecation().getLevel());
+    // deprecation that is not an object is ignored
+    assertNull(properties.get(3).getDeprecation());
+  }
+
+  @Test
+  void readsHintsWithValuesAndProviders() throws IOException {
+    List<SpringConfigurationMetadataHint> hints = read("{'hints': ["
+        + "  {'name': 'spring.jpa.hibernate.ddl-auto',"
+        + "   'values': [{'value': 'none', 'description': 'Disable.'}, {'description': 'no value'}, {'value': 'update'}],"
+        + "   'providers': [{'name': 'any'}]},"
+        + "  {'name': 'spring.datasource.type',"
+        + "   'providers': [{'name': 'class-reference', 'parameters': {'target': 'javax.sql.DataSource', 'concrete': true}},"
+        + "                 {'name': 'handle-as', 'parameters': {'target': 'java.nio.charset.Charset'}},"
+        + "                 {'name': 'custom-provider', 'parameters': 'ignored'}]}"
+        + "]}").getHints();
+
+    assertEquals(2, hints.size());
+    SpringConfigurationMetadataHint ddlAuto = hints.get(0);
+    assertEquals("spring.jpa.hibernate.ddl-auto", ddlAuto.getName());
+    // values without the mandatory `value` are dropped
+    assertEquals(2, ddlAuto.getValues().length);
+    assertEquals("none", ddlAuto.getValues()[0].getNameAsObjOrArray());
+    assertEquals("Disable.", ddlAuto.getValues()[0].getDescription());
+    assertEquals("update", ddlAuto.getValues()[1].getNameAsObjOrArray());
+    assertEquals(SpringConfigurationMetadataValueProviderType.any, ddlAuto.getProviders()[0].getType());
+
+    SpringConfigurationMetadataValueProvider[] providers = hints.get(1).getProviders();
+    assertNull(hints.get(1).getValues());
+    assertEquals(3, providers.length);
+    assertEquals(SpringConfigurationMetadataValueProviderType.class_reference, providers[0].getType());
+    assertEquals("javax.sql.DataSource", providers[0].getParameters().getTarget());
+    assertTrue(providers[0].getParameters().isConcrete());
+    assertEquals(SpringConfigurationMetadataValueProviderType.handle_as, providers[1].getType());
+    assertFalse(providers[1].getParameters().isConcrete());
+    assertEquals(SpringConfigurationMetadataValueProviderType.unknown, providers[2].getType());
+    assertNull(providers[2].getParameters());
+  }
+
+  @Test
+  void skipsUnknownFields() throws IOException {
+    SpringConfigurationMetadata metadata = read("{"
+        + "'version': {'major': 1, 'tags': [{'a': [1, 2]}]},"
+        + "'groups': 'not an array',"
+        + "'properties': [1, 'x', [], {'name': 'a', 'extra': {'nested': [{}]}, 'type': 'java.lang.String', 'more': [[]]}],"
+        + "'unknown': [{'name': 'b'}],"
+        + "'trailing': null"
+        + "}");
+
+    assertNull(metadata.getGroups());
+    assertEquals(1, metadata.getProperties().size());
+    assertEquals("a", metadata.getProperties().get(0).getName());
+    assertEquals("java.lang.String", metadata.getProperties().get(0).getClassName());
+  }
+
+  @Test
+  void structuresInPlaceOfStringsAreIgnored() throws IOException {
+    SpringConfigurationMetadataProperty property = read(
+        "{'properties': [{'name': 'a', 'description': {'text': 'x'}, 'type': ['y']}]}").getProperties().get(0);
+    assertEquals("a", property.getName());
+    assertNull(property.getDescription());
+    assertNull(property.getClassName());
+  }
+
+  @Test
+  void readsEmptyMetadata() throws IOException {
+    SpringConfigurationMetadata metadata = read("{}");
+    assertNull(metadata.getGroups());
+    assertNull(metadata.getProperties());
+    assertNull(metadata.getHints());
+  }
+
+  @Test
+  void rejectsTruncatedMetadata() {
+    for (String truncated : asList("", "{", "{'properties'", "{'properties':", "{'properties': [",
+        "{'properties': [{'name': 'a'", "{'properties': [{'name':", "{'properties': [{'name': 'a', 'defaultValue': [1",
+        "{'properties': [{'name': 'a', 'defaultValue': {'x':", "{'properties': [{'name': 'a'}]")) {
+      assertThrows(IOException.class, () -> read(truncated), () -> "Expected to be rejected: " + truncated);
+    }
+  }
+
+  @Test
+  void rejectsMalformedMetadata() {
+    for (String malformed : asList("[]", "'properties'", "{'properties': [}", "{'properties': [{'name' 'a'}]}",
+        "{'properties': [{'name': 'a',}]}", "{properties: []}", "{'properties': [{'name': tru}]}")) {
+      assertThrows(IOException.class, () -> read(malformed), () -> "Expected to be rejected: " + malformed);
+    }
+  }
+
+  /**
+   * @param json metadata with single quotes in place of double quotes, for readability
+   */
+  private static SpringConfigurationMetadata read(String json) throws IOException {
+    return SpringConfigurationMetadataReader
+        .read(new ByteArrayInputStream(json.replace('\'', '"').getBytes(UTF_8)));
+  }
+}
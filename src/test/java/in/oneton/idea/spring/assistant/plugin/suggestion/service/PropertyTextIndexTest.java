@@ -0,0 +1,140 @@
+package in.oneton.idea.spring.assistant.plugin.suggestion.service;
+
+import in.oneton.idea.spring.assistant.plugin.suggestion.metadata.MetadataPropertySuggestionNode;
+import in.oneton.idea.spring.assistant.plugin.suggestion.metadata.json.SpringConfigurationMetadataHint;
+import in.oneton.idea.spring.assistant.plugin.suggestion.metadata.json.SpringConfigurationMetadataHintValue;
+import in.oneton.idea.spring.assistant.plugin.suggestion.metadata.json.SpringConfigurationMetadataProperty;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static java.util.Arrays.stream;
+import static java.util.Collections.emptyList;
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PropertyTextIndexTest {
+
+  private PropertyTextIndex textIndex;
+
+  @BeforeEach
+  void setUp() {
+    textIndex = PropertyTextIndex.build(asList(
+        property("spring.datasource.hikari.maximum-pool-size",
+            "Maximum size of the pool, including both idle & in-use connections."),
+        property("spring.datasource.hikari.connection-timeout",
+            "Maximum number of milliseconds to wait for a connection from the pool."),
+        property("server.port", "Server HTTP port."),
+        property("server.address", "Network address to which the server should bind, instead of a port."),
+        property("spring.jpa.hibernate.ddl-auto", "DDL mode.", "none", "validate", "update",
+            "create-drop")));
+  }
+
+  @Test
+  void splitsIntoWords() {
+    assertEquals(asList("maximum", "pool", "size"), PropertyTextIndex.toWords("maximumPoolSize"));
+    assertEquals(asList("maximum", "pool", "size"), PropertyTextIndex.toWords("maximum-pool_size"));
+    assertEquals(asList("server", "port"), PropertyTextIndex.toWords("server.port"));
+    assertEquals(asList("http2", "enabled"), PropertyTextIndex.toWords("HTTP2 enabled"));
+    // stop words are dropped
+    assertEquals(asList("size", "pool"), PropertyTextIndex.toWords("Size of the pool."));
+    assertEquals(emptyList(), PropertyTextIndex.toWords(" .- "));
+    assertEquals(emptyList(), PropertyTextIndex.toWords(null));
+  }
+
+  @Test
+  void findsPropertyByWordsOfItsName() {
+    assertEquals("spring.datasource.hikari.maximum-pool-size", firstMatch("pool size"));
+    assertEquals("spring.datasource.hikari.maximum-pool-size", firstMatch("poolSize"));
+    assertEquals("spring.datasource.hikari.maximum-pool-size", firstMatch("pool-size"));
+    assertEquals("spring.datasource.hikari.connection-timeout", firstMatch("connection timeout"));
+  }
+
+  @Test
+  void lastWordIsMatchedAsPrefix() {
+    assertEquals("spring.datasource.hikari.connection-timeout", firstMatch("connection time"));
+    assertEquals("spring.datasource.hikari.maximum-pool-size", firstMatch("maximum pool si"));
+  }
+
+  @Test
+  void nameMatchRanksAboveDescriptionMatch() {
+    List<String> matches = search("port", 10);
+    assertEquals(asList("server.port", "server.address"), matches);
+  }
+
+  @Test
+  void findsPropertyByHintValuesAndDescription() {
+    assertEquals(asList("spring.jpa.hibernate.ddl-auto"), search("validate", 10));
+    assertEquals(asList("server.address"), search("network", 10));
+  }
+
+  @Test
+  void resultsAreLimited() {
+    assertEquals(1, search("spring", 1).size());
+    assertEquals(3, search("spring", 10).size());
+  }
+
+  @Test
+  void queriesWithoutSearchableWordsMatchNothing() {
+    assertTrue(search("", 10).isEmpty());
+    assertTrue(search("of the", 10).isEmpty());
+    assertTrue(search("kafka", 10).isEmpty());
+    assertTrue(PropertyTextIndex.EMPTY.search("pool", 10).isEmpty());
+    assertEquals(0, PropertyTextIndex.EMPTY.getSize());
+    assertEquals(5, textIndex.getSize());
+  }
+
+  @Test
+  void combinedIndexMatchesSameAsIndexOverAllProperties() {
+    PropertyTextIndex springIndex = PropertyTextIndex.build(asList(
+        property("spring.datasource.hikari.maximum-pool-size",
+            "Maximum size of the pool, including both idle & in-use connections."),
+        property("spring.datasource.hikari.connection-timeout",
+            "Maximum number of milliseconds to wait for a connection from the pool."),
+        property("spring.jpa.hibernate.ddl-auto", "DDL mode.", "none", "validate", "update",
+            "create-drop")));
+    PropertyTextIndex serverIndex = PropertyTextIndex.build(asList(property("server.port", "Server HTTP port."),
+        property("server.address", "Network address to which the server should bind, instead of a port.")));
+    List<String> expected = asList(firstMatch("pool size"), firstMatch("connection time"));
+    List<String> expectedPortMatches = search("port", 10);
+
+    textIndex = PropertyTextIndex.combine(asList(springIndex, PropertyTextIndex.EMPTY, serverIndex));
+    assertEquals(5, textIndex.getSize());
+    assertEquals(expected, asList(firstMatch("pool size"), firstMatch("connection time")));
+    assertEquals(expectedPortMatches, search("port", 10));
+    assertEquals(asList("spring.jpa.hibernate.ddl-auto"), search("validate", 10));
+    assertEquals(3, search("spring", 10).size());
+    assertTrue(PropertyTextIndex.combine(emptyList()).search("pool", 10).isEmpty());
+  }
+
+  private String firstMatch(String query) {
+    List<String> matches = search(query, 10);
+    assertFalse(matches.isEmpty(), () -> "No matches for " + query);
+    return matches.get(0);
+  }
+
+  private List<String> search(String query, int limit) {
+    return textIndex.search(query, limit).stream().map(node -> node.getProperty().getName())
+        .collect(toList());
+  }
+
+  private static MetadataPropertySuggestionNode property(String name, String description,
+      String... hintValues) {
+    SpringConfigurationMetadataProperty property = new SpringConfigurationMetadataProperty();
+    property.setName(name);
+    property.setDescription(description);
+    if (hintValues.length != 0) {
+      SpringConfigurationMetadataHint hint = new SpringConfigurationMetadataHint();
+      hint.setName(name);
+      hint.setValues(stream(hintValues)
+          .map(value -> SpringConfigurationMetadataHintValue.builder().nameAsObjOrArray(value).build())
+          .toArray(SpringConfigurationMetadataHintValue[]::new));
+      property.setGenericOrKeyHint(hint);
+    }
+    return MetadataPropertySuggestionNode.builder().property(property).build();
+  }
+}
@@ -0,0 +1,65 @@
+package in.oneton.idea.spring.assistant.plugin.suggestion.service;
+
+import in.oneton.idea.spring.assistant.plugin.suggestion.service.SuggestionFrecencyService.FrecencyState;
+import in.oneton.idea.spring.assistant.plugin.suggestion.service.SuggestionFrecencyService.Usage;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SuggestionFrecencyServiceTest {
+
+  @Test
+  void acceptedPathsAreCounted() {
+    SuggestionFrecencyService frecencyService = new SuggestionFrecencyService();
+    assertEquals(0, frecencyService.frecencyOf("server.port"));
+
+    frecencyService.recordAccepted("server.port");
+    frecencyService.recordAccepted("server.port");
+    frecencyService.recordAccepted("spring.application.name");
+
+    assertEquals(2, frecencyService.frecencyOf("server.port"));
+    assertEquals(1, frecencyService.frecencyOf("spring.application.name"));
+    assertEquals(2, frecencyService.getState().pathToUsage.get("server.port").count);
+  }
+
+  @Test
+  void olderUsagesDecayInSteps() {
+    long now = System.currentTimeMillis();
+    assertEquals(10, usedDaysAgo(10, 0).score(now), 1e-9);
+    assertEquals(10, usedDaysAgo(10, 3).score(now), 1e-9);
+    assertEquals(7, usedDaysAgo(10, 4).score(now), 1e-9);
+    assertEquals(5, usedDaysAgo(10, 14).score(now), 1e-9);
+    assertEquals(3, usedDaysAgo(10, 31).score(now), 1e-9);
+    assertEquals(1, usedDaysAgo(10, 90).score(now), 1e-9);
+    assertTrue(usedDaysAgo(2, 0).score(now) > usedDaysAgo(10, 90).score(now));
+  }
+
+  @Test
+  void leastRelevantPathIsForgottenOnceFull() {
+    FrecencyState state = new FrecencyState();
+    for (int i = 0; i < 999; i++) {
+      state.pathToUsage.put("key" + i, usedDaysAgo(2, 0));
+    }
+    state.pathToUsage.put("stale", usedDaysAgo(5, 100));
+    SuggestionFrecencyService frecencyService = new SuggestionFrecencyService();
+    frecencyService.loadState(state);
+
+    frecencyService.recordAccepted("fresh");
+
+    assertEquals(1000, frecencyService.getState().pathToUsage.size());
+    assertEquals(0, frecencyService.frecencyOf("stale"));
+    assertEquals(1, frecencyService.frecencyOf("fresh"));
+    assertEquals(2, frecencyService.frecencyOf("key0"));
+  }
+
+  private static Usage usedDaysAgo(int count, int days) {
+    Usage usage = new Usage();
+    usage.count = count;
+    usage.lastUsedMillis = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(days)
+        - TimeUnit.MINUTES.toMillis(1);
+    return usage;
+  }
+}
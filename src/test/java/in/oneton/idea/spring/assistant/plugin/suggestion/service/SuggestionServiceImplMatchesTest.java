@@ -0,0 +1,128 @@
+package in.oneton.idea.spring.assistant.plugin.suggestion.service;
+
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.openapi.projectRoots.Sdk;
+import com.intellij.openapi.projectRoots.impl.JavaAwareProjectJdkTableImpl;
+import com.intellij.openapi.roots.ContentEntry;
+import com.intellij.openapi.roots.ModifiableRootModel;
+import com.intellij.openapi.roots.OrderRootType;
+import com.intellij.openapi.roots.libraries.Library;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.testFramework.LightProjectDescriptor;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import com.intellij.testFramework.fixtures.DefaultLightProjectDescriptor;
+import in.oneton.idea.spring.assistant.plugin.suggestion.SuggestionNode;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.yaml.psi.YAMLFile;
+import org.jetbrains.yaml.psi.YAMLKeyValue;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Resolving all keys of a file in one pass must give the same nodes as resolving the whole path of each key from root.
+ * Needs the platform, as keys are read off the YAML PSI & class backed properties are resolved against java classes
+ */
+public class SuggestionServiceImplMatchesTest extends BasePlatformTestCase {
+  private static final String TEST_DATA_PATH = "src/test/resources/matching";
+
+  /**
+   * Module with the metadata of the fixture as a library & a JDK, so that collections & maps of the metadata resolve
+   */
+  private static final LightProjectDescriptor WITH_METADATA = new DefaultLightProjectDescriptor() {
+    @Override
+    public Sdk getSdk() {
+      return JavaAwareProjectJdkTableImpl.getInstanceEx().getInternalJdk();
+    }
+
+    @Override
+    public void configureModule(@NotNull Module module, @NotNull ModifiableRootModel model,
+        @NotNull ContentEntry contentEntry) {
+      super.configureModule(module, model, contentEntry);
+      VirtualFile metadataRoot = requireNonNull(
+          LocalFileSystem.getInstance().refreshAndFindFileByIoFile(new File(TEST_DATA_PATH, "lib")));
+      Library.ModifiableModel library =
+          model.getModuleLibraryTable().createLibrary("metadata").getModifiableModel();
+      library.addRoot(metadataRoot, OrderRootType.CLASSES);
+      library.commit();
+    }
+  };
+
+  @Override
+  protected String getTestDataPath() {
+    return TEST_DATA_PATH;
+  }
+
+  @NotNull
+  @Override
+  protected LightProjectDescriptor getProjectDescriptor() {
+    return WITH_METADATA;
+  }
+
+  public void testMatchesOfFileAreSameAsMatchesOfEachKey() {
+    myFixture.copyDirectoryToProject("src", "");
+    YAMLFile file = (YAMLFile) myFixture.configureByFile("application.yaml");
+    SuggestionService service = SuggestionService.getInstance(getModule());
+    service.reindex(new EmptyProgressIndicator());
+
+    Map<YAMLKeyValue, List<SuggestionNode>> keyValueToMatches = service.findMatchedNodesRootTillEnd(file);
+    Collection<YAMLKeyValue> keyValues = PsiTreeUtil.findChildrenOfType(file, YAMLKeyValue.class);
+    for (YAMLKeyValue keyValue : keyValues) {
+      List<String> ancestralKeys = ancestralKeys(keyValue);
+      assertEquals("Matches of " + String.join(".", ancestralKeys),
+          describe(service.findMatchedNodesRootTillEnd(ancestralKeys)), describe(keyValueToMatches.get(keyValue)));
+    }
+
+    // lets make sure that the fixture covers nested & dotted keys, sequences & map keys, instead of matching nothing on both sides
+    for (String path : asList("server.port", "server.servlet.context-path", "spring.datasource.hikari.maximum-pool-size",
+        "logging.level.root", "logging.level.com.acme.service", "app.hosts", "app.clients.name",
+        "app.clients.timeouts.read")) {
+      assertNotNull("Matches of " + path, keyValueToMatches.get(findKeyValue(keyValues, path)));
+    }
+    for (String path : asList("spring.datasource.hikari.unknown-key", "unknown", "unknown.nested")) {
+      assertNull("Matches of " + path, keyValueToMatches.get(findKeyValue(keyValues, path)));
+    }
+  }
+
+  /**
+   * Builds the path of the key the same way documentation requests do
+   */
+  private static List<String> ancestralKeys(YAMLKeyValue keyValue) {
+    List<String> ancestralKeys = new ArrayList<>();
+    YAMLKeyValue context = keyValue;
+    while (context != null) {
+      ancestralKeys.add(0, context.getKeyText());
+      context = PsiTreeUtil.getParentOfType(context, YAMLKeyValue.class);
+    }
+    return ancestralKeys;
+  }
+
+  private static YAMLKeyValue findKeyValue(Collection<YAMLKeyValue> keyValues, String path) {
+    return keyValues.stream().filter(keyValue -> String.join(".", ancestralKeys(keyValue)).equals(path))
+        .findFirst().orElseThrow(() -> new AssertionError("Fixture has no key " + path));
+  }
+
+  /**
+   * Nodes backed by classes are created on demand, so lets compare the nodes by their type & name instead of by identity
+   */
+  @Nullable
+  private List<String> describe(@Nullable List<SuggestionNode> matches) {
+    if (matches == null) {
+      return null;
+    }
+    return matches.stream()
+        .map(node -> node.getClass().getSimpleName() + ":" + node.getNameForDocumentation(getModule()))
+        .collect(toList());
+  }
+}
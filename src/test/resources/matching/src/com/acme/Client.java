@@ -0,0 +1,33 @@
+package com.acme;
+
+import java.util.Map;
+
+public class Client {
+  private String name;
+  private int port;
+  private Map<String, Integer> timeouts;
+
+  public String getName() {
+    return name;
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+
+  public int getPort() {
+    return port;
+  }
+
+  public void setPort(int port) {
+    this.port = port;
+  }
+
+  public Map<String, Integer> getTimeouts() {
+    return timeouts;
+  }
+
+  public void setTimeouts(Map<String, Integer> timeouts) {
+    this.timeouts = timeouts;
+  }
+}